@@ -0,0 +1,130 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2023 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.siteapi.integrationtestsupport.crawler;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.jayway.jsonpath.DocumentContext;
+import com.jayway.jsonpath.JsonPath;
+
+import io.wcm.siteapi.integrationtestsupport.IntegrationTestContextBuilder;
+import io.wcm.siteapi.integrationtestsupport.linkextractor.CompositeLinkExtractor;
+import io.wcm.siteapi.integrationtestsupport.linkextractor.ContentInternalLinks;
+import io.wcm.siteapi.integrationtestsupport.linkextractor.IndexLinks;
+import io.wcm.siteapi.integrationtestsupport.linkextractor.LinkExtractor;
+import io.wcm.siteapi.integrationtestsupport.linkextractor.RichTextInternalLinks;
+import io.wcm.siteapi.integrationtestsupport.linkextractor.SiteApiDocuments;
+import io.wcm.siteapi.openapi.validator.ContentValidationException;
+import io.wcm.siteapi.openapi.validator.OpenApiSchemaValidator;
+
+/**
+ * Measures the JSON parsing of a response in {@link CrawlerItem}.
+ * <ul>
+ * <li>{@link #baseline()}: Link extraction as implemented originally: The response string is always parsed with
+ * {@link JsonPath#parse(String)}, and all link extractors accepting the suffix are applied to the parsed
+ * document.</li>
+ * <li>{@link #current()}: Current link extraction: The response bytes are passed to the
+ * {@link CompositeLinkExtractor}, which skips parsing if no link extractor accepts the suffix and uses
+ * a streaming scan for the built-in extractors.</li>
+ * <li>{@link #validate()}: Schema validation alone, which parses the response string internally.</li>
+ * <li>{@link #validateAndExtractLinks()}: Validation followed by the current link extraction as done
+ * for each response, which parses the response twice. The difference to {@link #validate()} is the upper bound
+ * of what sharing one parsed tree between validator and link extractors could save.</li>
+ * </ul>
+ * The documents are scaled up by copying their components. The "other" suffix is a content document
+ * no link extractor accepts, it is validated as content.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class JsonParseBenchmark {
+
+  @Param({ "content", "navigation", "other" })
+  private String suffix;
+
+  @Param({ "1", "10", "100" })
+  private int scale;
+
+  private String json;
+  private byte[] jsonBytes;
+  private List<LinkExtractor> linkExtractors;
+  private CompositeLinkExtractor compositeLinkExtractor;
+  private OpenApiSchemaValidator validator;
+
+  @Setup
+  public void setUp() {
+    json = "navigation".equals(suffix) ? SiteApiDocuments.navigation(scale) : SiteApiDocuments.content(scale);
+    jsonBytes = json.getBytes(StandardCharsets.UTF_8);
+    linkExtractors = List.of(new IndexLinks(), new ContentInternalLinks(),
+        new RichTextInternalLinks("siteapi-test/core/components/content/text"));
+    compositeLinkExtractor = new CompositeLinkExtractor(linkExtractors);
+    validator = new IntegrationTestContextBuilder()
+        .publishUrl("http://localhost:4502")
+        .build()
+        .getValidator("navigation".equals(suffix) ? "navigation" : "content");
+  }
+
+  @Benchmark
+  public List<String> baseline() {
+    DocumentContext jsonPathContext = JsonPath.parse(json);
+    return linkExtractors.stream()
+        .filter(extractor -> extractor.accept(suffix))
+        .flatMap(extractor -> extractor.getLinks(jsonPathContext))
+        .distinct()
+        .collect(Collectors.toList());
+  }
+
+  @Benchmark
+  public List<String> current() {
+    return compositeLinkExtractor.getLinks(suffix, jsonBytes)
+        .collect(Collectors.toList());
+  }
+
+  @Benchmark
+  public void validate() throws ContentValidationException {
+    validator.validate(new String(jsonBytes, StandardCharsets.UTF_8));
+  }
+
+  @Benchmark
+  public List<String> validateAndExtractLinks() throws ContentValidationException {
+    validator.validate(new String(jsonBytes, StandardCharsets.UTF_8));
+    return compositeLinkExtractor.getLinks(suffix, jsonBytes)
+        .collect(Collectors.toList());
+  }
+
+}
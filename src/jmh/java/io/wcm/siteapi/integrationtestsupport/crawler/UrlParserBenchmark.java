@@ -0,0 +1,76 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2023 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.siteapi.integrationtestsupport.crawler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import io.wcm.siteapi.integrationtestsupport.linkextractor.ContentInternalLinks;
+import io.wcm.siteapi.integrationtestsupport.linkextractor.SiteApiDocuments;
+import io.wcm.siteapi.integrationtestsupport.linkextractor.StreamingLinkScanner;
+
+/**
+ * Measures {@link UrlParser#parseSuffix(String)} for the links of a synthetic navigation document.
+ * Throughput is reported per parsed URL.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class UrlParserBenchmark {
+
+  private static final int URLS = 100;
+
+  private UrlParser urlParser;
+  private String[] urls;
+
+  @Setup
+  public void setUp() {
+    urlParser = new UrlParser("http://localhost:4502", "site", "", "api");
+    List<String> links = new ArrayList<>();
+    new StreamingLinkScanner(new ContentInternalLinks()).scan(SiteApiDocuments.navigation(URLS), links::add);
+    urls = links.subList(0, URLS).toArray(new String[0]);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(URLS)
+  public void parseSuffix(Blackhole blackhole) {
+    for (String url : urls) {
+      blackhole.consume(urlParser.parseSuffix(url));
+    }
+  }
+
+}
@@ -0,0 +1,115 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2023 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.siteapi.integrationtestsupport.crawler;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.ref.Reference;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares time and retained heap for adding URLs to the visited URL stores.
+ * The retained heap per URL is reported as secondary result <code>retainedBytesPerUrl</code>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class VisitedUrlStoreBenchmark {
+
+  private static final String URL_PREFIX = "https://publish.example.com/content/site/en/section";
+  private static final String URL_SUFFIX = ".site.v1.api/content.json";
+
+  @Param({ "EXACT", "FINGERPRINT", "BLOOM_FILTER" })
+  private String store;
+
+  @Param({ "1000000" })
+  private int urls;
+
+  private VisitedUrlStore visitedUrlStore;
+
+  @Setup
+  public void setUp() {
+    switch (store) {
+      case "FINGERPRINT":
+        visitedUrlStore = VisitedUrlStore.FINGERPRINT;
+        break;
+      case "BLOOM_FILTER":
+        visitedUrlStore = VisitedUrlStore.bloomFilter(urls, 0.0001);
+        break;
+      default:
+        visitedUrlStore = VisitedUrlStore.EXACT;
+    }
+  }
+
+  /**
+   * Secondary result with retained heap.
+   */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class Memory {
+
+    public double retainedBytesPerUrl;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      retainedBytesPerUrl = 0;
+    }
+
+  }
+
+  @Benchmark
+  public int addUrls(Memory memory) {
+    long usedBefore = usedHeapAfterGc();
+    VisitedUrlSet set = visitedUrlStore.createSet();
+    for (int i = 0; i < urls; i++) {
+      // build new URL strings like the link extractors do
+      set.add(URL_PREFIX + (i % 100) + "/page" + i + URL_SUFFIX);
+    }
+    memory.retainedBytesPerUrl = (double)(usedHeapAfterGc() - usedBefore) / urls;
+    // keep set reachable until heap usage was measured, but do not retain it after this invocation
+    Reference.reachabilityFence(set);
+    return set.size();
+  }
+
+  private static long usedHeapAfterGc() {
+    MemoryMXBean memoryBean = ManagementFactory.getMemoryMXBean();
+    System.gc();
+    System.gc();
+    return memoryBean.getHeapMemoryUsage().getUsed();
+  }
+
+}
@@ -0,0 +1,97 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2023 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.siteapi.integrationtestsupport.linkextractor;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.jayway.jsonpath.JsonPath;
+
+/**
+ * Measures the link extractors on synthetic Site API documents of increasing size, both via JSON path
+ * (including parsing the document) and via a single {@link StreamingLinkScanner} pass.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class LinkExtractorBenchmark {
+
+  /**
+   * Link extractors with the document type they are applied to.
+   */
+  public enum Extractor {
+    INDEX(new IndexLinks(), SiteApiDocuments::index),
+    CONTENT(new ContentInternalLinks(), SiteApiDocuments::navigation),
+    RICH_TEXT(new RichTextInternalLinks("siteapi-test/core/components/content/text"), SiteApiDocuments::content);
+
+    private final StreamingLinkExtractor linkExtractor;
+    private final IntFunction<String> document;
+
+    Extractor(StreamingLinkExtractor linkExtractor, IntFunction<String> document) {
+      this.linkExtractor = linkExtractor;
+      this.document = document;
+    }
+  }
+
+  @Param
+  private Extractor extractor;
+
+  @Param({ "1", "10", "100" })
+  private int scale;
+
+  private String json;
+  private byte[] jsonBytes;
+  private StreamingLinkScanner scanner;
+
+  @Setup
+  public void setUp() {
+    json = extractor.document.apply(scale);
+    jsonBytes = json.getBytes(StandardCharsets.UTF_8);
+    scanner = new StreamingLinkScanner(extractor.linkExtractor);
+  }
+
+  @Benchmark
+  public void jsonPath(Blackhole blackhole) {
+    extractor.linkExtractor.getLinks(JsonPath.parse(json)).forEach(blackhole::consume);
+  }
+
+  @Benchmark
+  public void streaming(Blackhole blackhole) {
+    scanner.scan(jsonBytes, blackhole::consume);
+  }
+
+}
@@ -0,0 +1,108 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2023 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.siteapi.integrationtestsupport.linkextractor;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.IOUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.jayway.jsonpath.JsonPath;
+
+import io.wcm.siteapi.integrationtestsupport.linkextractor.RichTextInternalLinks.HtmlParser;
+
+/**
+ * Compares the HTML parsers of {@link RichTextInternalLinks} on the rich text fragments corpus
+ * used in the unit tests.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class RichTextLinksBenchmark {
+
+  private static final String RESOURCE_TYPE = "siteapi-test/core/components/content/text";
+
+  @Param({ "ANCHOR_SCANNER", "JSOUP" })
+  private HtmlParser htmlParser;
+
+  private List<String> fragments;
+  private RichTextInternalLinks linkExtractor;
+
+  @Setup
+  public void setUp() throws IOException {
+    try (InputStream is = getClass().getClassLoader().getResourceAsStream("linkextractor/richtext-fragments.json")) {
+      fragments = JsonPath.parse(IOUtils.toString(is, StandardCharsets.UTF_8)).read("$");
+    }
+    linkExtractor = new RichTextInternalLinks(htmlParser, List.of(RESOURCE_TYPE));
+  }
+
+  @Benchmark
+  public void extractLinks(Blackhole blackhole) {
+    for (String fragment : fragments) {
+      linkExtractor.extractLinks(new TextComponent(fragment), blackhole::consume);
+    }
+  }
+
+  private static final class TextComponent implements JsonObjectProperties {
+
+    private final String text;
+
+    TextComponent(String text) {
+      this.text = text;
+    }
+
+    @Override
+    public String get(String name) {
+      switch (name) {
+        case ":type":
+          return RESOURCE_TYPE;
+        case "text":
+          return text;
+        default:
+          return null;
+      }
+    }
+
+    @Override
+    public int depth() {
+      return 1;
+    }
+
+  }
+
+}
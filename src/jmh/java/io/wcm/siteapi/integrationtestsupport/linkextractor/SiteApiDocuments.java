@@ -0,0 +1,142 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2023 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.siteapi.integrationtestsupport.linkextractor;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+
+import javax.json.Json;
+import javax.json.JsonArray;
+import javax.json.JsonArrayBuilder;
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+import javax.json.JsonReader;
+import javax.json.JsonString;
+import javax.json.JsonValue;
+
+/**
+ * Synthetic Site API documents for benchmarks, generated by scaling up the link extractor test fixtures.
+ * <p>
+ * Each copy of a list item or component gets distinct page paths, so the links found in the scaled documents
+ * are distinct as well. A scale of 1 returns the fixture content unchanged.
+ * </p>
+ */
+public final class SiteApiDocuments {
+
+  private static final String PAGE_PATH_PREFIX = "/content/siteapi-test/en";
+
+  private SiteApiDocuments() {
+    // static methods only
+  }
+
+  /**
+   * @param scale Number of copies of each index entry
+   * @return Index JSON
+   */
+  public static String index(int scale) {
+    return scaleArray(read("index.json").asJsonArray(), scale).toString();
+  }
+
+  /**
+   * @param scale Number of copies of each top-level navigation item including its children
+   * @return Navigation JSON
+   */
+  public static String navigation(int scale) {
+    JsonObject navigation = read("navigation.json").asJsonObject();
+    return Json.createObjectBuilder(navigation)
+        .add("children", scaleArray(navigation.getJsonArray("children"), scale))
+        .build().toString();
+  }
+
+  /**
+   * @param scale Number of copies of each component in the content container of the page
+   * @return Content JSON
+   */
+  public static String content(int scale) {
+    JsonObject page = read("content.json").asJsonObject();
+    JsonObject root = page.getJsonObject(":items").getJsonObject("root");
+    JsonObject container = root.getJsonObject(":items").getJsonObject("content");
+    JsonObject scaledRoot = Json.createObjectBuilder(root)
+        .add(":items", Json.createObjectBuilder(root.getJsonObject(":items"))
+            .add("content", scaleItems(container, scale)))
+        .build();
+    return Json.createObjectBuilder(page)
+        .add(":items", Json.createObjectBuilder(page.getJsonObject(":items"))
+            .add("root", scaledRoot))
+        .build().toString();
+  }
+
+  private static JsonArray scaleArray(JsonArray array, int scale) {
+    JsonArrayBuilder result = Json.createArrayBuilder();
+    for (int i = 0; i < scale; i++) {
+      for (JsonValue item : array) {
+        result.add(copy(item, i));
+      }
+    }
+    return result.build();
+  }
+
+  /**
+   * Copies all child items of a container, and adds the copies to the <code>:itemsOrder</code> list.
+   */
+  private static JsonObject scaleItems(JsonObject container, int scale) {
+    JsonObject items = container.getJsonObject(":items");
+    JsonObjectBuilder scaledItems = Json.createObjectBuilder();
+    JsonArrayBuilder scaledItemsOrder = Json.createArrayBuilder();
+    for (int i = 0; i < scale; i++) {
+      for (JsonValue name : container.getJsonArray(":itemsOrder")) {
+        String itemName = ((JsonString)name).getString();
+        String scaledItemName = i == 0 ? itemName : itemName + "_" + i;
+        scaledItems.add(scaledItemName, copy(items.get(itemName), i));
+        scaledItemsOrder.add(scaledItemName);
+      }
+    }
+    return Json.createObjectBuilder(container)
+        .add(":items", scaledItems)
+        .add(":itemsOrder", scaledItemsOrder)
+        .build();
+  }
+
+  /**
+   * Creates a copy of the given JSON value with distinct page paths for each copy index.
+   */
+  private static JsonValue copy(JsonValue value, int index) {
+    if (index == 0) {
+      return value;
+    }
+    String json = value.toString().replace(PAGE_PATH_PREFIX, PAGE_PATH_PREFIX + index);
+    try (JsonReader reader = Json.createReader(new StringReader(json))) {
+      return reader.readValue();
+    }
+  }
+
+  private static JsonValue read(String fileName) {
+    try (InputStream is = SiteApiDocuments.class.getClassLoader().getResourceAsStream("linkextractor/" + fileName);
+        JsonReader reader = Json.createReader(is)) {
+      return reader.readValue();
+    }
+    catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+
+}
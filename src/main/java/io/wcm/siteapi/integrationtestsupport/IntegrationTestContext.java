@@ -19,10 +19,28 @@
  */
 package io.wcm.siteapi.integrationtestsupport;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
+import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import io.wcm.siteapi.integrationtestsupport.httpclient.HttpClient;
 import io.wcm.siteapi.openapi.validator.OpenApiSchemaValidator;
@@ -36,12 +54,25 @@ import io.wcm.siteapi.openapi.validator.OpenApiSpecVersions;
  */
 public final class IntegrationTestContext {
 
+  /**
+   * Class path resource of the OAS3 spec file loaded by the default {@link OpenApiSpecVersions} for an API version.
+   */
+  static final String SPEC_RESOURCE_PATTERN = "site-api-spec/site-api-%s.yaml";
+
+  /**
+   * Matches a path key in the spec file, e.g. <code>"{contentPath}.site.v1.api/index.json":</code>.
+   */
+  private static final Pattern SPEC_PATH_SUFFIX_PATTERN = Pattern.compile("^  \"?[^\"\\s]*/([^/.\"]+)\\.json\"?:\\s*$");
+
   private final String publishUrl;
   private final String selector;
   private final String apiVersion;
   private final String extension;
   private final OpenApiSpecVersions specVersions;
   private final HttpClient httpClient;
+  private final int crawlerConcurrency;
+  private final Map<String, OpenApiSchemaValidator> validators = new ConcurrentHashMap<>();
+  private final String specChecksum;
 
   IntegrationTestContext(IntegrationTestContextBuilder builder) {
     this.publishUrl = builder.getPublishUrl();
@@ -50,6 +81,55 @@ public final class IntegrationTestContext {
     this.extension = builder.getExtension();
     this.specVersions = builder.getSpecVersions();
     this.httpClient = new HttpClient(builder);
+    this.crawlerConcurrency = builder.getCrawlerConcurrency();
+    byte[] spec = builder.isDefaultSpecVersions() ? loadSpec(apiVersion) : null;
+    this.specChecksum = spec != null ? DigestUtils.sha256Hex(spec) : null;
+
+    // compile validators for the given suffixes upfront
+    if (builder.isPreloadAllValidators()) {
+      if (spec == null) {
+        throw new IllegalStateException("Unable to preload validators for all suffixes: "
+            + "Spec file for API version '" + apiVersion + "' is not known.");
+      }
+      preloadValidators(getSpecSuffixes(new String(spec, StandardCharsets.UTF_8)));
+    }
+    else {
+      preloadValidators(builder.getPreloadValidatorSuffixes());
+    }
+  }
+
+  /**
+   * Compiles the validators in a dedicated thread pool which is bounded by the number of processors,
+   * to not block the common fork join pool with the long-running schema compilation.
+   */
+  private void preloadValidators(Collection<String> suffixes) {
+    if (suffixes.isEmpty()) {
+      return;
+    }
+    int threads = Math.min(suffixes.size(), Runtime.getRuntime().availableProcessors());
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<OpenApiSchemaValidator>> futures = new ArrayList<>();
+      for (String suffix : suffixes) {
+        futures.add(executor.submit(() -> getValidator(suffix)));
+      }
+      for (Future<OpenApiSchemaValidator> future : futures) {
+        future.get();
+      }
+    }
+    catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while preloading validators.", ex);
+    }
+    catch (ExecutionException ex) {
+      if (ex.getCause() instanceof RuntimeException) {
+        throw (RuntimeException)ex.getCause();
+      }
+      throw new IllegalStateException("Unable to preload validators.", ex.getCause());
+    }
+    finally {
+      executor.shutdownNow();
+    }
   }
 
   /**
@@ -86,12 +166,15 @@ public final class IntegrationTestContext {
 
   /**
    * Get OAS3 schema validator for given processor/suffix.
+   * The validator is compiled on first access and cached afterwards.
    * @param suffix Suffix e.g. "content", "navigation"
    * @return Validator
    */
   public @NotNull OpenApiSchemaValidator getValidator(@NotNull String suffix) {
-    OpenApiSpec spec = specVersions.get(apiVersion);
-    return spec.getSchemaValidator(suffix);
+    return validators.computeIfAbsent(suffix, key -> {
+      OpenApiSpec spec = specVersions.get(apiVersion);
+      return spec.getSchemaValidator(key);
+    });
   }
 
   /**
@@ -122,4 +205,54 @@ public final class IntegrationTestContext {
     return this.extension;
   }
 
+  /**
+   * @return Maximum number of URLs the crawler processes in parallel.
+   */
+  public int getCrawlerConcurrency() {
+    return this.crawlerConcurrency;
+  }
+
+  /**
+   * @return SHA-256 checksum of the OAS3 spec file responses are validated against for the configured API version.
+   *         Is null if the spec file cannot be determined, e.g. because custom spec versions are configured.
+   */
+  public @Nullable String getSpecChecksum() {
+    return this.specChecksum;
+  }
+
+  private static byte @Nullable [] loadSpec(String apiVersion) {
+    URL specUrl = OpenApiSpecVersions.class.getClassLoader().getResource(String.format(SPEC_RESOURCE_PATTERN, apiVersion));
+    if (specUrl == null) {
+      return null;
+    }
+    try (InputStream is = specUrl.openStream()) {
+      return is.readAllBytes();
+    }
+    catch (IOException ex) {
+      return null;
+    }
+  }
+
+  /**
+   * Get suffixes of all paths defined in the spec file.
+   * @param spec Spec file content
+   * @return Suffixes in order of definition
+   */
+  static @NotNull Set<String> getSpecSuffixes(@NotNull String spec) {
+    Set<String> suffixes = new LinkedHashSet<>();
+    boolean inPaths = false;
+    for (String line : spec.split("\\r?\\n")) {
+      if (!line.isEmpty() && !Character.isWhitespace(line.charAt(0))) {
+        inPaths = line.startsWith("paths:");
+      }
+      else if (inPaths) {
+        Matcher matcher = SPEC_PATH_SUFFIX_PATTERN.matcher(line);
+        if (matcher.matches()) {
+          suffixes.add(matcher.group(1));
+        }
+      }
+    }
+    return suffixes;
+  }
+
 }
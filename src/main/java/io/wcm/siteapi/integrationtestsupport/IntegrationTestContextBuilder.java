@@ -19,12 +19,17 @@
  */
 package io.wcm.siteapi.integrationtestsupport;
 
+import java.net.http.HttpClient.Version;
+import java.nio.file.Path;
 import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
 
 import org.apache.commons.lang3.StringUtils;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import io.wcm.siteapi.integrationtestsupport.httpclient.RetryPolicy;
 import io.wcm.siteapi.openapi.validator.OpenApiSpecVersions;
 
 /**
@@ -37,8 +42,19 @@ public final class IntegrationTestContextBuilder {
   private String apiVersion = "";
   private String extension = "api";
   private OpenApiSpecVersions specVersions;
+  private boolean defaultSpecVersions;
   private Duration httpConnectTimeout = Duration.ofSeconds(20);
   private Duration httpRequestTimeout = Duration.ofSeconds(60);
+  private Version httpVersion = Version.HTTP_1_1;
+  private double httpRateLimit;
+  private int httpRateLimitBurst = 1;
+  private int httpAdaptiveConcurrencyLimit;
+  private RetryPolicy httpRetryPolicy = new RetryPolicy();
+  private Path httpCacheDirectory;
+  private boolean httpCompression;
+  private int crawlerConcurrency = 1;
+  private List<String> preloadValidatorSuffixes = List.of();
+  private boolean preloadAllValidators;
 
   /**
    * @return Publish URL
@@ -118,6 +134,54 @@ public final class IntegrationTestContextBuilder {
    */
   public @NotNull IntegrationTestContextBuilder specVersions(@NotNull OpenApiSpecVersions value) {
     this.specVersions = value;
+    this.defaultSpecVersions = false;
+    return this;
+  }
+
+  /**
+   * @return true if the default spec versions are used, which are loaded from class path resources.
+   */
+  boolean isDefaultSpecVersions() {
+    return this.defaultSpecVersions;
+  }
+
+  /**
+   * @return Suffixes for which the OAS3 schema validators are compiled when building the context.
+   */
+  public @NotNull List<String> getPreloadValidatorSuffixes() {
+    return this.preloadValidatorSuffixes;
+  }
+
+  /**
+   * @return true if the OAS3 schema validators for all suffixes defined in the spec file are compiled
+   *         when building the context.
+   */
+  public boolean isPreloadAllValidators() {
+    return this.preloadAllValidators;
+  }
+
+  /**
+   * Compile the OAS3 schema validators for the given suffixes in parallel when building the context,
+   * instead of on first use. This avoids that the first requests for each suffix are delayed by the
+   * schema compilation.
+   * @param suffixes Suffixes e.g. "index", "navigation", "content", "config"
+   * @return this
+   */
+  public @NotNull IntegrationTestContextBuilder preloadValidators(@NotNull String... suffixes) {
+    this.preloadValidatorSuffixes = List.copyOf(Arrays.asList(suffixes));
+    this.preloadAllValidators = false;
+    return this;
+  }
+
+  /**
+   * Compile the OAS3 schema validators for all suffixes defined in the paths of the spec file
+   * in parallel when building the context, instead of on first use.
+   * Requires the default spec versions loaded from class path resources.
+   * @return this
+   */
+  public @NotNull IntegrationTestContextBuilder preloadValidators() {
+    this.preloadValidatorSuffixes = List.of();
+    this.preloadAllValidators = true;
     return this;
   }
 
@@ -153,6 +217,149 @@ public final class IntegrationTestContextBuilder {
     return this;
   }
 
+  /**
+   * @return Preferred HTTP protocol version
+   */
+  public @NotNull Version getHttpVersion() {
+    return this.httpVersion;
+  }
+
+  /**
+   * @param value Preferred HTTP protocol version. Default is HTTP/1.1, which is required for AEMaaCS CM integration
+   *          tests. With HTTP/2 concurrent requests are multiplexed over a single connection, falling back to HTTP/1.1
+   *          if the server does not support HTTP/2.
+   * @return this
+   */
+  public @NotNull IntegrationTestContextBuilder httpVersion(@NotNull Version value) {
+    this.httpVersion = value;
+    return this;
+  }
+
+  /**
+   * @return Maximum number of HTTP requests per second and host, 0 if unlimited.
+   */
+  public double getHttpRateLimit() {
+    return this.httpRateLimit;
+  }
+
+  /**
+   * @param value Maximum number of HTTP requests per second and host. Default is 0 which means unlimited.
+   * @return this
+   */
+  public @NotNull IntegrationTestContextBuilder httpRateLimit(double value) {
+    this.httpRateLimit = value;
+    return this;
+  }
+
+  /**
+   * @return Number of HTTP requests that may be sent in a burst when the rate limit is not exhausted.
+   */
+  public int getHttpRateLimitBurst() {
+    return this.httpRateLimitBurst;
+  }
+
+  /**
+   * @param value Number of HTTP requests that may be sent in a burst when the rate limit is not exhausted.
+   *          Default is 1.
+   * @return this
+   */
+  public @NotNull IntegrationTestContextBuilder httpRateLimitBurst(int value) {
+    this.httpRateLimitBurst = value;
+    return this;
+  }
+
+  /**
+   * @return Maximum number of concurrent HTTP requests the adaptive concurrency limiter may grow to,
+   *         0 if adaptive concurrency control is disabled.
+   */
+  public int getHttpAdaptiveConcurrencyLimit() {
+    return this.httpAdaptiveConcurrencyLimit;
+  }
+
+  /**
+   * Enables adaptive concurrency control for HTTP requests. The number of concurrent requests starts at 1 and
+   * grows while response latency is stable, up to the given maximum. It backs off on rising latency,
+   * HTTP 429/503 responses and request timeouts (see {@link #httpRequestTimeout(Duration)}).
+   * The crawler never processes more URLs in parallel than allowed by the current limit.
+   * @param value Maximum number of concurrent HTTP requests. Default is 0 which means disabled.
+   * @return this
+   */
+  public @NotNull IntegrationTestContextBuilder httpAdaptiveConcurrencyLimit(int value) {
+    this.httpAdaptiveConcurrencyLimit = value;
+    return this;
+  }
+
+  /**
+   * @return Retry policy for failed HTTP requests.
+   */
+  public @NotNull RetryPolicy getHttpRetryPolicy() {
+    return this.httpRetryPolicy;
+  }
+
+  /**
+   * @param value Retry policy for failed HTTP requests. Default policy does not retry requests.
+   * @return this
+   */
+  public @NotNull IntegrationTestContextBuilder httpRetryPolicy(@NotNull RetryPolicy value) {
+    this.httpRetryPolicy = value;
+    return this;
+  }
+
+  /**
+   * @return Directory of local HTTP cache or null if disabled.
+   */
+  public @Nullable Path getHttpCacheDirectory() {
+    return this.httpCacheDirectory;
+  }
+
+  /**
+   * Enables a local on-disk HTTP cache for incremental recrawls. Responses are stored with their ETag and
+   * Last-Modified headers and revalidated using conditional requests, the stored body is reused if the server
+   * responds with 304 Not Modified. The crawler skips validation of unchanged responses that were already
+   * validated against the same API version.
+   * @param value Cache directory. Default is null which means no HTTP cache.
+   * @return this
+   */
+  public @NotNull IntegrationTestContextBuilder httpCacheDirectory(@Nullable Path value) {
+    this.httpCacheDirectory = value;
+    return this;
+  }
+
+  /**
+   * @return Whether compressed responses are requested.
+   */
+  public boolean isHttpCompression() {
+    return this.httpCompression;
+  }
+
+  /**
+   * Requests compressed responses by sending an Accept-Encoding header for gzip and deflate.
+   * Compressed response bodies are decompressed while they are received.
+   * @param value Whether compressed responses are requested. Default is false.
+   * @return this
+   */
+  public @NotNull IntegrationTestContextBuilder httpCompression(boolean value) {
+    this.httpCompression = value;
+    return this;
+  }
+
+  /**
+   * @return Maximum number of URLs the crawler fetches, validates and extracts links from in parallel.
+   */
+  public int getCrawlerConcurrency() {
+    return this.crawlerConcurrency;
+  }
+
+  /**
+   * @param value Maximum number of URLs the crawler fetches, validates and extracts links from in parallel.
+   *          Default is 1 which means sequential crawling.
+   * @return this
+   */
+  public @NotNull IntegrationTestContextBuilder crawlerConcurrency(int value) {
+    this.crawlerConcurrency = value;
+    return this;
+  }
+
   /**
    * @return Integration test context
    */
@@ -160,8 +367,21 @@ public final class IntegrationTestContextBuilder {
     if (this.publishUrl == null) {
       throw new IllegalArgumentException("No publish URL given.");
     }
+    if (this.httpRateLimit < 0) {
+      throw new IllegalArgumentException("HTTP rate limit must not be negative.");
+    }
+    if (this.httpRateLimitBurst < 1) {
+      throw new IllegalArgumentException("HTTP rate limit burst must be at least 1.");
+    }
+    if (this.httpAdaptiveConcurrencyLimit < 0) {
+      throw new IllegalArgumentException("HTTP adaptive concurrency limit must not be negative.");
+    }
+    if (this.crawlerConcurrency < 1) {
+      throw new IllegalArgumentException("Crawler concurrency must be at least 1.");
+    }
     if (this.specVersions == null) {
       this.specVersions = new OpenApiSpecVersions();
+      this.defaultSpecVersions = true;
     }
     return new IntegrationTestContext(this);
   }
@@ -0,0 +1,105 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2023 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.siteapi.integrationtestsupport.crawler;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Bloom filter for visited URLs with fixed memory. May report URLs as visited that were never added,
+ * with a probability depending on the expected number of URLs and the configured false-positive rate.
+ */
+final class BloomFilterVisitedUrlSet implements VisitedUrlSet {
+
+  private static final double LN2 = Math.log(2);
+
+  private final long[] bits;
+  private final long numBits;
+  private final int numHashFunctions;
+  private long bitsSet;
+  private int size;
+
+  /**
+   * @param expectedUrls Expected number of URLs
+   * @param falsePositiveProbability False-positive probability when the expected number of URLs is reached
+   */
+  BloomFilterVisitedUrlSet(long expectedUrls, double falsePositiveProbability) {
+    validateParameters(expectedUrls, falsePositiveProbability);
+    long optimalNumBits = (long)Math.ceil(-expectedUrls * Math.log(falsePositiveProbability) / (LN2 * LN2));
+    this.bits = new long[(int)Math.max(1, (optimalNumBits + 63) / 64)];
+    this.numBits = bits.length * 64L;
+    this.numHashFunctions = (int)Math.max(1, Math.round((double)numBits / expectedUrls * LN2));
+  }
+
+  static void validateParameters(long expectedUrls, double falsePositiveProbability) {
+    if (expectedUrls < 1) {
+      throw new IllegalArgumentException("Expected number of URLs must be at least 1.");
+    }
+    if (falsePositiveProbability <= 0 || falsePositiveProbability >= 1) {
+      throw new IllegalArgumentException("False-positive probability must be between 0 and 1.");
+    }
+  }
+
+  @Override
+  public synchronized boolean add(@NotNull String url) {
+    // derive all hash functions from the two halves of the 64-bit fingerprint (Kirsch-Mitzenmacher)
+    long fingerprint = FingerprintVisitedUrlSet.fingerprint(url);
+    int hash1 = (int)fingerprint;
+    int hash2 = (int)(fingerprint >>> 32);
+    boolean added = false;
+    for (int i = 0; i < numHashFunctions; i++) {
+      long combinedHash = hash1 + (long)i * hash2;
+      long bitIndex = Math.floorMod(combinedHash, numBits);
+      int wordIndex = (int)(bitIndex >>> 6);
+      long mask = 1L << bitIndex;
+      if ((bits[wordIndex] & mask) == 0) {
+        bits[wordIndex] |= mask;
+        bitsSet++;
+        added = true;
+      }
+    }
+    if (added) {
+      size++;
+    }
+    return added;
+  }
+
+  @Override
+  public synchronized int size() {
+    return size;
+  }
+
+  /**
+   * Estimates the probability that a URL not added before is reported as visited, based on the
+   * fraction of bits set.
+   */
+  @Override
+  public synchronized double falsePositiveProbability() {
+    return Math.pow((double)bitsSet / numBits, numHashFunctions);
+  }
+
+  long numBits() {
+    return this.numBits;
+  }
+
+  int numHashFunctions() {
+    return this.numHashFunctions;
+  }
+
+}
@@ -0,0 +1,187 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2023 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.siteapi.integrationtestsupport.crawler;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Defines the order in which the crawler processes the URLs in its work frontier.
+ */
+public final class CrawlOrder {
+
+  /**
+   * Breadth-first: URLs are processed in the order they are discovered.
+   */
+  public static final CrawlOrder BREADTH_FIRST = new CrawlOrder(BreadthFirstFrontier::new, null,
+      Comparator.<int[]>comparingInt(position -> position.length).thenComparing(Arrays::compare));
+
+  /**
+   * Depth-first: The URLs discovered last are processed first, so all links found in a response are crawled
+   * before the remaining links of the previous responses (default).
+   */
+  public static final CrawlOrder DEPTH_FIRST = new CrawlOrder(DepthFirstFrontier::new, null, Arrays::compare);
+
+  private final Supplier<CrawlerFrontier> frontierFactory;
+  private final Comparator<String> urlComparator;
+  private final Comparator<int[]> positionOrder;
+
+  private CrawlOrder(Supplier<CrawlerFrontier> frontierFactory, @Nullable Comparator<String> urlComparator,
+      Comparator<int[]> positionOrder) {
+    this.frontierFactory = frontierFactory;
+    this.urlComparator = urlComparator;
+    this.positionOrder = positionOrder;
+  }
+
+  /**
+   * Priority: URLs are processed in the order defined by the given comparator.
+   * URLs with equal priority are processed in the order they are discovered.
+   * @param urlComparator Comparator for the URLs to crawl
+   * @return Crawl order
+   */
+  public static @NotNull CrawlOrder priority(@NotNull Comparator<String> urlComparator) {
+    return new CrawlOrder(() -> new PriorityFrontier(urlComparator), urlComparator, Arrays::compare);
+  }
+
+  @NotNull
+  CrawlerFrontier createFrontier() {
+    return frontierFactory.get();
+  }
+
+  /**
+   * Defines an order of crawled URLs independent of the crawler concurrency. It is derived from the position
+   * of the URLs in the tree of discovered links (see {@link CrawlerItem#getPosition()}), and matches the order in
+   * which a sequential crawl processes the URLs for breadth-first and depth-first crawling.
+   * For priority crawling the URLs are ordered by priority.
+   * @param <T> Type of the ordered values
+   * @param url Gets the URL of a value
+   * @param position Gets the position of a value
+   * @return Comparator
+   */
+  @NotNull
+  <T> Comparator<T> getResultOrder(@NotNull Function<T, String> url, @NotNull Function<T, int[]> position) {
+    Comparator<T> order = Comparator.comparing(position, positionOrder);
+    if (urlComparator != null) {
+      return Comparator.comparing(url, urlComparator).thenComparing(order);
+    }
+    return order;
+  }
+
+
+  private static final class BreadthFirstFrontier implements CrawlerFrontier {
+
+    private final Queue<CrawlerItem> queue = new ArrayDeque<>();
+
+    @Override
+    public void addAll(@NotNull List<CrawlerItem> items) {
+      queue.addAll(items);
+    }
+
+    @Override
+    public @Nullable CrawlerItem poll() {
+      return queue.poll();
+    }
+
+    @Override
+    public int size() {
+      return queue.size();
+    }
+
+  }
+
+  private static final class DepthFirstFrontier implements CrawlerFrontier {
+
+    private final Deque<CrawlerItem> stack = new ArrayDeque<>();
+
+    @Override
+    public void addAll(@NotNull List<CrawlerItem> items) {
+      // push in reverse order to process the items in the order they were discovered
+      ListIterator<CrawlerItem> iterator = items.listIterator(items.size());
+      while (iterator.hasPrevious()) {
+        stack.push(iterator.previous());
+      }
+    }
+
+    @Override
+    public @Nullable CrawlerItem poll() {
+      return stack.poll();
+    }
+
+    @Override
+    public int size() {
+      return stack.size();
+    }
+
+  }
+
+  private static final class PriorityFrontier implements CrawlerFrontier {
+
+    private final Queue<Entry> queue;
+    private long sequence;
+
+    PriorityFrontier(Comparator<String> urlComparator) {
+      this.queue = new PriorityQueue<>(Comparator.<Entry, String>comparing(entry -> entry.item.getUrl(), urlComparator)
+          .thenComparingLong(entry -> entry.sequence));
+    }
+
+    @Override
+    public void addAll(@NotNull List<CrawlerItem> items) {
+      for (CrawlerItem item : items) {
+        queue.add(new Entry(item, sequence++));
+      }
+    }
+
+    @Override
+    public @Nullable CrawlerItem poll() {
+      Entry entry = queue.poll();
+      return entry != null ? entry.item : null;
+    }
+
+    @Override
+    public int size() {
+      return queue.size();
+    }
+
+    private static final class Entry {
+
+      private final CrawlerItem item;
+      private final long sequence;
+
+      Entry(CrawlerItem item, long sequence) {
+        this.item = item;
+        this.sequence = sequence;
+      }
+
+    }
+
+  }
+
+}
@@ -0,0 +1,194 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2023 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.siteapi.integrationtestsupport.crawler;
+
+import java.time.Duration;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Publishes the results of a crawl to a single subscriber.
+ * <p>
+ * The crawl is started in a separate thread when the subscriber subscribes. Each requested result permits
+ * the crawler to fetch one more URL, so the subscriber's demand throttles the crawl and at most as many results
+ * are produced as were requested. All subscriber signals are emitted from the crawl thread.
+ * </p>
+ */
+final class CrawlPublisher implements Flow.Publisher<CrawlResult> {
+
+  private final Crawler crawler;
+  private final String url;
+  private final AtomicBoolean subscribed = new AtomicBoolean();
+
+  CrawlPublisher(@NotNull Crawler crawler, @NotNull String url) {
+    this.crawler = crawler;
+    this.url = url;
+  }
+
+  @Override
+  public void subscribe(Flow.Subscriber<? super CrawlResult> subscriber) {
+    if (!subscribed.compareAndSet(false, true)) {
+      subscriber.onSubscribe(new Flow.Subscription() {
+        @Override
+        public void request(long n) {
+          // ignore
+        }
+        @Override
+        public void cancel() {
+          // ignore
+        }
+      });
+      subscriber.onError(new IllegalStateException("Crawl publisher supports only a single subscriber."));
+      return;
+    }
+    CrawlSubscription subscription = new CrawlSubscription(subscriber);
+    subscriber.onSubscribe(subscription);
+    Thread thread = new Thread(() -> run(subscription), "crawler-publisher");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  private void run(CrawlSubscription subscription) {
+    try {
+      crawler.start(url, subscription);
+    }
+    catch (RuntimeException | Error ex) {
+      subscription.error(ex);
+      return;
+    }
+    subscription.complete();
+  }
+
+
+  /**
+   * Keeps track of the outstanding demand of the subscriber.
+   */
+  static final class CrawlSubscription implements Flow.Subscription {
+
+    private final Flow.Subscriber<? super CrawlResult> subscriber;
+    private long demand;
+    private boolean cancelled;
+    private boolean waitingForDemand;
+    private IllegalArgumentException invalidRequest;
+
+    CrawlSubscription(@NotNull Flow.Subscriber<? super CrawlResult> subscriber) {
+      this.subscriber = subscriber;
+    }
+
+    @Override
+    public synchronized void request(long n) {
+      if (cancelled) {
+        return;
+      }
+      if (n <= 0) {
+        invalidRequest = new IllegalArgumentException("Requested number of results must be positive: " + n);
+        cancelled = true;
+      }
+      else {
+        demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+      }
+      notifyAll();
+    }
+
+    @Override
+    public synchronized void cancel() {
+      cancelled = true;
+      notifyAll();
+    }
+
+    /**
+     * Acquires a permit to fetch one more URL.
+     * @param block Wait until there is demand if there is none currently
+     * @return true if a URL may be fetched, false if there is no demand or the subscription was cancelled.
+     */
+    synchronized boolean tryAcquire(boolean block) {
+      while (block && demand == 0 && !cancelled) {
+        waitingForDemand = true;
+        notifyAll();
+        try {
+          wait();
+        }
+        catch (InterruptedException ex) {
+          Thread.currentThread().interrupt();
+          cancelled = true;
+        }
+      }
+      waitingForDemand = false;
+      if (cancelled || demand == 0) {
+        return false;
+      }
+      demand--;
+      return true;
+    }
+
+    synchronized boolean isCancelled() {
+      return cancelled;
+    }
+
+    /**
+     * Waits until the crawler is blocked because there is no demand. At this point no URL is in flight,
+     * so all URLs permitted before are fetched and their results are published.
+     * @param timeout Maximum time to wait
+     * @return true if the crawler is blocked, false if the timeout elapsed before
+     * @throws InterruptedException if interrupted while waiting
+     */
+    synchronized boolean awaitWaitingForDemand(@NotNull Duration timeout) throws InterruptedException {
+      long deadline = System.nanoTime() + timeout.toNanos();
+      while (!waitingForDemand) {
+        long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+        if (remainingMillis <= 0) {
+          return false;
+        }
+        wait(remainingMillis);
+      }
+      return true;
+    }
+
+    void next(@NotNull CrawlResult result) {
+      if (!isCancelled()) {
+        subscriber.onNext(result);
+      }
+    }
+
+    void complete() {
+      IllegalArgumentException error;
+      synchronized (this) {
+        error = invalidRequest;
+      }
+      if (error != null) {
+        subscriber.onError(error);
+      }
+      else if (!isCancelled()) {
+        subscriber.onComplete();
+      }
+    }
+
+    void error(@NotNull Throwable ex) {
+      if (!isCancelled()) {
+        subscriber.onError(ex);
+      }
+    }
+
+  }
+
+}
@@ -0,0 +1,125 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2023 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.siteapi.integrationtestsupport.crawler;
+
+import java.time.Duration;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Outcome of fetching, validating and extracting links from a single URL during crawling.
+ */
+public final class CrawlResult {
+
+  private final String url;
+  private final String refererUrl;
+  private final String suffix;
+  private final boolean success;
+  private final String message;
+  private final String response;
+  private final int links;
+  private final long durationNanos;
+
+  private CrawlResult(String url, String refererUrl, String suffix, boolean success,
+      String message, String response, int links, long durationNanos) {
+    this.url = url;
+    this.refererUrl = refererUrl;
+    this.suffix = suffix;
+    this.success = success;
+    this.message = message;
+    this.response = response;
+    this.links = links;
+    this.durationNanos = durationNanos;
+  }
+
+  static CrawlResult success(@NotNull String url, @Nullable String refererUrl, @NotNull String suffix,
+      int links, @Nullable String response, long durationNanos) {
+    return new CrawlResult(url, refererUrl, suffix, true, null, response, links, durationNanos);
+  }
+
+  static CrawlResult failed(@NotNull String url, @Nullable String refererUrl, @Nullable String suffix,
+      @NotNull String message, @Nullable String response, long durationNanos) {
+    return new CrawlResult(url, refererUrl, suffix, false, message, response, 0, durationNanos);
+  }
+
+  /**
+   * @return URL
+   */
+  public @NotNull String getUrl() {
+    return this.url;
+  }
+
+  /**
+   * @return URL of the response the URL was found in, or null for the start URL.
+   */
+  public @Nullable String getRefererUrl() {
+    return this.refererUrl;
+  }
+
+  /**
+   * @return Site API suffix, or null if the URL is not a valid Site API URL.
+   */
+  public @Nullable String getSuffix() {
+    return this.suffix;
+  }
+
+  /**
+   * @return true if the response was fetched and validated successfully.
+   */
+  public boolean isSuccess() {
+    return this.success;
+  }
+
+  /**
+   * @return Failure message, or null for successful results.
+   */
+  public @Nullable String getMessage() {
+    return this.message;
+  }
+
+  /**
+   * @return Full response body of a failed validation, or null if no response body is available.
+   *         For results published via {@link Crawler#publish(String)} also the response body of successful results.
+   */
+  public @Nullable String getResponse() {
+    return this.response;
+  }
+
+  /**
+   * @return Number of links found in the response.
+   */
+  public int getLinks() {
+    return this.links;
+  }
+
+  /**
+   * @return Time spent fetching, validating and extracting links.
+   */
+  public @NotNull Duration getDuration() {
+    return Duration.ofNanos(durationNanos);
+  }
+
+  @Override
+  public String toString() {
+    return (success ? "SUCCESS " : "FAILED ") + url + (message != null ? ": " + message : "");
+  }
+
+}
@@ -0,0 +1,48 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2023 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.siteapi.integrationtestsupport.crawler;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Receives the outcome of each crawled URL as soon as it is processed.
+ * <p>
+ * The crawler calls {@link #accept(CrawlResult)} concurrently from all crawler threads, and closes the sink
+ * when the crawl is finished.
+ * </p>
+ */
+public interface CrawlResultSink extends Closeable {
+
+  /**
+   * @param result Crawl result
+   */
+  void accept(@NotNull CrawlResult result);
+
+  /**
+   * Writes all pending results and releases all resources.
+   * @throws IOException if writing the results failed
+   */
+  @Override
+  void close() throws IOException;
+
+}
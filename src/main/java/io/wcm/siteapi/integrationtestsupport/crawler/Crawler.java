@@ -19,30 +19,100 @@
  */
 package io.wcm.siteapi.integrationtestsupport.crawler;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashSet;
+import java.util.Comparator;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import org.apache.commons.lang3.StringUtils;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import io.wcm.siteapi.integrationtestsupport.IntegrationTestContext;
+import io.wcm.siteapi.integrationtestsupport.linkextractor.CompositeLinkExtractor;
 import io.wcm.siteapi.integrationtestsupport.linkextractor.LinkExtractor;
 
 /**
  * Generic Site API JSON content crawler.
+ * <p>
+ * All URLs discovered but not yet processed are kept in a work frontier. The order in which they
+ * are processed is defined by the {@link CrawlOrder}, which defaults to depth-first.
+ * </p>
+ * <p>
+ * If a crawler concurrency greater than 1 is configured in the integration test context,
+ * the crawler fetches, validates and extracts links from multiple URLs in parallel.
+ * The visited and failed URLs are the same as for sequential crawling. The failed URLs are reported in the order
+ * of their position in the tree of discovered links, which is the same for concurrent and sequential crawling
+ * (URLs linked from multiple pages are assigned to the page that discovered them first).
+ * When adaptive HTTP concurrency control is enabled, the current HTTP concurrency limit additionally caps
+ * the number of URLs processed in parallel.
+ * </p>
+ * <p>
+ * If a local HTTP cache is configured, responses that did not change since the last crawl and were already
+ * validated successfully against the same OAS3 spec file are not validated again. This does not apply if custom
+ * spec versions are configured in the integration test context, as their spec files are not known.
+ * </p>
+ * <p>
+ * Optionally the crawl state is written to a checkpoint file, which allows to resume an interrupted crawl.
+ * </p>
+ * <p>
+ * Timing statistics for the processing stages are collected in {@link CrawlerStatistics}.
+ * </p>
+ * <p>
+ * Optionally the outcome of each URL is written to a {@link CrawlResultSink} as soon as it is processed.
+ * In this case the response bodies of failed URLs are not included in the log output, and the failed URLs are
+ * only counted instead of being kept in memory until the crawl is finished.
+ * </p>
+ * <p>
+ * {@link CrawlerListener}s registered via {@link #addListener(CrawlerListener)} are notified about each processing
+ * stage of each URL while crawling.
+ * </p>
+ * <p>
+ * Instead of blocking until the crawl is finished, the results can also be consumed via a
+ * {@link Flow.Publisher} returned by {@link #publish(String)}, where the subscriber's demand throttles fetching.
+ * </p>
  */
 public final class Crawler {
 
   private final IntegrationTestContext context;
-  private final Collection<LinkExtractor> linkExtractors;
-  private final Set<String> visitedUrls = new HashSet<>();
-  private final Set<String> failedUrls = new LinkedHashSet<>();
+  private final CompositeLinkExtractor linkExtractor;
+  private VisitedUrlStore visitedUrlStore = VisitedUrlStore.EXACT;
+  private volatile VisitedUrlSet visitedUrls = visitedUrlStore.createSet();
+  private final List<String> restoredFailedUrls = new ArrayList<>();
+  private final List<FailedVisit> failedVisits = Collections.synchronizedList(new ArrayList<>());
+  private final AtomicInteger failedVisitCount = new AtomicInteger();
   private final UrlParser urlParser;
+  private final String validationKey;
+  private volatile CrawlerStatistics statistics = new CrawlerStatistics();
+  private CrawlOrder crawlOrder = CrawlOrder.DEPTH_FIRST;
+  private long retriesAtStart;
+  private Path checkpointFile;
+  private volatile CrawlerCheckpoint checkpoint;
+  private CrawlResultSink resultSink;
+  private final List<CrawlerListener> listeners = new CopyOnWriteArrayList<>();
+  private final AtomicBoolean running = new AtomicBoolean();
 
   private static final Logger log = LoggerFactory.getLogger(Crawler.class.getSimpleName());
 
@@ -53,18 +123,305 @@ public final class Crawler {
   public Crawler(@NotNull IntegrationTestContext context,
       @NotNull List<LinkExtractor> linkExtractors) {
     this.context = context;
-    this.linkExtractors = Collections.unmodifiableCollection(linkExtractors);
+    this.linkExtractor = new CompositeLinkExtractor(linkExtractors);
     this.urlParser = new UrlParser(context.getPublishUrl(),
         context.getSelector(), context.getApiVersion(), context.getExtension());
+    this.validationKey = buildValidationKey(context);
   }
 
   /**
-   * Start API crawling.
+   * Builds a key identifying the OAS3 spec the responses are validated against, consisting of the API version
+   * and the checksum of the spec file. If the spec file is not known, no key is built and all responses are validated.
+   */
+  private static @Nullable String buildValidationKey(IntegrationTestContext context) {
+    String specChecksum = context.getSpecChecksum();
+    if (specChecksum == null) {
+      return null;
+    }
+    return context.getApiVersion() + ":" + specChecksum;
+  }
+
+  /**
+   * @param value Order in which discovered URLs are crawled. Default is {@link CrawlOrder#DEPTH_FIRST}.
+   * @return this
+   */
+  public @NotNull Crawler crawlOrder(@NotNull CrawlOrder value) {
+    this.crawlOrder = value;
+    return this;
+  }
+
+  /**
+   * @param value Defines how visited URLs are stored. Default is {@link VisitedUrlStore#EXACT}.
+   * @return this
+   */
+  public @NotNull Crawler visitedUrlStore(@NotNull VisitedUrlStore value) {
+    this.visitedUrlStore = value;
+    this.visitedUrls = value.createSet();
+    return this;
+  }
+
+  /**
+   * Writes checkpoints of the crawl state to the given file while crawling, which allows to continue
+   * an interrupted crawl via {@link #resume(Path)}. The checkpoint file is append-only and written incrementally.
+   * @param file Checkpoint file. An existing file is replaced when the crawl is started.
+   * @return this
+   */
+  public @NotNull Crawler checkpoint(@Nullable Path file) {
+    this.checkpointFile = file;
+    return this;
+  }
+
+  /**
+   * Writes the outcome of each crawled URL to the given sink as soon as it is processed, instead of logging
+   * the full response bodies of failed URLs.
+   * @param sink Result sink. It is closed and detached from the crawler when the crawl is finished,
+   *          so a new sink has to be set for each crawl.
+   * @return this
+   */
+  public @NotNull Crawler resultSink(@Nullable CrawlResultSink sink) {
+    this.resultSink = sink;
+    return this;
+  }
+
+  /**
+   * @param listener Listener that is notified about each processing stage of each URL while crawling.
+   * @return this
+   */
+  public @NotNull Crawler addListener(@NotNull CrawlerListener listener) {
+    this.listeners.add(listener);
+    return this;
+  }
+
+  /**
+   * @param listener Listener to remove
+   * @return this
+   */
+  public @NotNull Crawler removeListener(@NotNull CrawlerListener listener) {
+    this.listeners.remove(listener);
+    return this;
+  }
+
+  /**
+   * Start API crawling. The visited and failed URLs and the statistics of a previous crawl are reset.
    * @param url API index URL to start crawling at.
+   * @throws IllegalStateException if a crawl is already running for this crawler.
    */
   public void start(@NotNull String url) {
-    CrawlerItem item = new CrawlerItem(this, context, url);
-    item.fetch();
+    start(url, null);
+  }
+
+  /**
+   * Returns a publisher which starts API crawling in a separate thread when subscribed, and publishes the result
+   * of each crawled URL including its response body.
+   * <p>
+   * Each result requested by the subscriber permits the crawler to fetch one more URL. The crawler never fetches
+   * more URLs than requested, so slow subscribers throttle the crawl and no results are buffered.
+   * Up to the configured crawler concurrency URLs are fetched in parallel if enough results are requested.
+   * Canceling the subscription stops the crawl. The publisher supports only a single subscriber.
+   * If a crawl is already running for this crawler, the subscriber is notified with an {@link IllegalStateException}.
+   * </p>
+   * @param url API index URL to start crawling at.
+   * @return Publisher of crawl results
+   */
+  public @NotNull Flow.Publisher<CrawlResult> publish(@NotNull String url) {
+    return new CrawlPublisher(this, url);
+  }
+
+  void start(@NotNull String url, @Nullable CrawlPublisher.CrawlSubscription subscription) {
+    beginRun();
+    try {
+      CrawlerFrontier frontier = crawlOrder.createFrontier();
+      checkpoint = checkpointFile != null ? CrawlerCheckpoint.create(checkpointFile) : null;
+      enqueue(frontier, null, List.of(new CrawlerItem(this, context, url)));
+      crawl(frontier, subscription);
+    }
+    finally {
+      running.set(false);
+    }
+  }
+
+  /**
+   * Resume an interrupted API crawling from the last checkpoint. All URLs that were visited or failed before
+   * are restored, and all URLs that were not processed completely are crawled again.
+   * Further checkpoints are appended to the same file. The state of a previous crawl of this crawler is reset before.
+   * @param file Checkpoint file written by a previous crawl, see {@link #checkpoint(Path)}.
+   * @throws IllegalStateException if a crawl is already running for this crawler.
+   */
+  public void resume(@NotNull Path file) {
+    beginRun();
+    try {
+      crawlFromCheckpoint(CrawlerCheckpoint.read(file), file);
+    }
+    finally {
+      running.set(false);
+    }
+  }
+
+  private void crawlFromCheckpoint(@NotNull CrawlerCheckpoint.State state, @NotNull Path file) {
+    state.getVisitedUrls().forEach(visitedUrls::add);
+    CrawlerFrontier frontier = crawlOrder.createFrontier();
+    List<CrawlerItem> pendingItems = state.getPendingItems((url, refererUrl) -> new CrawlerItem(this, context, url, refererUrl));
+    // failures of pending items are detected again when they are crawled again
+    Set<String> failedUrls = new LinkedHashSet<>(state.getFailedUrls());
+    for (int i = 0; i < pendingItems.size(); i++) {
+      pendingItems.get(i).setPosition(new int[] { i });
+      failedUrls.remove(pendingItems.get(i).getUrl());
+    }
+    restoredFailedUrls.addAll(failedUrls);
+    frontier.addAll(pendingItems);
+    log.info("Resume crawling with {} visited and {} pending URLs.", visitedUrls.size(), frontier.size());
+    checkpoint = CrawlerCheckpoint.append(file, state);
+    crawl(frontier, null);
+  }
+
+  /**
+   * Rejects concurrent runs, and resets the state of the previous run.
+   */
+  private void beginRun() {
+    if (!running.compareAndSet(false, true)) {
+      throw new IllegalStateException("Crawler is already running.");
+    }
+    visitedUrls = visitedUrlStore.createSet();
+    restoredFailedUrls.clear();
+    failedVisits.clear();
+    failedVisitCount.set(0);
+  }
+
+  private void crawl(@NotNull CrawlerFrontier frontier, @Nullable CrawlPublisher.CrawlSubscription subscription) {
+    retriesAtStart = context.getHttpClient().getStatistics().getRetries();
+    statistics = new CrawlerStatistics();
+    int concurrency = context.getCrawlerConcurrency();
+    ExecutorService executorService = null;
+    Executor executor;
+    if (concurrency > 1) {
+      executorService = Executors.newFixedThreadPool(concurrency, new CrawlerThreadFactory());
+      executor = executorService;
+    }
+    else {
+      // process items directly in calling thread
+      executor = Runnable::run;
+    }
+
+    try {
+      CompletionService<FetchResult> completionService = new ExecutorCompletionService<>(executor);
+      boolean publishing = subscription != null;
+      int itemsInFlight = 0;
+      while (frontier.size() > 0 || itemsInFlight > 0) {
+        while (itemsInFlight < getCurrentConcurrency(concurrency) && frontier.size() > 0
+            && (subscription == null || subscription.tryAcquire(itemsInFlight == 0))) {
+          CrawlerItem item = frontier.poll();
+          completionService.submit(() -> new FetchResult(item, item.fetch(publishing)));
+          itemsInFlight++;
+        }
+        if (subscription != null && subscription.isCancelled()) {
+          break;
+        }
+        FetchResult result = getResult(completionService);
+        itemsInFlight--;
+        enqueue(frontier, result.item, result.followUpItems);
+        if (checkpoint != null) {
+          checkpoint.done(result.item);
+        }
+        if (subscription != null) {
+          subscription.next(result.item.getResult());
+        }
+      }
+    }
+    finally {
+      if (executorService != null) {
+        executorService.shutdownNow();
+      }
+      closeCheckpoint();
+      closeResultSink();
+    }
+    log.info("Crawler statistics:\n{}", statistics);
+    if (visitedUrls.falsePositiveProbability() > 0) {
+      log.info("Visited URLs: {}, estimated false-positive probability of visited URL filter: {}",
+          visitedUrls.size(), visitedUrls.falsePositiveProbability());
+    }
+  }
+
+  private void closeCheckpoint() {
+    if (checkpoint != null) {
+      try {
+        checkpoint.close();
+      }
+      catch (IOException ex) {
+        log.warn("Unable to close checkpoint file.", ex);
+      }
+      checkpoint = null;
+    }
+  }
+
+  private void closeResultSink() {
+    if (resultSink != null) {
+      try {
+        resultSink.close();
+      }
+      catch (IOException ex) {
+        log.warn("Unable to close crawl result sink.", ex);
+      }
+      resultSink = null;
+    }
+  }
+
+  /**
+   * If adaptive concurrency control is enabled for the HTTP client, the number of parallel processed
+   * URLs is additionally capped by the current limit (but at least one URL is processed at a time).
+   */
+  private int getCurrentConcurrency(int concurrency) {
+    int httpConcurrencyLimit = context.getHttpClient().getConcurrencyLimit();
+    if (httpConcurrencyLimit > 0) {
+      return Math.min(concurrency, httpConcurrencyLimit);
+    }
+    return concurrency;
+  }
+
+  /**
+   * Adds all items with URLs not visited before to the frontier.
+   * @param frontier Frontier
+   * @param parent Item in which response the items were discovered, or null for the start item
+   * @param items Items
+   */
+  private void enqueue(@NotNull CrawlerFrontier frontier, @Nullable CrawlerItem parent, @NotNull List<CrawlerItem> items) {
+    List<CrawlerItem> newItems = new ArrayList<>(items.size());
+    for (int i = 0; i < items.size(); i++) {
+      CrawlerItem item = items.get(i);
+      if (parent != null) {
+        int[] position = Arrays.copyOf(parent.getPosition(), parent.getPosition().length + 1);
+        position[position.length - 1] = i;
+        item.setPosition(position);
+      }
+      if (visitUrl(item.getUrl())) {
+        newItems.add(item);
+        if (hasListeners()) {
+          notifyListeners(listener -> listener.onVisit(item.getUrl(), item.getRefererUrl()));
+        }
+        if (checkpoint != null) {
+          checkpoint.queued(item);
+        }
+      }
+    }
+    frontier.addAll(newItems);
+  }
+
+  private static FetchResult getResult(@NotNull CompletionService<FetchResult> completionService) {
+    try {
+      return completionService.take().get();
+    }
+    catch (ExecutionException ex) {
+      if (ex.getCause() instanceof RuntimeException) {
+        throw (RuntimeException)ex.getCause();
+      }
+      if (ex.getCause() instanceof Error) {
+        throw (Error)ex.getCause();
+      }
+      throw new IllegalStateException(ex.getCause());
+    }
+    catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(ex);
+    }
   }
 
   /**
@@ -74,18 +431,51 @@ public final class Crawler {
     return visitedUrls.size();
   }
 
+  /**
+   * @return Estimated probability that a URL was skipped because it was reported as visited
+   *         by a probabilistic visited URL store without being visited. Is 0 for exact stores.
+   */
+  public double visitedUrlsFalsePositiveProbability() {
+    return visitedUrls.falsePositiveProbability();
+  }
+
   /**
    * @return Number of failed visits.
    */
   public int numberOfFailedVisits() {
-    return failedUrls.size();
+    return restoredFailedUrls.size() + failedVisitCount.get();
+  }
+
+  /**
+   * @return Number of HTTP request retries since the crawl was started.
+   *         URLs that could be fetched after retrying are not counted as failed visits.
+   */
+  public long numberOfRetries() {
+    return context.getHttpClient().getStatistics().getRetries() - retriesAtStart;
+  }
+
+  /**
+   * @return Page counts, response sizes, links per page and time spent in each processing stage,
+   *         in total and per suffix, of the current or last crawl.
+   */
+  public @NotNull CrawlerStatistics getStatistics() {
+    return this.statistics;
   }
 
   /**
-   * @return URLs of failed visits.
+   * @return URLs of failed visits. Failures restored from a checkpoint come first, followed by the failures
+   *         of the current crawl in crawl order. The order does not depend on the crawler concurrency.
+   *         If a result sink is set, the failures of the current crawl are only written to the sink and not included.
    */
   public @NotNull Collection<String> failedVisitUrls() {
-    return Collections.unmodifiableCollection(failedUrls);
+    List<FailedVisit> sortedFailedVisits;
+    synchronized (failedVisits) {
+      sortedFailedVisits = new ArrayList<>(failedVisits);
+    }
+    Comparator<FailedVisit> order = crawlOrder.getResultOrder(visit -> visit.url, visit -> visit.position);
+    sortedFailedVisits.sort(order);
+    return Stream.concat(restoredFailedUrls.stream(), sortedFailedVisits.stream().map(visit -> visit.url))
+        .collect(Collectors.toUnmodifiableList());
   }
 
   /**
@@ -105,19 +495,67 @@ public final class Crawler {
   }
 
   /**
-   * Log a failed visit.
-   * @param url url
-   * @param message Message
-   * @param fullResponse Full response
+   * Is called when processing a URL is finished. Logs failed visits and passes the result to the result sink.
+   * @param item Crawler item
+   * @param result Crawl result
    */
-  void logFailedVisitUrl(@NotNull String url, @NotNull String message, @NotNull String fullResponse) {
-    log.error("Validation FAILED: {}\n{}\n\n{}\n", url, message, fullResponse);
-    failedUrls.add(url);
+  void visitResult(@NotNull CrawlerItem item, @NotNull CrawlResult result) {
+    if (!result.isSuccess()) {
+      logFailedVisitUrl(item, result);
+      if (hasListeners()) {
+        notifyListeners(listener -> listener.onFailure(result));
+      }
+    }
+    if (resultSink != null) {
+      resultSink.accept(result);
+    }
+  }
+
+  private void logFailedVisitUrl(@NotNull CrawlerItem item, @NotNull CrawlResult result) {
+    String url = result.getUrl();
+    if (resultSink != null) {
+      log.error("Validation FAILED: {}\n{}\n", url, result.getMessage());
+    }
+    else {
+      log.error("Validation FAILED: {}\n{}\n\n{}\n", url, result.getMessage(), StringUtils.defaultString(result.getResponse()));
+    }
+    failedVisitCount.incrementAndGet();
+    if (resultSink == null) {
+      failedVisits.add(new FailedVisit(url, item.getPosition()));
+    }
+    CrawlerCheckpoint currentCheckpoint = checkpoint;
+    if (currentCheckpoint != null) {
+      currentCheckpoint.failed(url);
+    }
+  }
+
+  boolean hasListeners() {
+    return !listeners.isEmpty();
+  }
+
+  /**
+   * Calls all listeners in the current thread. Iterating the copy-on-write list requires no locking.
+   * @param event Calls the listener method for the event
+   */
+  void notifyListeners(@NotNull Consumer<CrawlerListener> event) {
+    for (CrawlerListener listener : listeners) {
+      try {
+        event.accept(listener);
+      }
+      catch (RuntimeException ex) {
+        log.warn("Crawler listener {} failed.", listener, ex);
+      }
+    }
   }
 
   @NotNull
-  Collection<LinkExtractor> getLinkExtractors() {
-    return this.linkExtractors;
+  CompositeLinkExtractor getLinkExtractor() {
+    return this.linkExtractor;
+  }
+
+  @Nullable
+  String getValidationKey() {
+    return this.validationKey;
   }
 
   @NotNull
@@ -125,4 +563,41 @@ public final class Crawler {
     return urlParser.parseSuffix(url);
   }
 
+  private static final class FetchResult {
+
+    private final CrawlerItem item;
+    private final List<CrawlerItem> followUpItems;
+
+    FetchResult(CrawlerItem item, List<CrawlerItem> followUpItems) {
+      this.item = item;
+      this.followUpItems = followUpItems;
+    }
+
+  }
+
+  private static final class FailedVisit {
+
+    private final String url;
+    private final int[] position;
+
+    FailedVisit(String url, int[] position) {
+      this.url = url;
+      this.position = position;
+    }
+
+  }
+
+  private static final class CrawlerThreadFactory implements ThreadFactory {
+
+    private final AtomicInteger threadNumber = new AtomicInteger();
+
+    @Override
+    public Thread newThread(Runnable runnable) {
+      Thread thread = new Thread(runnable, "crawler-" + threadNumber.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    }
+
+  }
+
 }
@@ -0,0 +1,303 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2023 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.siteapi.integrationtestsupport.crawler;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiFunction;
+
+import org.apache.commons.lang3.StringUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Append-only checkpoint file of the crawl state.
+ * <p>
+ * Each line of the file is a record:
+ * </p>
+ * <ul>
+ * <li><code>Q &lt;url&gt; [&lt;referer url&gt;]</code>: URL was added to the frontier. Queued URLs are numbered
+ * implicitly in the order of their records, starting with 0.</li>
+ * <li><code>D &lt;number&gt;</code>: Queued URL with the given number was processed, and all URLs discovered in its
+ * response were queued before.</li>
+ * <li><code>F &lt;url&gt;</code>: Visit of the given URL failed.</li>
+ * </ul>
+ * <p>
+ * Spaces, line breaks and percent signs in URLs are percent-encoded.
+ * </p>
+ * <p>
+ * The records are written to a buffer which is flushed after each processed URL, so writing checkpoints does not
+ * stall the crawl with a write per record.
+ * Because all records are written in order, every prefix of the file describes a consistent crawl state.
+ * A truncated last line is ignored when reading the file.
+ * </p>
+ */
+final class CrawlerCheckpoint implements Closeable {
+
+  static final String HEADER = "# crawler checkpoint v1";
+
+  private static final char QUEUED = 'Q';
+  private static final char DONE = 'D';
+  private static final char FAILED = 'F';
+  private static final String[] DECODED = { "%", " ", "\n", "\r" };
+  private static final String[] ENCODED = { "%25", "%20", "%0A", "%0D" };
+
+  private final BufferedWriter writer;
+  private int nextId;
+
+  private CrawlerCheckpoint(BufferedWriter writer, int nextId) {
+    this.writer = writer;
+    this.nextId = nextId;
+  }
+
+  /**
+   * Creates a new checkpoint file, replacing an existing file.
+   * @param file Checkpoint file
+   * @return Checkpoint writer
+   */
+  static @NotNull CrawlerCheckpoint create(@NotNull Path file) {
+    try {
+      BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+      writer.write(HEADER);
+      writer.write('\n');
+      writer.flush();
+      return new CrawlerCheckpoint(writer, 0);
+    }
+    catch (IOException ex) {
+      throw new UncheckedIOException("Unable to create checkpoint file " + file, ex);
+    }
+  }
+
+  /**
+   * Appends to an existing checkpoint file.
+   * @param file Checkpoint file
+   * @param state State read from the checkpoint file before
+   * @return Checkpoint writer
+   */
+  static @NotNull CrawlerCheckpoint append(@NotNull Path file, @NotNull State state) {
+    try {
+      BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+      if (state.truncated) {
+        // terminate truncated last line, it is ignored when reading the file
+        writer.write('\n');
+      }
+      return new CrawlerCheckpoint(writer, state.nextId);
+    }
+    catch (IOException ex) {
+      throw new UncheckedIOException("Unable to open checkpoint file " + file, ex);
+    }
+  }
+
+  /**
+   * Reads the crawl state from a checkpoint file.
+   * @param file Checkpoint file
+   * @return Crawl state
+   */
+  static @NotNull State read(@NotNull Path file) {
+    State state = new State();
+    try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+      if (!HEADER.equals(readLine(reader, state))) {
+        throw new IllegalArgumentException("Not a crawler checkpoint file: " + file);
+      }
+      int lineNumber = 1;
+      String line;
+      while ((line = readLine(reader, state)) != null) {
+        lineNumber++;
+        if (line.length() < 2) {
+          continue;
+        }
+        readRecord(state, line, file, lineNumber);
+      }
+    }
+    catch (IOException ex) {
+      throw new UncheckedIOException("Unable to read checkpoint file " + file, ex);
+    }
+    return state;
+  }
+
+  private static void readRecord(State state, String line, Path file, int lineNumber) {
+    String value = line.substring(2);
+    switch (line.charAt(0)) {
+      case QUEUED:
+        state.queued(decode(StringUtils.substringBefore(value, " ")),
+            decode(StringUtils.trimToNull(StringUtils.substringAfter(value, " "))));
+        break;
+      case DONE:
+        try {
+          state.pending.remove(Integer.parseInt(value));
+        }
+        catch (NumberFormatException ex) {
+          throw invalidRecord(file, lineNumber, line);
+        }
+        break;
+      case FAILED:
+        state.failedUrls.add(decode(value));
+        break;
+      default:
+        throw invalidRecord(file, lineNumber, line);
+    }
+  }
+
+  private static IllegalArgumentException invalidRecord(Path file, int lineNumber, String line) {
+    return new IllegalArgumentException("Invalid checkpoint record in " + file + " at line " + lineNumber + ": " + line);
+  }
+
+  /**
+   * Reads the next line terminated by a line break.
+   * @return Line without line break, or null at the end of the file. A truncated last line without line break
+   *         is ignored and marks the state as truncated.
+   */
+  private static @Nullable String readLine(BufferedReader reader, State state) throws IOException {
+    StringBuilder line = new StringBuilder();
+    int c;
+    while ((c = reader.read()) >= 0) {
+      if (c == '\n') {
+        return line.toString();
+      }
+      line.append((char)c);
+    }
+    if (line.length() > 0) {
+      state.truncated = true;
+    }
+    return null;
+  }
+
+  /**
+   * Records that the given item was added to the frontier.
+   * @param item Item
+   */
+  synchronized void queued(@NotNull CrawlerItem item) {
+    item.setCheckpointId(nextId++);
+    StringBuilder record = new StringBuilder().append(QUEUED).append(' ').append(encode(item.getUrl()));
+    if (item.getRefererUrl() != null) {
+      record.append(' ').append(encode(item.getRefererUrl()));
+    }
+    write(record.toString());
+  }
+
+  /**
+   * Records that the given item was processed completely.
+   * @param item Item
+   */
+  synchronized void done(@NotNull CrawlerItem item) {
+    write(DONE + " " + item.getCheckpointId());
+    try {
+      writer.flush();
+    }
+    catch (IOException ex) {
+      throw new UncheckedIOException("Unable to write checkpoint file.", ex);
+    }
+  }
+
+  /**
+   * Records that the visit of the given URL failed.
+   * @param url URL
+   */
+  synchronized void failed(@NotNull String url) {
+    write(FAILED + " " + encode(url));
+  }
+
+  private void write(String record) {
+    try {
+      writer.write(record);
+      writer.write('\n');
+    }
+    catch (IOException ex) {
+      throw new UncheckedIOException("Unable to write checkpoint file.", ex);
+    }
+  }
+
+  private static String encode(String url) {
+    return StringUtils.replaceEach(url, DECODED, ENCODED);
+  }
+
+  private static String decode(String value) {
+    return StringUtils.replaceEach(value, ENCODED, DECODED);
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    writer.close();
+  }
+
+  /**
+   * Crawl state read from checkpoint file.
+   */
+  static final class State {
+
+    private final Set<String> visitedUrls = new LinkedHashSet<>();
+    private final Set<String> failedUrls = new LinkedHashSet<>();
+    private final Map<Integer, String[]> pending = new LinkedHashMap<>();
+    private int nextId;
+    private boolean truncated;
+
+    private void queued(String url, @Nullable String refererUrl) {
+      visitedUrls.add(url);
+      pending.put(nextId++, new String[] { url, refererUrl });
+    }
+
+    /**
+     * @return All URLs that were added to the frontier.
+     */
+    @NotNull
+    Set<String> getVisitedUrls() {
+      return this.visitedUrls;
+    }
+
+    /**
+     * @return All URLs of failed visits.
+     */
+    @NotNull
+    Set<String> getFailedUrls() {
+      return this.failedUrls;
+    }
+
+    /**
+     * Creates items for all URLs that were added to the frontier, but were not processed completely.
+     * @param itemFactory Creates an item for URL and referer URL
+     * @return Items in the order they were added to the frontier.
+     */
+    @NotNull
+    List<CrawlerItem> getPendingItems(@NotNull BiFunction<String, String, CrawlerItem> itemFactory) {
+      List<CrawlerItem> items = new ArrayList<>(pending.size());
+      for (Map.Entry<Integer, String[]> entry : pending.entrySet()) {
+        CrawlerItem item = itemFactory.apply(entry.getValue()[0], entry.getValue()[1]);
+        item.setCheckpointId(entry.getKey());
+        items.add(item);
+      }
+      return items;
+    }
+
+  }
+
+}
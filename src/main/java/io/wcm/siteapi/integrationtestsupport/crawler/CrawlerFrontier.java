@@ -0,0 +1,50 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2023 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.siteapi.integrationtestsupport.crawler;
+
+import java.util.List;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Work frontier of the crawler, holding all items that are discovered but not processed yet.
+ * Each URL is added at most once, so the size is bounded by the number of pending URLs.
+ */
+interface CrawlerFrontier {
+
+  /**
+   * Add items discovered from a single JSON response.
+   * @param items Items in the order they were discovered.
+   */
+  void addAll(@NotNull List<CrawlerItem> items);
+
+  /**
+   * @return Next item to process, or null if the frontier is empty.
+   */
+  @Nullable
+  CrawlerItem poll();
+
+  /**
+   * @return Number of pending items.
+   */
+  int size();
+
+}
@@ -19,15 +19,16 @@
  */
 package io.wcm.siteapi.integrationtestsupport.crawler;
 
-import java.util.stream.Stream;
-
-import org.jetbrains.annotations.NotNull;
-
-import com.jayway.jsonpath.DocumentContext;
-import com.jayway.jsonpath.JsonPath;
+import java.net.HttpURLConnection;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
 
 import io.wcm.siteapi.integrationtestsupport.IntegrationTestContext;
+import io.wcm.siteapi.integrationtestsupport.httpclient.HttpCache;
 import io.wcm.siteapi.integrationtestsupport.httpclient.HttpRequestFailedException;
+import io.wcm.siteapi.integrationtestsupport.httpclient.HttpResponse;
 import io.wcm.siteapi.openapi.validator.ContentValidationException;
 import io.wcm.siteapi.openapi.validator.OpenApiSchemaValidator;
 
@@ -36,10 +37,15 @@ import io.wcm.siteapi.openapi.validator.OpenApiSchemaValidator;
  */
 class CrawlerItem {
 
+  private static final int[] ROOT_POSITION = new int[0];
+
   private final Crawler crawler;
   private final IntegrationTestContext context;
   private final String url;
   private final String refererUrl;
+  private int checkpointId = -1;
+  private int[] position = ROOT_POSITION;
+  private CrawlResult result;
 
   CrawlerItem(Crawler crawler, IntegrationTestContext context, String url) {
     this(crawler, context, url, null);
@@ -52,11 +58,13 @@ class CrawlerItem {
     this.refererUrl = refererUrl;
   }
 
-  void fetch() {
-    // skip processing if page was already crawled
-    if (!crawler.visitUrl(url)) {
-      return;
-    }
+  /**
+   * Fetches and validates the JSON response of this item.
+   * @param publishing Whether the results are published including the response bodies of successful results.
+   * @return Items for all links found in the JSON response that should be crawled next.
+   */
+  List<CrawlerItem> fetch(boolean publishing) {
+    long start = System.nanoTime();
 
     // parse and validate URL
     String suffix;
@@ -64,40 +72,173 @@ class CrawlerItem {
       suffix = crawler.parseSuffix(url);
     }
     catch (IllegalArgumentException ex) {
-      crawler.logFailedVisitUrl(url, appendReferer(ex.getMessage()), "");
-      return;
+      complete(CrawlResult.failed(url, refererUrl, null, appendReferer(ex.getMessage()), null,
+          System.nanoTime() - start));
+      return List.of();
     }
 
-    // load JSON from URL
+    CrawlerStatistics.Recorder statistics = crawler.getStatistics().recorder(suffix);
+    statistics.page();
+
+    // load JSON from URL - as bytes, it is only decoded to a string if required for validation
     OpenApiSchemaValidator validator = context.getValidator(suffix);
-    String json;
+    HttpResponse<byte[]> response;
+    long fetchStart = System.nanoTime();
     try {
-      json = context.getHttpClient().getBody(url);
+      response = context.getHttpClient().getBytes(url);
     }
     catch (HttpRequestFailedException ex) {
-      crawler.logFailedVisitUrl(url, appendReferer(ex.getMessage()), "");
-      return;
+      fetchFailed(ex.getMessage(), ex.getStatusCode(), fetchStart, start, suffix, statistics);
+      return List.of();
     }
-
-    // validate JSON against OAS3 spec
-    try {
-      validator.validate(json);
+    if (response.statusCode() != HttpURLConnection.HTTP_OK) {
+      fetchFailed(url + " returned HTTP " + response.statusCode(), response.statusCode(), fetchStart, start, suffix, statistics);
+      return List.of();
     }
-    catch (ContentValidationException ex) {
-      crawler.logFailedVisitUrl(url, "Validator(" + context.getApiVersion() + "," + suffix + ") " + ex.getMessage(), json);
-      return;
+    byte[] jsonBytes = response.body();
+    long fetchTime = System.nanoTime() - fetchStart;
+    statistics.fetchTime(fetchTime);
+    statistics.responseSize(jsonBytes.length);
+    if (crawler.hasListeners()) {
+      // report the status code actually received for responses taken from the local HTTP cache
+      int statusCode = response.isFromCache() ? HttpURLConnection.HTTP_NOT_MODIFIED : HttpURLConnection.HTTP_OK;
+      int bytes = jsonBytes.length;
+      crawler.notifyListeners(listener -> listener.onFetched(url, statusCode, bytes, Duration.ofNanos(fetchTime)));
+    }
+
+    // validate JSON against OAS3 spec - unless the unchanged response was already validated against the same spec.
+    // the validator parses the JSON string itself, it does not accept a parsed tree that could be shared with
+    // the link extractors (this requires an API extension of the OpenAPI validator library)
+    HttpCache cache = crawler.getValidationKey() != null ? context.getHttpClient().getCache() : null;
+    String json = null;
+    if (cache == null || !cache.isValidated(url, jsonBytes, crawler.getValidationKey())) {
+      ValidationEvent validationEvent = new ValidationEvent();
+      validationEvent.begin();
+      long validationStart = System.nanoTime();
+      json = new String(jsonBytes, StandardCharsets.UTF_8);
+      try {
+        validator.validate(json);
+        long validationTime = System.nanoTime() - validationStart;
+        statistics.validationTime(validationTime);
+        commitValidationEvent(validationEvent, suffix, jsonBytes.length, true);
+        if (crawler.hasListeners()) {
+          crawler.notifyListeners(listener -> listener.onValidated(url, suffix, Duration.ofNanos(validationTime)));
+        }
+      }
+      catch (ContentValidationException ex) {
+        statistics.validationTime(System.nanoTime() - validationStart);
+        commitValidationEvent(validationEvent, suffix, jsonBytes.length, false);
+        statistics.failed();
+        complete(CrawlResult.failed(url, refererUrl, suffix,
+            "Validator(" + context.getApiVersion() + "," + suffix + ") " + ex.getMessage(), json,
+            System.nanoTime() - start));
+        return List.of();
+      }
+      if (cache != null) {
+        cache.markValidated(url, jsonBytes, crawler.getValidationKey());
+      }
     }
 
     // continue crawling with all link URLs found
-    getAllLinks(JsonPath.parse(json), suffix)
-        .forEach(followUrl -> new CrawlerItem(crawler, context, followUrl, url).fetch());
+    LinkExtractionEvent linkExtractionEvent = new LinkExtractionEvent();
+    linkExtractionEvent.begin();
+    long extractionStart = System.nanoTime();
+    // parse time is only reported if a JSON path document is parsed for link extractors without streaming support
+    long[] parseTime = { -1 };
+    List<CrawlerItem> followUpItems = crawler.getLinkExtractor().getLinks(suffix, jsonBytes, nanos -> parseTime[0] = nanos)
+        .map(followUrl -> new CrawlerItem(crawler, context, followUrl, url))
+        .collect(Collectors.toList());
+    long extractionTime = System.nanoTime() - extractionStart;
+    if (crawler.hasListeners()) {
+      int links = followUpItems.size();
+      Duration duration = Duration.ofNanos(extractionTime);
+      crawler.notifyListeners(listener -> listener.onLinksExtracted(url, suffix, links, duration));
+    }
+    if (parseTime[0] >= 0) {
+      statistics.parseTime(parseTime[0]);
+      extractionTime -= parseTime[0];
+    }
+    statistics.linkExtractionTime(extractionTime);
+    statistics.links(followUpItems.size());
+    commitLinkExtractionEvent(linkExtractionEvent, suffix, jsonBytes.length, followUpItems.size());
+    if (publishing && json == null) {
+      json = new String(jsonBytes, StandardCharsets.UTF_8);
+    }
+    complete(CrawlResult.success(url, refererUrl, suffix, followUpItems.size(),
+        publishing ? json : null, System.nanoTime() - start));
+    return followUpItems;
+  }
+
+  private void fetchFailed(String message, int statusCode, long fetchStart, long start, String suffix,
+      CrawlerStatistics.Recorder statistics) {
+    if (statusCode > 0 && crawler.hasListeners()) {
+      Duration fetchTime = Duration.ofNanos(System.nanoTime() - fetchStart);
+      crawler.notifyListeners(listener -> listener.onFetched(url, statusCode, 0, fetchTime));
+    }
+    statistics.failed();
+    complete(CrawlResult.failed(url, refererUrl, suffix, appendReferer(message), null, System.nanoTime() - start));
+  }
+
+  private void commitValidationEvent(ValidationEvent event, String suffix, int bodySize, boolean valid) {
+    event.end();
+    if (event.shouldCommit()) {
+      event.url = url;
+      event.suffix = suffix;
+      event.bodySize = bodySize;
+      event.valid = valid;
+      event.commit();
+    }
+  }
+
+  private void commitLinkExtractionEvent(LinkExtractionEvent event, String suffix, int bodySize, int links) {
+    event.end();
+    if (event.shouldCommit()) {
+      event.url = url;
+      event.suffix = suffix;
+      event.bodySize = bodySize;
+      event.links = links;
+      event.commit();
+    }
+  }
+
+  String getUrl() {
+    return this.url;
+  }
+
+  String getRefererUrl() {
+    return this.refererUrl;
+  }
+
+  int getCheckpointId() {
+    return this.checkpointId;
+  }
+
+  void setCheckpointId(int checkpointId) {
+    this.checkpointId = checkpointId;
+  }
+
+  /**
+   * @return Position of this item in the tree of discovered links: For each ancestor item,
+   *         the index of the link in the list of links of the ancestor's response.
+   */
+  int[] getPosition() {
+    return this.position;
+  }
+
+  void setPosition(int[] position) {
+    this.position = position;
+  }
+
+  private void complete(CrawlResult value) {
+    this.result = value;
+    crawler.visitResult(this, value);
   }
 
-  private Stream<String> getAllLinks(@NotNull DocumentContext jsonPathContext, @NotNull String suffix) {
-    return crawler.getLinkExtractors().stream()
-        .filter(extractor -> extractor.accept(suffix))
-        .flatMap(extractor -> extractor.getLinks(jsonPathContext))
-        .distinct();
+  /**
+   * @return Result of {@link #fetch()}
+   */
+  CrawlResult getResult() {
+    return this.result;
   }
 
   private String appendReferer(String message) {
@@ -0,0 +1,93 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2023 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.siteapi.integrationtestsupport.crawler;
+
+import java.time.Duration;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Is notified about the processing of each URL while crawling.
+ * <p>
+ * Listeners are called directly from the crawler threads without any synchronization, so with a crawler
+ * concurrency greater than 1 they are called concurrently and have to be thread-safe. They should return quickly,
+ * as the crawler thread is blocked while a listener is called. Exceptions thrown by listeners are logged
+ * and do not affect the crawl.
+ * </p>
+ * <p>
+ * All methods have empty default implementations.
+ * </p>
+ */
+public interface CrawlerListener {
+
+  /**
+   * A URL was discovered that was not visited before and is queued for crawling.
+   * @param url URL
+   * @param refererUrl URL of the response the URL was found in, or null for the start URL.
+   */
+  default void onVisit(@NotNull String url, @Nullable String refererUrl) {
+    // empty default implementation
+  }
+
+  /**
+   * A HTTP response was received.
+   * @param url URL
+   * @param statusCode HTTP status code received from the server. Is 304 if the server responded with
+   *          <code>Not Modified</code> and the response body was taken from the local HTTP cache.
+   * @param bytes Size of the response body in bytes, including bodies taken from the local HTTP cache.
+   *          Is 0 for responses with an error status code.
+   * @param duration Time spent fetching the response
+   */
+  default void onFetched(@NotNull String url, int statusCode, long bytes, @NotNull Duration duration) {
+    // empty default implementation
+  }
+
+  /**
+   * The response was validated successfully against the OAS3 spec.
+   * Is not called if validation was skipped because the unchanged response was already validated before.
+   * @param url URL
+   * @param suffix Suffix
+   * @param duration Time spent validating the response
+   */
+  default void onValidated(@NotNull String url, @NotNull String suffix, @NotNull Duration duration) {
+    // empty default implementation
+  }
+
+  /**
+   * Links were extracted from the response.
+   * @param url URL
+   * @param suffix Suffix
+   * @param links Number of links found
+   * @param duration Time spent parsing the response and extracting the links
+   */
+  default void onLinksExtracted(@NotNull String url, @NotNull String suffix, int links, @NotNull Duration duration) {
+    // empty default implementation
+  }
+
+  /**
+   * Processing the URL failed because it is invalid, could not be fetched or the response is not valid.
+   * @param result Crawl result with failure message
+   */
+  default void onFailure(@NotNull CrawlResult result) {
+    // empty default implementation
+  }
+
+}
@@ -0,0 +1,127 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2023 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.siteapi.integrationtestsupport.crawler;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Statistics of a crawl with page counts, response sizes, links per page and the time spent in each
+ * processing stage, in total and per suffix.
+ * <p>
+ * All values are recorded concurrently by the crawler threads and can be read at any time.
+ * </p>
+ */
+public final class CrawlerStatistics {
+
+  private final PageStatistics total = new PageStatistics();
+  private final Map<String, PageStatistics> suffixes = new ConcurrentHashMap<>();
+
+  CrawlerStatistics() {
+    // created by crawler only
+  }
+
+  /**
+   * @return Statistics for all pages.
+   */
+  public @NotNull PageStatistics getTotal() {
+    return this.total;
+  }
+
+  /**
+   * @return Statistics per suffix, sorted by suffix.
+   */
+  public @NotNull Map<String, PageStatistics> getSuffixes() {
+    return new TreeMap<>(suffixes);
+  }
+
+  @NotNull
+  Recorder recorder(@NotNull String suffix) {
+    return new Recorder(total, suffixes.computeIfAbsent(suffix, key -> new PageStatistics()));
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder result = new StringBuilder();
+    result.append("Total: ").append(total);
+    getSuffixes().forEach((suffix, statistics) -> result.append('\n').append(suffix).append(": ").append(statistics));
+    return result.toString();
+  }
+
+
+  /**
+   * Records the values of a single page both in the total and suffix statistics.
+   */
+  static final class Recorder {
+
+    private final PageStatistics total;
+    private final PageStatistics suffix;
+
+    Recorder(PageStatistics total, PageStatistics suffix) {
+      this.total = total;
+      this.suffix = suffix;
+    }
+
+    void page() {
+      total.recordPage();
+      suffix.recordPage();
+    }
+
+    void failed() {
+      total.recordFailedPage();
+      suffix.recordFailedPage();
+    }
+
+    void fetchTime(long nanos) {
+      total.getFetchTime().record(nanos);
+      suffix.getFetchTime().record(nanos);
+    }
+
+    void validationTime(long nanos) {
+      total.getValidationTime().record(nanos);
+      suffix.getValidationTime().record(nanos);
+    }
+
+    void parseTime(long nanos) {
+      total.getParseTime().record(nanos);
+      suffix.getParseTime().record(nanos);
+    }
+
+    void linkExtractionTime(long nanos) {
+      total.getLinkExtractionTime().record(nanos);
+      suffix.getLinkExtractionTime().record(nanos);
+    }
+
+    void responseSize(long bytes) {
+      total.getResponseSize().record(bytes);
+      suffix.getResponseSize().record(bytes);
+    }
+
+    void links(long count) {
+      total.getLinks().record(count);
+      suffix.getLinks().record(count);
+    }
+
+  }
+
+}
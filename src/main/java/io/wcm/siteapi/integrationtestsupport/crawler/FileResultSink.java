@@ -0,0 +1,314 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2023 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.siteapi.integrationtestsupport.crawler;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.GZIPOutputStream;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Writes crawl results to a local file.
+ * <p>
+ * Results are handed over to a background thread via a bounded queue, which writes them to a buffered writer.
+ * The crawler threads only block if the writer falls behind by more than the queue capacity.
+ * If writing fails, all further results are discarded and the failure is reported when closing the sink.
+ * Results can no longer be accepted after the sink was closed. Results are accepted concurrently under a shared lock,
+ * while closing requires the exclusive lock, so no result can be queued after the end of the file.
+ * </p>
+ * <p>
+ * Response bodies of failed results are truncated to {@link #maxResponseLength(int)} characters.
+ * If a spill directory is configured, the full response bodies exceeding this length are written
+ * gzip-compressed to separate files in this directory, which are referenced from the result.
+ * </p>
+ */
+public abstract class FileResultSink implements CrawlResultSink {
+
+  static final int QUEUE_CAPACITY = 4096;
+  private static final Object END = new Object();
+
+  private final Path file;
+  private int maxResponseLength = 1024;
+  private Path spillDirectory;
+  private boolean includeSuccessful = true;
+
+  private final BlockingQueue<Object> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+  private volatile Thread writerThread;
+  private volatile IOException failure;
+  private int spillFileCount;
+  private final ReadWriteLock closeLock = new ReentrantReadWriteLock();
+  private volatile boolean closed;
+
+  private static final Logger log = LoggerFactory.getLogger(FileResultSink.class);
+
+  /**
+   * @param file Result file. An existing file is replaced.
+   */
+  FileResultSink(@NotNull Path file) {
+    this.file = file;
+  }
+
+  /**
+   * @param value Maximum number of characters of the response body of failed results included in the result file.
+   *          0 omits the response body. Default is 1024.
+   * @return this
+   */
+  public @NotNull FileResultSink maxResponseLength(int value) {
+    this.maxResponseLength = value;
+    return this;
+  }
+
+  /**
+   * @param value Directory to write gzip-compressed full response bodies exceeding the maximum response length to.
+   *          If not set, the response bodies are only included truncated.
+   * @return this
+   */
+  public @NotNull FileResultSink spillDirectory(@Nullable Path value) {
+    this.spillDirectory = value;
+    return this;
+  }
+
+  /**
+   * @param value Whether to include successful results. Default is true.
+   * @return this
+   */
+  public @NotNull FileResultSink includeSuccessful(boolean value) {
+    this.includeSuccessful = value;
+    return this;
+  }
+
+  /**
+   * @return Result file
+   */
+  public @NotNull Path getFile() {
+    return this.file;
+  }
+
+  @Override
+  public void accept(@NotNull CrawlResult result) {
+    closeLock.readLock().lock();
+    try {
+      if (closed) {
+        throw new IllegalStateException("Result sink already closed: " + file);
+      }
+      if ((!result.isSuccess() || includeSuccessful) && failure == null) {
+        ensureStarted();
+        enqueue(result);
+      }
+    }
+    catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while writing crawl result to " + file, ex);
+    }
+    finally {
+      closeLock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    closeLock.writeLock().lock();
+    try {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      ensureStarted();
+      enqueue(END);
+      writerThread.join();
+    }
+    catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while closing result file " + file, ex);
+    }
+    finally {
+      closeLock.writeLock().unlock();
+    }
+    if (failure != null) {
+      throw failure;
+    }
+    finish(file);
+  }
+
+  private void ensureStarted() {
+    if (writerThread == null) {
+      synchronized (this) {
+        if (writerThread == null) {
+          Thread thread = new Thread(this::writeResults, "crawl-result-sink-" + file.getFileName());
+          thread.setDaemon(true);
+          thread.start();
+          writerThread = thread;
+        }
+      }
+    }
+  }
+
+  /**
+   * Puts the item to the queue. Waits while the queue is full, unless the writer thread has stopped -
+   * in this case the item is dropped.
+   */
+  private void enqueue(Object item) throws InterruptedException {
+    while (!queue.offer(item, 100, TimeUnit.MILLISECONDS)) {
+      if (!writerThread.isAlive()) {
+        return;
+      }
+    }
+  }
+
+  /**
+   * Runs in the writer thread. Writes batches of all queued results and flushes the writer whenever
+   * the queue runs empty. After a write failure, including runtime exceptions and errors, all further results
+   * are discarded.
+   */
+  private void writeResults() {
+    boolean endReached = false;
+    try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+      writeStart(writer);
+      List<Object> batch = new ArrayList<>();
+      while (true) {
+        batch.add(queue.take());
+        queue.drainTo(batch);
+        // no results are queued after the end marker, so it is always the last item of its batch
+        endReached = batch.get(batch.size() - 1) == END;
+        for (Object item : batch) {
+          if (item == END) {
+            writeEnd(writer);
+            return;
+          }
+          writeResult(writer, (CrawlResult)item);
+        }
+        batch.clear();
+        writer.flush();
+      }
+    }
+    catch (IOException ex) {
+      writeFailed(ex, endReached);
+    }
+    catch (InterruptedException ex) {
+      failure = new IOException("Interrupted while writing crawl results to " + file, ex);
+      Thread.currentThread().interrupt();
+    }
+    catch (Throwable ex) {
+      // errors are caught as well, so a failure is always reported instead of finishing a truncated file
+      writeFailed(new IOException("Unable to write crawl results to " + file, ex), endReached);
+    }
+  }
+
+  private void writeFailed(IOException ex, boolean endReached) {
+    log.warn("Unable to write crawl results to {}", file, ex);
+    failure = ex;
+    if (!endReached) {
+      discardResults();
+    }
+  }
+
+  private void discardResults() {
+    try {
+      while (queue.take() != END) {
+        // discard
+      }
+    }
+    catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void writeResult(Writer writer, CrawlResult result) throws IOException {
+    // response bodies are only written for failed results
+    String response = result.isSuccess() ? null : result.getResponse();
+    String truncatedResponse = null;
+    String spillFile = null;
+    if (response != null && !response.isEmpty()) {
+      if (response.length() > maxResponseLength) {
+        truncatedResponse = maxResponseLength > 0
+            ? response.substring(0, maxResponseLength) + "... [" + (response.length() - maxResponseLength) + " chars truncated]"
+            : null;
+        if (spillDirectory != null) {
+          spillFile = spill(response);
+        }
+      }
+      else {
+        truncatedResponse = response;
+      }
+    }
+    writeResult(writer, result, truncatedResponse, spillFile);
+  }
+
+  private String spill(String response) throws IOException {
+    Files.createDirectories(spillDirectory);
+    Path spillFile = spillDirectory.resolve("response-" + (++spillFileCount) + ".json.gz");
+    try (OutputStream os = new GZIPOutputStream(Files.newOutputStream(spillFile));
+        Writer writer = new OutputStreamWriter(os, StandardCharsets.UTF_8)) {
+      writer.write(response);
+    }
+    return spillFile.toString();
+  }
+
+  /**
+   * Is called in the writer thread before the first result is written.
+   * @param writer Writer
+   * @throws IOException I/O exception
+   */
+  abstract void writeStart(@NotNull Writer writer) throws IOException;
+
+  /**
+   * Is called in the writer thread for each result.
+   * @param writer Writer
+   * @param result Crawl result
+   * @param response Response body truncated to the maximum response length, or null
+   * @param spillFile Path of the file containing the full response body, or null
+   * @throws IOException I/O exception
+   */
+  abstract void writeResult(@NotNull Writer writer, @NotNull CrawlResult result,
+      @Nullable String response, @Nullable String spillFile) throws IOException;
+
+  /**
+   * Is called in the writer thread after the last result is written.
+   * @param writer Writer
+   * @throws IOException I/O exception
+   */
+  abstract void writeEnd(@NotNull Writer writer) throws IOException;
+
+  /**
+   * Is called after the result file was closed.
+   * @param resultFile Result file
+   * @throws IOException I/O exception
+   */
+  void finish(@NotNull Path resultFile) throws IOException {
+    // nothing to do by default
+  }
+
+}
@@ -0,0 +1,104 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2023 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.siteapi.integrationtestsupport.crawler;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Stores 64-bit fingerprints of the visited URLs in an open-addressing hash table with linear probing.
+ */
+final class FingerprintVisitedUrlSet implements VisitedUrlSet {
+
+  private static final int INITIAL_CAPACITY = 1024;
+  private static final long EMPTY = 0L;
+
+  private long[] table = new long[INITIAL_CAPACITY];
+  private int size;
+
+  @Override
+  public synchronized boolean add(@NotNull String url) {
+    if (!insert(table, fingerprint(url))) {
+      return false;
+    }
+    size++;
+    // keep load factor below 0.5 to keep probe sequences short
+    if (size * 2 > table.length) {
+      resize();
+    }
+    return true;
+  }
+
+  @Override
+  public synchronized int size() {
+    return size;
+  }
+
+  /**
+   * @return Number of slots of the hash table.
+   */
+  synchronized int capacity() {
+    return table.length;
+  }
+
+  private static boolean insert(long[] table, long fingerprint) {
+    int mask = table.length - 1;
+    int index = (int)fingerprint & mask;
+    while (table[index] != EMPTY) {
+      if (table[index] == fingerprint) {
+        return false;
+      }
+      index = (index + 1) & mask;
+    }
+    table[index] = fingerprint;
+    return true;
+  }
+
+  private void resize() {
+    long[] newTable = new long[table.length * 2];
+    for (long fingerprint : table) {
+      if (fingerprint != EMPTY) {
+        insert(newTable, fingerprint);
+      }
+    }
+    table = newTable;
+  }
+
+  /**
+   * Calculates 64-bit fingerprint of the URL using FNV-1a hashing followed by a MurmurHash3 finalization
+   * step to distribute the bits evenly.
+   * @param url URL
+   * @return Fingerprint, never 0
+   */
+  static long fingerprint(@NotNull String url) {
+    long hash = 0xcbf29ce484222325L;
+    for (int i = 0; i < url.length(); i++) {
+      hash ^= url.charAt(i);
+      hash *= 0x100000001b3L;
+    }
+    hash ^= url.length();
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    hash *= 0xc4ceb9fe1a85ec53L;
+    hash ^= hash >>> 33;
+    return hash != EMPTY ? hash : 1L;
+  }
+
+}
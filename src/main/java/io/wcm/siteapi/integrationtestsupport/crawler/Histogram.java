@@ -0,0 +1,161 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2023 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.siteapi.integrationtestsupport.crawler;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram of non-negative long values which can be recorded concurrently without locking.
+ * <p>
+ * Values are counted in logarithmic buckets with 8 linear sub-buckets per power of two, so reported
+ * percentiles are at most 12.5% above the exact value. Values below 16 are counted exactly.
+ * The maximum is tracked exactly.
+ * </p>
+ */
+public final class Histogram {
+
+  private static final int SUB_BUCKET_BITS = 3;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+  private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+  private final LongAdder count = new LongAdder();
+  private final LongAdder sum = new LongAdder();
+  private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+  Histogram() {
+    // created by crawler statistics only
+  }
+
+  void record(long value) {
+    long nonNegativeValue = Math.max(0, value);
+    buckets.incrementAndGet(bucketIndex(nonNegativeValue));
+    count.increment();
+    sum.add(nonNegativeValue);
+    max.accumulate(nonNegativeValue);
+  }
+
+  /**
+   * @return Number of recorded values.
+   */
+  public long getCount() {
+    return count.sum();
+  }
+
+  /**
+   * @return Sum of all recorded values.
+   */
+  public long getSum() {
+    return sum.sum();
+  }
+
+  /**
+   * @return Mean of all recorded values, or 0 if no values were recorded.
+   */
+  public double getMean() {
+    long currentCount = getCount();
+    return currentCount > 0 ? (double)getSum() / currentCount : 0;
+  }
+
+  /**
+   * @return Maximum recorded value, or 0 if no values were recorded.
+   */
+  public long getMax() {
+    return max.get();
+  }
+
+  /**
+   * @return Median
+   */
+  public long getP50() {
+    return getPercentile(50);
+  }
+
+  /**
+   * @return 95th percentile
+   */
+  public long getP95() {
+    return getPercentile(95);
+  }
+
+  /**
+   * @return 99th percentile
+   */
+  public long getP99() {
+    return getPercentile(99);
+  }
+
+  /**
+   * @param percentile Percentile between 0 and 100
+   * @return Smallest value that is greater than or equal to the given percentage of the recorded values
+   *         (within the bucket precision), or 0 if no values were recorded.
+   */
+  public long getPercentile(double percentile) {
+    if (percentile < 0 || percentile > 100) {
+      throw new IllegalArgumentException("Percentile must be between 0 and 100: " + percentile);
+    }
+    long[] snapshot = new long[BUCKETS];
+    long total = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      snapshot[i] = buckets.get(i);
+      total += snapshot[i];
+    }
+    if (total == 0) {
+      return 0;
+    }
+    long rank = Math.max(1, (long)Math.ceil(percentile / 100 * total));
+    long seen = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      seen += snapshot[i];
+      if (seen >= rank) {
+        return Math.min(bucketUpperBound(i), getMax());
+      }
+    }
+    return getMax();
+  }
+
+  static int bucketIndex(long value) {
+    if (value < SUB_BUCKETS) {
+      return (int)value;
+    }
+    int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+    int subBucket = (int)(value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+    return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+  }
+
+  static long bucketUpperBound(int index) {
+    if (index < 2 * SUB_BUCKETS) {
+      return index;
+    }
+    int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+    int subBucket = index % SUB_BUCKETS;
+    int shift = exponent - SUB_BUCKET_BITS;
+    long lowerBound = (long)(SUB_BUCKETS + subBucket) << shift;
+    return lowerBound + (1L << shift) - 1;
+  }
+
+  @Override
+  public String toString() {
+    return "count=" + getCount() + ", p50=" + getP50() + ", p95=" + getP95() + ", p99=" + getP99() + ", max=" + getMax();
+  }
+
+}
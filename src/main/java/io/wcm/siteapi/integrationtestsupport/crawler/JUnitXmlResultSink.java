@@ -0,0 +1,158 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2023 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.siteapi.integrationtestsupport.crawler;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Writes crawl results as JUnit XML report with one test case per crawled URL, which can be picked up
+ * by CI servers.
+ * <p>
+ * The test and failure counts of the test suite are not known when the file is started. They are written
+ * as zero-padded placeholders and updated in place when the sink is closed.
+ * </p>
+ */
+public final class JUnitXmlResultSink extends FileResultSink {
+
+  private static final String COUNT_PLACEHOLDER = "0000000000";
+
+  private final String testSuiteName;
+  private int tests;
+  private int failures;
+  private long testsOffset;
+  private long failuresOffset;
+
+  /**
+   * @param file Result file. An existing file is replaced.
+   * @param testSuiteName Test suite name
+   */
+  public JUnitXmlResultSink(@NotNull Path file, @NotNull String testSuiteName) {
+    super(file);
+    this.testSuiteName = testSuiteName;
+  }
+
+  @Override
+  void writeStart(@NotNull Writer writer) throws IOException {
+    String prefix = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+        + "<testsuite name=\"" + escape(testSuiteName) + "\" tests=\"";
+    testsOffset = utf8Length(prefix);
+    String failuresPrefix = COUNT_PLACEHOLDER + "\" failures=\"";
+    failuresOffset = testsOffset + utf8Length(failuresPrefix);
+    writer.write(prefix);
+    writer.write(failuresPrefix);
+    writer.write(COUNT_PLACEHOLDER + "\" errors=\"0\" skipped=\"0\">\n");
+  }
+
+  @Override
+  void writeResult(@NotNull Writer writer, @NotNull CrawlResult result,
+      @Nullable String response, @Nullable String spillFile) throws IOException {
+    tests++;
+    writer.write("  <testcase classname=\"" + escape(result.getSuffix() != null ? result.getSuffix() : "unknown")
+        + "\" name=\"" + escape(result.getUrl())
+        + "\" time=\"" + String.format(Locale.ROOT, "%.3f", result.getDuration().toNanos() / 1_000_000_000d) + "\"");
+    if (result.isSuccess()) {
+      writer.write("/>\n");
+      return;
+    }
+    failures++;
+    writer.write(">\n");
+    writer.write("    <failure message=\"" + escape(result.getMessage()) + "\">");
+    if (response != null) {
+      writer.write(escape(response));
+    }
+    writer.write("</failure>\n");
+    if (result.getRefererUrl() != null || spillFile != null) {
+      writer.write("    <system-out>");
+      if (result.getRefererUrl() != null) {
+        writer.write("Referer: " + escape(result.getRefererUrl()) + "\n");
+      }
+      if (spillFile != null) {
+        writer.write("Response: " + escape(spillFile) + "\n");
+      }
+      writer.write("</system-out>\n");
+    }
+    writer.write("  </testcase>\n");
+  }
+
+  @Override
+  void writeEnd(@NotNull Writer writer) throws IOException {
+    writer.write("</testsuite>\n");
+  }
+
+  @Override
+  void finish(@NotNull Path resultFile) throws IOException {
+    try (FileChannel channel = FileChannel.open(resultFile, StandardOpenOption.WRITE)) {
+      channel.write(formatCount(tests), testsOffset);
+      channel.write(formatCount(failures), failuresOffset);
+    }
+  }
+
+  private static ByteBuffer formatCount(int count) {
+    return ByteBuffer.wrap(String.format(Locale.ROOT, "%010d", count).getBytes(StandardCharsets.US_ASCII));
+  }
+
+  private static long utf8Length(String value) {
+    return value.getBytes(StandardCharsets.UTF_8).length;
+  }
+
+  /**
+   * Escapes XML special characters and drops characters not allowed in XML 1.0.
+   */
+  static String escape(@Nullable String value) {
+    if (value == null) {
+      return "";
+    }
+    StringBuilder result = new StringBuilder(value.length());
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      switch (c) {
+        case '&':
+          result.append("&amp;");
+          break;
+        case '<':
+          result.append("&lt;");
+          break;
+        case '>':
+          result.append("&gt;");
+          break;
+        case '"':
+          result.append("&quot;");
+          break;
+        default:
+          if (c >= 0x20 || c == '\n' || c == '\r' || c == '\t') {
+            result.append(c);
+          }
+          break;
+      }
+    }
+    return result.toString();
+  }
+
+}
@@ -0,0 +1,84 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2023 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.siteapi.integrationtestsupport.crawler;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Path;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/**
+ * Writes one JSON object per crawl result and line (JSON Lines format).
+ */
+public final class JsonLinesResultSink extends FileResultSink {
+
+  private static final JsonFactory JSON_FACTORY = new JsonFactory()
+      .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+  private JsonGenerator generator;
+
+  /**
+   * @param file Result file. An existing file is replaced.
+   */
+  public JsonLinesResultSink(@NotNull Path file) {
+    super(file);
+  }
+
+  @Override
+  void writeStart(@NotNull Writer writer) throws IOException {
+    generator = JSON_FACTORY.createGenerator(writer);
+  }
+
+  @Override
+  void writeResult(@NotNull Writer writer, @NotNull CrawlResult result,
+      @Nullable String response, @Nullable String spillFile) throws IOException {
+    generator.writeStartObject();
+    generator.writeStringField("url", result.getUrl());
+    writeOptionalField("referer", result.getRefererUrl());
+    writeOptionalField("suffix", result.getSuffix());
+    generator.writeBooleanField("success", result.isSuccess());
+    writeOptionalField("message", result.getMessage());
+    if (result.isSuccess()) {
+      generator.writeNumberField("links", result.getLinks());
+    }
+    generator.writeNumberField("timeMs", result.getDuration().toNanos() / 1_000_000d);
+    writeOptionalField("response", response);
+    writeOptionalField("responseFile", spillFile);
+    generator.writeEndObject();
+    generator.writeRaw('\n');
+  }
+
+  private void writeOptionalField(String name, String value) throws IOException {
+    if (value != null) {
+      generator.writeStringField(name, value);
+    }
+  }
+
+  @Override
+  void writeEnd(@NotNull Writer writer) throws IOException {
+    generator.close();
+  }
+
+}
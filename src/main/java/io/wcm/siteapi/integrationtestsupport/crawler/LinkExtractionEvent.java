@@ -0,0 +1,52 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2023 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.siteapi.integrationtestsupport.crawler;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Java Flight Recorder event for the link extraction from a Site API response in {@link CrawlerItem}.
+ */
+@Name("io.wcm.siteapi.LinkExtraction")
+@Label("Link Extraction")
+@Category({ "wcm.io Site API", "Crawler" })
+@Description("Link extraction from a Site API response, including JSON parsing")
+final class LinkExtractionEvent extends Event {
+
+  @Label("URL")
+  String url;
+
+  @Label("Suffix")
+  String suffix;
+
+  @Label("Body Size")
+  @DataAmount
+  long bodySize;
+
+  @Label("Links")
+  @Description("Number of links found, including links to URLs visited already")
+  int links;
+
+}
@@ -0,0 +1,134 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2023 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.siteapi.integrationtestsupport.crawler;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Statistics for the pages visited by the crawler, either for all pages or the pages of a single suffix.
+ * All times are recorded in nanoseconds.
+ */
+public final class PageStatistics {
+
+  private final LongAdder pages = new LongAdder();
+  private final LongAdder failedPages = new LongAdder();
+  private final Histogram fetchTime = new Histogram();
+  private final Histogram validationTime = new Histogram();
+  private final Histogram parseTime = new Histogram();
+  private final Histogram linkExtractionTime = new Histogram();
+  private final Histogram responseSize = new Histogram();
+  private final Histogram links = new Histogram();
+
+  PageStatistics() {
+    // created by crawler statistics only
+  }
+
+  void recordPage() {
+    pages.increment();
+  }
+
+  void recordFailedPage() {
+    failedPages.increment();
+  }
+
+  /**
+   * @return Number of pages processed.
+   */
+  public long getPages() {
+    return pages.sum();
+  }
+
+  /**
+   * @return Number of pages that could not be fetched or failed validation.
+   */
+  public long getFailedPages() {
+    return failedPages.sum();
+  }
+
+  /**
+   * @return Time to fetch the response via HTTP, including retries and the wait time of the rate limiter.
+   */
+  public @NotNull Histogram getFetchTime() {
+    return this.fetchTime;
+  }
+
+  /**
+   * @return Time to validate the response against the OAS3 schema.
+   */
+  public @NotNull Histogram getValidationTime() {
+    return this.validationTime;
+  }
+
+  /**
+   * @return Time to parse the response into a JSON path document for link extractors without streaming support.
+   *         Is not recorded if only streaming link extractors apply.
+   */
+  public @NotNull Histogram getParseTime() {
+    return this.parseTime;
+  }
+
+  /**
+   * @return Time to extract links from the response, excluding the parse time. Streaming link extractors
+   *         parse and extract links in a single pass, which is included here.
+   */
+  public @NotNull Histogram getLinkExtractionTime() {
+    return this.linkExtractionTime;
+  }
+
+  /**
+   * @return Size of the (decompressed) response body in bytes.
+   */
+  public @NotNull Histogram getResponseSize() {
+    return this.responseSize;
+  }
+
+  /**
+   * @return Number of links found per page, including links to pages visited already.
+   */
+  public @NotNull Histogram getLinks() {
+    return this.links;
+  }
+
+  @Override
+  public String toString() {
+    return "pages=" + getPages() + ", failed=" + getFailedPages()
+        + ", fetch[ms]: " + formatTime(fetchTime)
+        + ", validation[ms]: " + formatTime(validationTime)
+        + ", parse[ms]: " + formatTime(parseTime)
+        + ", linkExtraction[ms]: " + formatTime(linkExtractionTime)
+        + ", responseSize[bytes]: " + responseSize
+        + ", links: " + links;
+  }
+
+  private static String formatTime(Histogram histogram) {
+    return "p50=" + toMillis(histogram.getP50())
+        + ", p95=" + toMillis(histogram.getP95())
+        + ", p99=" + toMillis(histogram.getP99())
+        + ", max=" + toMillis(histogram.getMax());
+  }
+
+  private static long toMillis(long nanos) {
+    return TimeUnit.NANOSECONDS.toMillis(nanos);
+  }
+
+}
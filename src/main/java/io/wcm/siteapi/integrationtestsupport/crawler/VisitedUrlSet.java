@@ -0,0 +1,49 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2023 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.siteapi.integrationtestsupport.crawler;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Set of URLs visited by the crawler.
+ */
+interface VisitedUrlSet {
+
+  /**
+   * Adds URL to the set.
+   * @param url URL
+   * @return true if the URL was not contained in the set before
+   */
+  boolean add(@NotNull String url);
+
+  /**
+   * @return Number of URLs added to the set.
+   */
+  int size();
+
+  /**
+   * @return Estimated probability that a URL not added before is reported as already contained.
+   *         Is 0 for exact sets.
+   */
+  default double falsePositiveProbability() {
+    return 0;
+  }
+
+}
@@ -0,0 +1,87 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2023 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.siteapi.integrationtestsupport.crawler;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Defines how the crawler keeps track of the URLs visited already.
+ */
+public final class VisitedUrlStore {
+
+  /**
+   * Exact: Full URLs are stored in a hash set (default).
+   */
+  public static final VisitedUrlStore EXACT = new VisitedUrlStore(ExactVisitedUrlSet::new);
+
+  /**
+   * Fingerprint: Only a 64-bit fingerprint of each URL is stored in a primitive open-addressing hash table,
+   * which needs about 16-32 bytes per URL instead of a few hundred bytes for the full URL string.
+   * The probability of two different URLs sharing the same fingerprint (and thus one of them being skipped)
+   * is about n^2/2^65 for n URLs, e.g. less than 10^-7 for one million URLs.
+   */
+  public static final VisitedUrlStore FINGERPRINT = new VisitedUrlStore(FingerprintVisitedUrlSet::new);
+
+  private final Supplier<VisitedUrlSet> setFactory;
+
+  /**
+   * Bloom filter: URLs are tracked in a Bloom filter of fixed size. The crawler may skip a URL that was not
+   * visited before, with the given false-positive probability once the expected number of URLs is reached.
+   * The false-positive probability actually reached is reported at the end of the crawl.
+   * @param expectedUrls Expected number of URLs
+   * @param falsePositiveProbability False-positive probability, e.g. 0.0001
+   * @return Visited URL store
+   */
+  public static @NotNull VisitedUrlStore bloomFilter(long expectedUrls, double falsePositiveProbability) {
+    BloomFilterVisitedUrlSet.validateParameters(expectedUrls, falsePositiveProbability);
+    return new VisitedUrlStore(() -> new BloomFilterVisitedUrlSet(expectedUrls, falsePositiveProbability));
+  }
+
+  private VisitedUrlStore(Supplier<VisitedUrlSet> setFactory) {
+    this.setFactory = setFactory;
+  }
+
+  @NotNull
+  VisitedUrlSet createSet() {
+    return setFactory.get();
+  }
+
+
+  private static final class ExactVisitedUrlSet implements VisitedUrlSet {
+
+    private final Set<String> urls = ConcurrentHashMap.newKeySet();
+
+    @Override
+    public boolean add(@NotNull String url) {
+      return urls.add(url);
+    }
+
+    @Override
+    public int size() {
+      return urls.size();
+    }
+
+  }
+
+}
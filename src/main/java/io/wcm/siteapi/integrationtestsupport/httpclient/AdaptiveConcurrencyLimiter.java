@@ -0,0 +1,132 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2023 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.siteapi.integrationtestsupport.httpclient;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Adaptive concurrency limiter using additive increase/multiplicative decrease (AIMD).
+ * <p>
+ * The limit grows by one per round trip as long as the latency of successful responses stays stable
+ * and requests actually use the current limit. It is halved if a request signals an overload
+ * (e.g. HTTP 429/503 or timeout), and reduced slightly if the response latency exceeds a multiple of the
+ * long-term average latency.
+ * </p>
+ */
+final class AdaptiveConcurrencyLimiter {
+
+  static final double OVERLOAD_BACKOFF_RATIO = 0.5;
+  static final double LATENCY_BACKOFF_RATIO = 0.9;
+  static final double LATENCY_TOLERANCE = 2.0;
+  private static final double LATENCY_SMOOTHING = 0.05;
+
+  private final int maxLimit;
+  private final Deque<CompletableFuture<Void>> waiters = new ArrayDeque<>();
+  private double limit;
+  private int inFlight;
+  private double averageLatencyNanos;
+
+  /**
+   * @param initialLimit Initial limit
+   * @param maxLimit Maximum limit
+   */
+  AdaptiveConcurrencyLimiter(int initialLimit, int maxLimit) {
+    this.maxLimit = maxLimit;
+    this.limit = Math.min(initialLimit, maxLimit);
+  }
+
+  /**
+   * Acquires a permit for a single request.
+   * @return Future that completes when the request may be sent.
+   */
+  CompletableFuture<Void> acquire() {
+    synchronized (this) {
+      if (inFlight < getLimit()) {
+        inFlight++;
+        return CompletableFuture.completedFuture(null);
+      }
+      CompletableFuture<Void> waiter = new CompletableFuture<>();
+      waiters.add(waiter);
+      return waiter;
+    }
+  }
+
+  /**
+   * Releases a permit acquired before and adjusts the limit.
+   * @param latencyNanos Latency of the request
+   * @param overload true if the response signals overload of the server
+   */
+  void release(long latencyNanos, boolean overload) {
+    synchronized (this) {
+      if (overload) {
+        decrease(OVERLOAD_BACKOFF_RATIO);
+      }
+      else if (averageLatencyNanos > 0 && latencyNanos > averageLatencyNanos * LATENCY_TOLERANCE) {
+        decrease(LATENCY_BACKOFF_RATIO);
+        averageLatencyNanos += (latencyNanos - averageLatencyNanos) * LATENCY_SMOOTHING;
+      }
+      else {
+        if (inFlight >= getLimit() / 2) {
+          limit = Math.min(maxLimit, limit + 1 / limit);
+        }
+        averageLatencyNanos = averageLatencyNanos == 0 ? latencyNanos
+            : averageLatencyNanos + (latencyNanos - averageLatencyNanos) * LATENCY_SMOOTHING;
+      }
+    }
+    releasePermit();
+  }
+
+  /**
+   * Releases a permit without adjusting the limit.
+   */
+  void releasePermit() {
+    List<CompletableFuture<Void>> granted = new ArrayList<>();
+    synchronized (this) {
+      inFlight--;
+      while (inFlight < getLimit() && !waiters.isEmpty()) {
+        inFlight++;
+        granted.add(waiters.poll());
+      }
+    }
+    // complete waiters outside the lock, they may continue sending requests in this thread
+    for (CompletableFuture<Void> waiter : granted) {
+      if (!waiter.complete(null)) {
+        // waiter was cancelled meanwhile
+        releasePermit();
+      }
+    }
+  }
+
+  private void decrease(double ratio) {
+    limit = Math.max(1, limit * ratio);
+  }
+
+  /**
+   * @return Current concurrency limit.
+   */
+  synchronized int getLimit() {
+    return (int)limit;
+  }
+
+}
@@ -0,0 +1,150 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2023 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.siteapi.integrationtestsupport.httpclient;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.http.HttpResponse.BodyHandler;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Supported response body types with their body handler and conversion from/to the bytes stored in {@link HttpCache}.
+ * @param <T> Body type
+ */
+final class BodyType<T> {
+
+  static final BodyType<String> STRING = new BodyType<>(BodyHandlers.ofString(),
+      body -> body.getBytes(StandardCharsets.UTF_8),
+      bytes -> new String(bytes, StandardCharsets.UTF_8),
+      BodyType::utf8Length,
+      body -> { /* nothing to release */ });
+
+  static final BodyType<byte[]> BYTES = new BodyType<>(BodyHandlers.ofByteArray(),
+      Function.identity(),
+      Function.identity(),
+      body -> body.length,
+      body -> { /* nothing to release */ });
+
+  /**
+   * Streamed bodies are not stored in the cache, as this would require to consume the stream.
+   * But bodies already stored in the cache are reused if the server responds with 304.
+   */
+  static final BodyType<InputStream> STREAM = new BodyType<>(BodyHandlers.ofInputStream(),
+      null,
+      ByteArrayInputStream::new,
+      body -> -1,
+      BodyType::closeStream);
+
+  private final BodyHandler<T> bodyHandler;
+  private final Function<T, byte[]> toBytes;
+  private final Function<byte[], T> fromBytes;
+  private final ToLongFunction<T> size;
+  private final Consumer<T> discard;
+
+  private BodyType(BodyHandler<T> bodyHandler, @Nullable Function<T, byte[]> toBytes, Function<byte[], T> fromBytes,
+      ToLongFunction<T> size, Consumer<T> discard) {
+    this.bodyHandler = bodyHandler;
+    this.toBytes = toBytes;
+    this.fromBytes = fromBytes;
+    this.size = size;
+    this.discard = discard;
+  }
+
+  @NotNull
+  BodyHandler<T> getBodyHandler() {
+    return this.bodyHandler;
+  }
+
+  /**
+   * @return true if bodies of this type can be stored in the cache.
+   */
+  boolean isCacheable() {
+    return toBytes != null;
+  }
+
+  @NotNull
+  byte[] toBytes(@NotNull T body) {
+    return toBytes.apply(body);
+  }
+
+  @NotNull
+  T fromBytes(@NotNull byte[] bytes) {
+    return fromBytes.apply(bytes);
+  }
+
+  /**
+   * @param body Body
+   * @return Size of the body in bytes, or -1 if unknown (streamed body).
+   */
+  long size(@NotNull T body) {
+    return size.applyAsLong(body);
+  }
+
+  /**
+   * Releases resources of a body that is not passed to the caller.
+   * @param body Body
+   */
+  void discard(@NotNull T body) {
+    discard.accept(body);
+  }
+
+  /**
+   * Calculates the UTF-8 encoded length of a string without encoding it.
+   */
+  static long utf8Length(String value) {
+    long length = 0;
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c < 0x80) {
+        length++;
+      }
+      else if (c < 0x800) {
+        length += 2;
+      }
+      else if (Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))) {
+        length += 4;
+        i++;
+      }
+      else {
+        length += 3;
+      }
+    }
+    return length;
+  }
+
+  private static void closeStream(InputStream stream) {
+    try {
+      stream.close();
+    }
+    catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+
+}
@@ -0,0 +1,356 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2023 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.siteapi.integrationtestsupport.httpclient;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.http.HttpResponse.BodySubscriber;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Decompresses gzip or deflate encoded response bodies while they are received, and passes the decoded
+ * buffers to the body subscriber of the requested body type. Received and decoded bytes are counted in
+ * {@link HttpClientStatistics}, for responses without content encoding both counts are equal.
+ * @param <T> Body type
+ */
+final class ContentDecodingBodySubscriber<T> implements BodySubscriber<T> {
+
+  /**
+   * Value of the Accept-Encoding header sent if compression is enabled.
+   */
+  static final String ACCEPT_ENCODING = "gzip, deflate";
+
+  private static final int OUTPUT_CHUNK_SIZE = 8192;
+  private static final int GZIP_MAGIC_1 = 0x1f;
+  private static final int GZIP_MAGIC_2 = 0x8b;
+  private static final int GZIP_HEADER_SIZE = 10;
+  private static final int GZIP_TRAILER_SIZE = 8;
+  private static final int GZIP_FLAG_FHCRC = 0x02;
+  private static final int GZIP_FLAG_FEXTRA = 0x04;
+  private static final int GZIP_FLAG_FNAME = 0x08;
+  private static final int GZIP_FLAG_FCOMMENT = 0x10;
+  private static final int DEFLATE_METHOD = 8;
+
+  private enum Encoding { IDENTITY, GZIP, DEFLATE }
+
+  private enum Phase { HEADER, BODY, TRAILER, DONE }
+
+  private final BodySubscriber<T> downstream;
+  private final String contentEncoding;
+  private final Encoding encoding;
+  private final HttpClientStatistics statistics;
+  private final ByteArrayOutputStream pending = new ByteArrayOutputStream();
+  private final CRC32 crc = new CRC32();
+  private Flow.Subscription subscription;
+  private Inflater inflater;
+  private Phase phase = Phase.HEADER;
+  private long bytesReceived;
+  private boolean failed;
+
+  private ContentDecodingBodySubscriber(BodySubscriber<T> downstream, String contentEncoding,
+      HttpClientStatistics statistics) {
+    this.downstream = downstream;
+    this.contentEncoding = contentEncoding;
+    this.encoding = toEncoding(contentEncoding);
+    this.statistics = statistics;
+  }
+
+  /**
+   * @param downstream Body subscriber receiving the decoded body
+   * @param contentEncoding Value of the Content-Encoding response header
+   * @param statistics Statistics
+   * @return Body subscriber. Completes exceptionally with an {@link IOException} if the content encoding
+   *         is not supported.
+   */
+  static <T> @NotNull BodySubscriber<T> create(@NotNull BodySubscriber<T> downstream, @Nullable String contentEncoding,
+      @NotNull HttpClientStatistics statistics) {
+    return new ContentDecodingBodySubscriber<>(downstream, contentEncoding, statistics);
+  }
+
+  private static @Nullable Encoding toEncoding(@Nullable String contentEncoding) {
+    if (contentEncoding == null) {
+      return Encoding.IDENTITY;
+    }
+    switch (contentEncoding.trim().toLowerCase(Locale.ROOT)) {
+      case "":
+      case "identity":
+        return Encoding.IDENTITY;
+      case "gzip":
+      case "x-gzip":
+        return Encoding.GZIP;
+      case "deflate":
+        return Encoding.DEFLATE;
+      default:
+        return null;
+    }
+  }
+
+  @Override
+  public CompletionStage<T> getBody() {
+    return downstream.getBody();
+  }
+
+  @Override
+  public void onSubscribe(Flow.Subscription value) {
+    this.subscription = value;
+    downstream.onSubscribe(value);
+    if (encoding == null) {
+      failed = true;
+      value.cancel();
+      downstream.onError(new IOException("Unsupported content encoding: " + contentEncoding));
+    }
+  }
+
+  @Override
+  public void onNext(List<ByteBuffer> items) {
+    if (failed) {
+      return;
+    }
+    long received = 0;
+    for (ByteBuffer item : items) {
+      received += item.remaining();
+    }
+    bytesReceived += received;
+    statistics.recordBytesReceived(received);
+
+    if (encoding == Encoding.IDENTITY) {
+      statistics.recordBytesDecoded(received);
+      downstream.onNext(items);
+      return;
+    }
+
+    List<ByteBuffer> decoded = new ArrayList<>();
+    try {
+      for (ByteBuffer item : items) {
+        decode(item, decoded);
+      }
+    }
+    catch (IOException ex) {
+      failed = true;
+      subscription.cancel();
+      release();
+      downstream.onError(ex);
+      return;
+    }
+    if (decoded.isEmpty()) {
+      // nothing to pass on yet - request the next buffers instead
+      subscription.request(1);
+    }
+    else {
+      downstream.onNext(decoded);
+    }
+  }
+
+  @Override
+  public void onError(Throwable throwable) {
+    release();
+    if (!failed) {
+      failed = true;
+      downstream.onError(throwable);
+    }
+  }
+
+  @Override
+  public void onComplete() {
+    release();
+    if (failed) {
+      return;
+    }
+    // an empty body (e.g. 304 Not Modified) is passed on as is
+    if (encoding != Encoding.IDENTITY && phase != Phase.DONE && bytesReceived > 0) {
+      failed = true;
+      downstream.onError(new EOFException("Unexpected end of " + encoding.name().toLowerCase(Locale.ROOT)
+          + " encoded response body"));
+      return;
+    }
+    downstream.onComplete();
+  }
+
+  private void decode(ByteBuffer input, List<ByteBuffer> decoded) throws IOException {
+    ByteBuffer remaining = input;
+    while (remaining.hasRemaining()) {
+      switch (phase) {
+        case HEADER:
+          remaining = readHeader(remaining);
+          break;
+        case BODY:
+          inflate(remaining, decoded);
+          break;
+        case TRAILER:
+          readTrailer(remaining);
+          break;
+        default:
+          // ignore any data after the end of the compressed stream
+          remaining.position(remaining.limit());
+          break;
+      }
+    }
+  }
+
+  /**
+   * Collects bytes until the header is complete, and returns the bytes following the header.
+   */
+  private ByteBuffer readHeader(ByteBuffer input) throws IOException {
+    writePending(input);
+    byte[] data = pending.toByteArray();
+    int headerSize;
+    if (encoding == Encoding.GZIP) {
+      headerSize = getGzipHeaderSize(data);
+      if (headerSize < 0) {
+        return input;
+      }
+      inflater = new Inflater(true);
+    }
+    else {
+      if (data.length < 2) {
+        return input;
+      }
+      // some servers send raw deflate data instead of the zlib format defined for HTTP
+      inflater = new Inflater(!isZlibHeader(data));
+      headerSize = 0;
+    }
+    pending.reset();
+    phase = Phase.BODY;
+    return ByteBuffer.wrap(data, headerSize, data.length - headerSize);
+  }
+
+  private void inflate(ByteBuffer input, List<ByteBuffer> decoded) throws IOException {
+    inflater.setInput(input);
+    try {
+      while (!inflater.finished()) {
+        byte[] chunk = new byte[OUTPUT_CHUNK_SIZE];
+        int count = inflater.inflate(chunk);
+        if (count > 0) {
+          crc.update(chunk, 0, count);
+          statistics.recordBytesDecoded(count);
+          decoded.add(ByteBuffer.wrap(chunk, 0, count));
+        }
+        else if (inflater.needsInput()) {
+          break;
+        }
+        else if (inflater.needsDictionary()) {
+          throw new ZipException("Preset dictionary not supported");
+        }
+      }
+    }
+    catch (DataFormatException ex) {
+      throw new ZipException("Invalid " + encoding.name().toLowerCase(Locale.ROOT) + " data: " + ex.getMessage());
+    }
+    if (inflater.finished()) {
+      phase = encoding == Encoding.GZIP ? Phase.TRAILER : Phase.DONE;
+    }
+  }
+
+  private void readTrailer(ByteBuffer input) throws IOException {
+    writePending(input);
+    byte[] data = pending.toByteArray();
+    if (data.length < GZIP_TRAILER_SIZE) {
+      return;
+    }
+    if (readInt(data, 0) != (int)crc.getValue() || readInt(data, 4) != (int)inflater.getBytesWritten()) {
+      throw new ZipException("Corrupt gzip data: checksum mismatch");
+    }
+    phase = Phase.DONE;
+  }
+
+  private void writePending(ByteBuffer input) {
+    while (input.hasRemaining()) {
+      pending.write(input.get());
+    }
+  }
+
+  private void release() {
+    if (inflater != null) {
+      inflater.end();
+    }
+  }
+
+  /**
+   * @return Size of the gzip header, or -1 if it is not complete yet.
+   */
+  private static int getGzipHeaderSize(byte[] data) throws ZipException {
+    if (data.length < GZIP_HEADER_SIZE) {
+      return -1;
+    }
+    if ((data[0] & 0xff) != GZIP_MAGIC_1 || (data[1] & 0xff) != GZIP_MAGIC_2 || data[2] != DEFLATE_METHOD) {
+      throw new ZipException("Not in gzip format");
+    }
+    int flags = data[3] & 0xff;
+    int pos = GZIP_HEADER_SIZE;
+    if ((flags & GZIP_FLAG_FEXTRA) != 0) {
+      if (data.length < pos + 2) {
+        return -1;
+      }
+      pos += 2 + ((data[pos] & 0xff) | (data[pos + 1] & 0xff) << 8);
+    }
+    if ((flags & GZIP_FLAG_FNAME) != 0) {
+      pos = skipZeroTerminated(data, pos);
+    }
+    if ((flags & GZIP_FLAG_FCOMMENT) != 0) {
+      pos = skipZeroTerminated(data, pos);
+    }
+    if ((flags & GZIP_FLAG_FHCRC) != 0 && pos >= 0) {
+      pos += 2;
+    }
+    if (pos < 0 || pos > data.length) {
+      return -1;
+    }
+    return pos;
+  }
+
+  private static int skipZeroTerminated(byte[] data, int pos) {
+    if (pos < 0) {
+      return pos;
+    }
+    for (int i = pos; i < data.length; i++) {
+      if (data[i] == 0) {
+        return i + 1;
+      }
+    }
+    return -1;
+  }
+
+  private static boolean isZlibHeader(byte[] data) {
+    int cmf = data[0] & 0xff;
+    int flg = data[1] & 0xff;
+    return (cmf & 0x0f) == DEFLATE_METHOD && ((cmf << 8) | flg) % 31 == 0;
+  }
+
+  private static int readInt(byte[] data, int pos) {
+    return (data[pos] & 0xff)
+        | (data[pos + 1] & 0xff) << 8
+        | (data[pos + 2] & 0xff) << 16
+        | (data[pos + 3] & 0xff) << 24;
+  }
+
+}
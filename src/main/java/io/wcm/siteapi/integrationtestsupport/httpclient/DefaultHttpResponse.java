@@ -0,0 +1,68 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2023 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.siteapi.integrationtestsupport.httpclient;
+
+import java.net.http.HttpClient.Version;
+
+class DefaultHttpResponse<T> implements HttpResponse<T> {
+
+  private final java.net.http.HttpResponse<T> delegate;
+  private final int statusCode;
+  private final T body;
+  private final boolean fromCache;
+
+  DefaultHttpResponse(java.net.http.HttpResponse<T> delegate) {
+    this(delegate, delegate.statusCode(), delegate.body(), false);
+  }
+
+  /**
+   * @param delegate Response
+   * @param statusCode Status code overriding the status code of the response
+   * @param body Body overriding the body of the response
+   * @param fromCache Whether the body was taken from the local HTTP cache
+   */
+  DefaultHttpResponse(java.net.http.HttpResponse<T> delegate, int statusCode, T body, boolean fromCache) {
+    this.delegate = delegate;
+    this.statusCode = statusCode;
+    this.body = body;
+    this.fromCache = fromCache;
+  }
+
+  @Override
+  public int statusCode() {
+    return statusCode;
+  }
+
+  @Override
+  public T body() {
+    return body;
+  }
+
+  @Override
+  public Version version() {
+    return delegate.version();
+  }
+
+  @Override
+  public boolean isFromCache() {
+    return fromCache;
+  }
+
+}
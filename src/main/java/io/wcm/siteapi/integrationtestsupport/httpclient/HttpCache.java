@@ -0,0 +1,300 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2023 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.siteapi.integrationtestsupport.httpclient;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Local on-disk HTTP response cache for incremental recrawls.
+ * <p>
+ * For each URL (without timestamp parameter) the response body is stored together with the
+ * <code>ETag</code> and <code>Last-Modified</code> response headers. These are sent as conditional request
+ * headers on the next request, and the stored body is reused if the server responds with
+ * <code>304 Not Modified</code>.
+ * </p>
+ * <p>
+ * Additionally, a validation key can be stored for each entry to remember that the body was already
+ * validated successfully, e.g. against a specific OAS3 spec version. The validation key is bound to the
+ * SHA-256 hash of the body it was stored for, and is reset whenever the body changes.
+ * </p>
+ * <p>
+ * All reads and writes of an entry are guarded by the same lock, so the metadata and body read together
+ * always belong to the same response.
+ * </p>
+ * <p>
+ * Errors reading or writing the cache are logged and treated like cache misses.
+ * </p>
+ */
+public final class HttpCache {
+
+  private static final String PROPERTY_URL = "url";
+  private static final String PROPERTY_ETAG = "etag";
+  private static final String PROPERTY_LAST_MODIFIED = "lastModified";
+  private static final String PROPERTY_VALIDATION_KEY = "validationKey";
+  private static final String PROPERTY_BODY_HASH = "bodyHash";
+
+  private final Path directory;
+
+  private static final Logger log = LoggerFactory.getLogger(HttpCache.class.getSimpleName());
+
+  /**
+   * @param directory Cache directory. Is created if it does not exist.
+   */
+  public HttpCache(@NotNull Path directory) {
+    this.directory = directory;
+  }
+
+  /**
+   * @return Cache directory
+   */
+  public @NotNull Path getDirectory() {
+    return this.directory;
+  }
+
+  /**
+   * Checks if the given body is the cached body for the given URL, and was validated successfully with
+   * the given validation key.
+   * @param url URL with or without timestamp parameter
+   * @param body Response body
+   * @param validationKey Validation key, e.g. the spec version the body was validated against.
+   * @return true if the body was validated with the given key before and has not changed since
+   */
+  public boolean isValidated(@NotNull String url, @NotNull byte[] body, @NotNull String validationKey) {
+    String key = getCacheKey(url);
+    String bodyHash = DigestUtils.sha256Hex(body);
+    synchronized (this) {
+      Properties properties = readProperties(key);
+      return properties != null
+          && StringUtils.equals(bodyHash, properties.getProperty(PROPERTY_BODY_HASH))
+          && StringUtils.equals(validationKey, properties.getProperty(PROPERTY_VALIDATION_KEY));
+    }
+  }
+
+  /**
+   * Remembers that the cached body for the given URL was validated successfully with the given validation key.
+   * Has no effect if no body is cached for the URL, or if the cached body is not the given body
+   * e.g. because it was replaced concurrently.
+   * @param url URL with or without timestamp parameter
+   * @param body Response body that was validated
+   * @param validationKey Validation key, e.g. the spec version the body was validated against.
+   */
+  public void markValidated(@NotNull String url, @NotNull byte[] body, @NotNull String validationKey) {
+    String key = getCacheKey(url);
+    String bodyHash = DigestUtils.sha256Hex(body);
+    synchronized (this) {
+      Properties properties = readProperties(key);
+      if (properties != null && StringUtils.equals(bodyHash, properties.getProperty(PROPERTY_BODY_HASH))) {
+        properties.setProperty(PROPERTY_VALIDATION_KEY, validationKey);
+        writeProperties(key, properties);
+      }
+    }
+  }
+
+  /**
+   * Gets cached entry. The body is read separately via {@link #getBody(Entry)}, which returns null if the body
+   * was removed or replaced in the meantime.
+   * @param url URL with or without timestamp parameter
+   * @return Cache entry or null if not cached
+   */
+  @Nullable
+  Entry get(@NotNull String url) {
+    String key = getCacheKey(url);
+    synchronized (this) {
+      Properties properties = readProperties(key);
+      if (properties == null) {
+        return null;
+      }
+      return new Entry(key, properties.getProperty(PROPERTY_ETAG), properties.getProperty(PROPERTY_LAST_MODIFIED),
+          properties.getProperty(PROPERTY_BODY_HASH));
+    }
+  }
+
+  /**
+   * Reads the cached body of the given entry.
+   * @param entry Cache entry
+   * @return Body or null if it is no longer available, or was replaced since the entry was read.
+   */
+  @Nullable
+  byte[] getBody(@NotNull Entry entry) {
+    synchronized (this) {
+      Properties properties = readProperties(entry.key);
+      if (properties == null || !StringUtils.equals(entry.bodyHash, properties.getProperty(PROPERTY_BODY_HASH))) {
+        return null;
+      }
+      try {
+        return Files.readAllBytes(getBodyFile(entry.key));
+      }
+      catch (NoSuchFileException ex) {
+        return null;
+      }
+      catch (IOException ex) {
+        log.warn("Unable to read cached body for {}: {}", entry.key, ex.getMessage());
+        return null;
+      }
+    }
+  }
+
+  /**
+   * Stores response in cache. If neither ETag nor Last-Modified is given, the cache entry is removed instead
+   * because the response cannot be revalidated.
+   * @param url URL with or without timestamp parameter
+   * @param etag ETag response header
+   * @param lastModified Last-Modified response header
+   * @param body Response body
+   */
+  void put(@NotNull String url, @Nullable String etag, @Nullable String lastModified, @NotNull byte[] body) {
+    String key = getCacheKey(url);
+    String bodyHash = DigestUtils.sha256Hex(body);
+    synchronized (this) {
+      if (etag == null && lastModified == null) {
+        remove(key);
+        return;
+      }
+      try {
+        Files.createDirectories(directory);
+        writeAtomically(getBodyFile(key), body);
+      }
+      catch (IOException ex) {
+        log.warn("Unable to write cached body for {}: {}", key, ex.getMessage());
+        remove(key);
+        return;
+      }
+      Properties properties = new Properties();
+      properties.setProperty(PROPERTY_URL, key);
+      properties.setProperty(PROPERTY_BODY_HASH, bodyHash);
+      if (etag != null) {
+        properties.setProperty(PROPERTY_ETAG, etag);
+      }
+      if (lastModified != null) {
+        properties.setProperty(PROPERTY_LAST_MODIFIED, lastModified);
+      }
+      writeProperties(key, properties);
+    }
+  }
+
+  private void remove(String key) {
+    try {
+      Files.deleteIfExists(getPropertiesFile(key));
+      Files.deleteIfExists(getBodyFile(key));
+    }
+    catch (IOException ex) {
+      log.warn("Unable to remove cache entry for {}: {}", key, ex.getMessage());
+    }
+  }
+
+  private @Nullable Properties readProperties(String key) {
+    try (Reader reader = Files.newBufferedReader(getPropertiesFile(key), StandardCharsets.UTF_8)) {
+      Properties properties = new Properties();
+      properties.load(reader);
+      return properties;
+    }
+    catch (NoSuchFileException ex) {
+      return null;
+    }
+    catch (IOException ex) {
+      log.warn("Unable to read cache entry for {}: {}", key, ex.getMessage());
+      return null;
+    }
+  }
+
+  private void writeProperties(String key, Properties properties) {
+    try {
+      Path tempFile = Files.createTempFile(directory, "entry", ".tmp");
+      try (Writer writer = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8)) {
+        properties.store(writer, null);
+      }
+      Files.move(tempFile, getPropertiesFile(key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+    catch (IOException ex) {
+      log.warn("Unable to write cache entry for {}: {}", key, ex.getMessage());
+    }
+  }
+
+  private void writeAtomically(Path file, byte[] content) throws IOException {
+    Path tempFile = Files.createTempFile(directory, "body", ".tmp");
+    Files.write(tempFile, content);
+    Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  private Path getPropertiesFile(String key) {
+    return directory.resolve(getFileName(key) + ".properties");
+  }
+
+  private Path getBodyFile(String key) {
+    return directory.resolve(getFileName(key) + ".body");
+  }
+
+  private static String getFileName(String key) {
+    return DigestUtils.sha256Hex(key);
+  }
+
+  /**
+   * @param url URL with or without timestamp parameter
+   * @return URL without timestamp parameter
+   */
+  static @NotNull String getCacheKey(@NotNull String url) {
+    return StringUtils.substringBefore(url, "?timestamp=");
+  }
+
+  /**
+   * Cached response metadata.
+   */
+  static final class Entry {
+
+    private final String key;
+    private final String etag;
+    private final String lastModified;
+    private final String bodyHash;
+
+    Entry(String key, String etag, String lastModified, String bodyHash) {
+      this.key = key;
+      this.etag = etag;
+      this.lastModified = lastModified;
+      this.bodyHash = bodyHash;
+    }
+
+    @Nullable
+    String getEtag() {
+      return this.etag;
+    }
+
+    @Nullable
+    String getLastModified() {
+      return this.lastModified;
+    }
+
+  }
+
+}
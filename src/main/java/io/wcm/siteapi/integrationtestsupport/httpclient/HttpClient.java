@@ -20,38 +20,101 @@
 package io.wcm.siteapi.integrationtestsupport.httpclient;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.http.HttpClient.Redirect;
 import java.net.http.HttpClient.Version;
 import java.net.http.HttpRequest;
-import java.net.http.HttpResponse.BodyHandlers;
+import java.net.http.HttpTimeoutException;
+import java.net.http.HttpResponse.BodyHandler;
 import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 import org.apache.commons.lang3.StringUtils;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import io.wcm.siteapi.integrationtestsupport.IntegrationTestContextBuilder;
 
 /**
  * Simple HTTP client wrapper to execute HTTP requests during integration tests.
  * Uses <code>java.net.http</code> HTTP client internally.
+ * <p>
+ * If a rate limit is configured, requests to each host are throttled by a token bucket rate limiter.
+ * </p>
+ * <p>
+ * If adaptive concurrency control is enabled, the number of concurrent requests is limited by an AIMD limiter
+ * which grows the limit while response latency is stable, and backs off on rising latency,
+ * HTTP 429/503 responses or request timeouts.
+ * </p>
+ * <p>
+ * Failed requests are retried as defined by the configured {@link RetryPolicy}.
+ * </p>
+ * <p>
+ * If a HTTP cache directory is configured, responses are stored in a local {@link HttpCache} and revalidated
+ * with conditional requests. The timestamp parameter is still appended to bypass CDN and dispatcher caches.
+ * </p>
+ * <p>
+ * If compression is enabled, gzip and deflate content encodings are accepted. Compressed response bodies are
+ * decompressed while they are received.
+ * </p>
+ * <p>
+ * Each request is recorded as Java Flight Recorder event <code>io.wcm.siteapi.HttpRequest</code>
+ * if flight recording is active.
+ * </p>
  */
 public final class HttpClient {
 
   private final java.net.http.HttpClient delegateHttpClient;
   private final Duration requestTimeout;
+  private final Set<Version> negotiatedVersions = ConcurrentHashMap.newKeySet();
+  private final double rateLimit;
+  private final int rateLimitBurst;
+  private final Map<String, TokenBucketRateLimiter> rateLimiters = new ConcurrentHashMap<>();
+  private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+  private final RetryPolicy retryPolicy;
+  private final HttpCache cache;
+  private final boolean compression;
+  private final HttpClientStatistics statistics = new HttpClientStatistics();
+
+  private static final Set<Integer> OVERLOAD_STATUS_CODES = Set.of(429, 503);
+  private static final int HTTP_OK = 200;
+  private static final int HTTP_NOT_MODIFIED = 304;
+
+  private static final Logger log = LoggerFactory.getLogger(HttpClient.class.getSimpleName());
 
   /**
    * @param builder Integration test context builder.
    */
   public HttpClient(IntegrationTestContextBuilder builder) {
     this.delegateHttpClient = java.net.http.HttpClient.newBuilder()
-        // stick with HTTP 1.1 for AEMaaCS CM integration tests
-        .version(Version.HTTP_1_1)
+        // defaults to HTTP 1.1 for AEMaaCS CM integration tests
+        .version(builder.getHttpVersion())
         .followRedirects(Redirect.NORMAL)
         .connectTimeout(builder.getHttpConnectTimeout())
         .build();
     this.requestTimeout = builder.getHttpRequestTimeout();
+    this.rateLimit = builder.getHttpRateLimit();
+    this.rateLimitBurst = builder.getHttpRateLimitBurst();
+    this.retryPolicy = builder.getHttpRetryPolicy();
+    this.cache = builder.getHttpCacheDirectory() != null ? new HttpCache(builder.getHttpCacheDirectory()) : null;
+    this.compression = builder.isHttpCompression();
+    if (builder.getHttpAdaptiveConcurrencyLimit() > 0) {
+      this.concurrencyLimiter = new AdaptiveConcurrencyLimiter(1, builder.getHttpAdaptiveConcurrencyLimit());
+      this.statistics.recordConcurrencyLimit(this.concurrencyLimiter.getLimit());
+    }
+    else {
+      this.concurrencyLimiter = null;
+    }
   }
 
   /**
@@ -59,38 +122,455 @@ public final class HttpClient {
    * @param url URL
    * @return HTTP response.
    */
-  @SuppressWarnings("CQRules:CWE-676")
   public @NotNull HttpResponse<String> get(@NotNull String url) {
+    return get(url, BodyType.STRING);
+  }
+
+  /**
+   * Fetch HTTP content. Fails with exception when request does not return successfully.
+   * @param url URL
+   * @return Body string.
+   */
+  public @NotNull String getBody(@NotNull String url) {
     String urlWithTimestamp = appendTimestamp(url);
-    HttpRequest request = HttpRequest.newBuilder()
-        .uri(URI.create(urlWithTimestamp))
-        .timeout(requestTimeout)
-        .build();
+    HttpResponse<String> response = get(urlWithTimestamp);
+    return getSuccessfulBody(urlWithTimestamp, response);
+  }
+
+  /**
+   * Fetch HTTP content asynchronously. Check status code of response for success.
+   * If the request fails, the returned future completes exceptionally with a {@link HttpRequestFailedException}.
+   * @param url URL
+   * @return Future of HTTP response.
+   */
+  public @NotNull CompletableFuture<HttpResponse<String>> getAsync(@NotNull String url) {
+    return getAsync(url, BodyType.STRING);
+  }
+
+  /**
+   * Fetch HTTP content asynchronously. If the request does not return successfully, the returned future
+   * completes exceptionally with a {@link HttpRequestFailedException}.
+   * @param url URL
+   * @return Future of body string.
+   */
+  public @NotNull CompletableFuture<String> getBodyAsync(@NotNull String url) {
+    String urlWithTimestamp = appendTimestamp(url);
+    return getAsync(urlWithTimestamp)
+        .thenApply(response -> getSuccessfulBody(urlWithTimestamp, response));
+  }
+
+  /**
+   * Fetch HTTP content as bytes without decoding it to a string. Check status code of response for success.
+   * @param url URL
+   * @return HTTP response.
+   */
+  public @NotNull HttpResponse<byte[]> getBytes(@NotNull String url) {
+    return get(url, BodyType.BYTES);
+  }
+
+  /**
+   * Fetch HTTP content as bytes without decoding it to a string.
+   * Fails with exception when request does not return successfully.
+   * @param url URL
+   * @return Body bytes.
+   */
+  public @NotNull byte[] getBodyBytes(@NotNull String url) {
+    String urlWithTimestamp = appendTimestamp(url);
+    HttpResponse<byte[]> response = getBytes(urlWithTimestamp);
+    return getSuccessfulBody(urlWithTimestamp, response);
+  }
+
+  /**
+   * Fetch HTTP content as bytes asynchronously. Check status code of response for success.
+   * If the request fails, the returned future completes exceptionally with a {@link HttpRequestFailedException}.
+   * @param url URL
+   * @return Future of HTTP response.
+   */
+  public @NotNull CompletableFuture<HttpResponse<byte[]>> getBytesAsync(@NotNull String url) {
+    return getAsync(url, BodyType.BYTES);
+  }
+
+  /**
+   * Fetch HTTP content as bytes asynchronously. If the request does not return successfully, the returned future
+   * completes exceptionally with a {@link HttpRequestFailedException}.
+   * @param url URL
+   * @return Future of body bytes.
+   */
+  public @NotNull CompletableFuture<byte[]> getBodyBytesAsync(@NotNull String url) {
+    String urlWithTimestamp = appendTimestamp(url);
+    return getBytesAsync(urlWithTimestamp)
+        .thenApply(response -> getSuccessfulBody(urlWithTimestamp, response));
+  }
+
+  /**
+   * Fetch HTTP content as stream, which allows to process the body while it is received.
+   * Check status code of response for success. The caller has to close the stream.
+   * Streamed responses are not stored in the local HTTP cache.
+   * @param url URL
+   * @return HTTP response.
+   */
+  public @NotNull HttpResponse<InputStream> getStream(@NotNull String url) {
+    return get(url, BodyType.STREAM);
+  }
+
+  @SuppressWarnings("CQRules:CWE-676")
+  private <T> HttpResponse<T> get(String url, BodyType<T> bodyType) {
+    HttpRequestEvent event = new HttpRequestEvent();
+    event.begin();
+    String urlWithTimestamp = appendTimestamp(url);
+    HttpCache.Entry cacheEntry = getCacheEntry(urlWithTimestamp);
+    HttpRequest request = buildRequest(urlWithTimestamp, cacheEntry);
+    HttpResponse<T> response = null;
+    Throwable failure = null;
     try {
-      return new StringHttpResponse(delegateHttpClient.send(request, BodyHandlers.ofString()));
+      response = toResponse(urlWithTimestamp, send(request, bodyType), cacheEntry, bodyType);
+      if (response == null) {
+        // cached body is no longer available - retry once without conditional request headers
+        response = toResponse(urlWithTimestamp, send(buildRequest(urlWithTimestamp, null), bodyType), null, bodyType);
+      }
+      return response;
     }
     catch (IOException ex) {
-      throw new HttpRequestFailedException("Unable to fetch " + urlWithTimestamp + ": " + ex.getMessage(), ex);
+      failure = ex;
+      throw requestFailed(urlWithTimestamp, ex);
     }
     catch (InterruptedException ex) {
+      failure = ex;
       Thread.currentThread().interrupt();
       throw new IllegalStateException(ex);
     }
+    catch (RuntimeException ex) {
+      failure = ex;
+      throw ex;
+    }
+    finally {
+      commitEvent(event, urlWithTimestamp, response, failure, bodyType);
+    }
+  }
+
+  private <T> CompletableFuture<HttpResponse<T>> getAsync(String url, BodyType<T> bodyType) {
+    HttpRequestEvent event = new HttpRequestEvent();
+    event.begin();
+    String urlWithTimestamp = appendTimestamp(url);
+    HttpCache.Entry cacheEntry = getCacheEntry(urlWithTimestamp);
+    HttpRequest request = buildRequest(urlWithTimestamp, cacheEntry);
+    return sendAsync(urlWithTimestamp, request, bodyType)
+        .thenCompose(response -> {
+          HttpResponse<T> result = toResponse(urlWithTimestamp, response, cacheEntry, bodyType);
+          if (result != null) {
+            return CompletableFuture.completedFuture(result);
+          }
+          // cached body is no longer available - retry once without conditional request headers
+          return sendAsync(urlWithTimestamp, buildRequest(urlWithTimestamp, null), bodyType)
+              .thenApply(retryResponse -> toResponse(urlWithTimestamp, retryResponse, null, bodyType));
+        })
+        .whenComplete((response, ex) -> commitEvent(event, urlWithTimestamp, response,
+            ex != null ? unwrapCompletionException(ex) : null, bodyType));
   }
 
   /**
-   * Fetch HTTP content. Fails with exception when request does not return successfully.
-   * @param url URL
-   * @return Body string.
+   * Commits the flight recorder event for a request. The event fields are only filled in if the event is recorded.
    */
-  public @NotNull String getBody(@NotNull String url) {
-    String urlWithTimestamp = appendTimestamp(url);
-    HttpResponse<String> response = get(urlWithTimestamp);
-    if (response.statusCode() == 200) {
+  private static <T> void commitEvent(HttpRequestEvent event, String urlWithTimestamp,
+      @Nullable HttpResponse<T> response, @Nullable Throwable failure, BodyType<T> bodyType) {
+    event.end();
+    if (!event.shouldCommit()) {
+      return;
+    }
+    event.url = urlWithTimestamp;
+    if (response != null) {
+      event.status = response.statusCode();
+      event.bodySize = bodyType.size(response.body());
+    }
+    if (failure != null) {
+      event.error = failure.toString();
+    }
+    event.commit();
+  }
+
+  /**
+   * @return Statistics of the requests executed by this client.
+   */
+  public @NotNull HttpClientStatistics getStatistics() {
+    return this.statistics;
+  }
+
+  private <T> java.net.http.HttpResponse<T> send(HttpRequest request, BodyType<T> bodyType)
+      throws IOException, InterruptedException {
+    int attempt = 1;
+    while (true) {
+      Duration backoff;
+      try {
+        java.net.http.HttpResponse<T> response = sendAttempt(request, getBodyHandler(bodyType));
+        if (attempt >= retryPolicy.getMaxAttempts() || !retryPolicy.isRetryable(response.statusCode())) {
+          return response;
+        }
+        bodyType.discard(response.body());
+        backoff = retryPolicy.getBackoff(attempt, response.headers());
+        logRetry(request, backoff, "HTTP " + response.statusCode());
+      }
+      catch (IOException | RuntimeException ex) {
+        if (attempt >= retryPolicy.getMaxAttempts() || !retryPolicy.isRetryable(ex)) {
+          throw ex;
+        }
+        backoff = retryPolicy.getBackoff(attempt, null);
+        logRetry(request, backoff, ex.toString());
+      }
+      TimeUnit.NANOSECONDS.sleep(backoff.toNanos());
+      attempt++;
+    }
+  }
+
+  private <T> CompletableFuture<java.net.http.HttpResponse<T>> sendAsync(String urlWithTimestamp, HttpRequest request,
+      BodyType<T> bodyType) {
+    return sendAsync(request, bodyType, 1)
+        .handle((response, ex) -> {
+          if (ex != null) {
+            throw requestFailed(urlWithTimestamp, unwrapCompletionException(ex));
+          }
+          return response;
+        });
+  }
+
+  private <T> CompletableFuture<java.net.http.HttpResponse<T>> sendAsync(HttpRequest request, BodyType<T> bodyType,
+      int attempt) {
+    return sendAsyncAttempt(request, getBodyHandler(bodyType))
+        .handle((response, ex) -> {
+          Duration backoff = null;
+          if (attempt < retryPolicy.getMaxAttempts()) {
+            if (ex != null && retryPolicy.isRetryable(unwrapCompletionException(ex))) {
+              backoff = retryPolicy.getBackoff(attempt, null);
+              logRetry(request, backoff, unwrapCompletionException(ex).toString());
+            }
+            else if (response != null && retryPolicy.isRetryable(response.statusCode())) {
+              bodyType.discard(response.body());
+              backoff = retryPolicy.getBackoff(attempt, response.headers());
+              logRetry(request, backoff, "HTTP " + response.statusCode());
+            }
+          }
+          if (backoff == null) {
+            return ex != null ? CompletableFuture.<java.net.http.HttpResponse<T>>failedFuture(ex)
+                : CompletableFuture.completedFuture(response);
+          }
+          return CompletableFuture.runAsync(() -> { /* wait for backoff */ },
+              CompletableFuture.delayedExecutor(backoff.toNanos(), TimeUnit.NANOSECONDS))
+              .thenCompose(v -> sendAsync(request, bodyType, attempt + 1));
+        })
+        .thenCompose(Function.identity());
+  }
+
+  /**
+   * Wraps the body handler of the given body type to decode compressed response bodies.
+   */
+  private <T> BodyHandler<T> getBodyHandler(BodyType<T> bodyType) {
+    return responseInfo -> ContentDecodingBodySubscriber.create(
+        bodyType.getBodyHandler().apply(responseInfo),
+        responseInfo.headers().firstValue("Content-Encoding").orElse(null),
+        statistics);
+  }
+
+  private void logRetry(HttpRequest request, Duration backoff, String reason) {
+    statistics.recordRetry();
+    log.warn("Retry {} in {}ms after {}", request.uri(), backoff.toMillis(), reason);
+  }
+
+  private <T> java.net.http.HttpResponse<T> sendAttempt(HttpRequest request, BodyHandler<T> bodyHandler)
+      throws IOException, InterruptedException {
+    long waitNanos = reserveRateLimit(request);
+    if (waitNanos > 0) {
+      TimeUnit.NANOSECONDS.sleep(waitNanos);
+    }
+    if (concurrencyLimiter == null) {
+      statistics.recordRequest();
+      return delegateHttpClient.send(request, bodyHandler);
+    }
+    acquireConcurrencyPermit();
+    statistics.recordRequest();
+    long startNanos = System.nanoTime();
+    java.net.http.HttpResponse<T> response = null;
+    Throwable failure = null;
+    try {
+      response = delegateHttpClient.send(request, bodyHandler);
+      return response;
+    }
+    catch (IOException | InterruptedException | RuntimeException ex) {
+      failure = ex;
+      throw ex;
+    }
+    finally {
+      releaseConcurrencyPermit(startNanos, response, failure);
+    }
+  }
+
+  private <T> CompletableFuture<java.net.http.HttpResponse<T>> sendAsyncAttempt(HttpRequest request, BodyHandler<T> bodyHandler) {
+    long waitNanos = reserveRateLimit(request);
+    if (waitNanos > 0) {
+      return CompletableFuture.runAsync(() -> { /* wait for rate limiter */ },
+          CompletableFuture.delayedExecutor(waitNanos, TimeUnit.NANOSECONDS))
+          .thenCompose(v -> sendAsyncWithConcurrencyLimit(request, bodyHandler));
+    }
+    return sendAsyncWithConcurrencyLimit(request, bodyHandler);
+  }
+
+  private <T> CompletableFuture<java.net.http.HttpResponse<T>> sendAsyncWithConcurrencyLimit(HttpRequest request,
+      BodyHandler<T> bodyHandler) {
+    if (concurrencyLimiter == null) {
+      statistics.recordRequest();
+      return delegateHttpClient.sendAsync(request, bodyHandler);
+    }
+    return concurrencyLimiter.acquire().thenCompose(v -> {
+      statistics.recordRequest();
+      long startNanos = System.nanoTime();
+      return delegateHttpClient.sendAsync(request, bodyHandler)
+          .whenComplete((response, ex) -> releaseConcurrencyPermit(startNanos, response, ex));
+    });
+  }
+
+  /**
+   * Waits for a permit of the adaptive concurrency limiter.
+   */
+  private void acquireConcurrencyPermit() throws InterruptedException {
+    CompletableFuture<Void> permit = concurrencyLimiter.acquire();
+    try {
+      permit.get();
+    }
+    catch (InterruptedException ex) {
+      if (!permit.cancel(false)) {
+        // permit was granted concurrently
+        concurrencyLimiter.releasePermit();
+      }
+      throw ex;
+    }
+    catch (ExecutionException ex) {
+      throw new IllegalStateException(ex.getCause());
+    }
+  }
+
+  /**
+   * Releases the permit of the adaptive concurrency limiter and adjusts the limit based on the response.
+   */
+  private void releaseConcurrencyPermit(long startNanos, @Nullable java.net.http.HttpResponse<?> response,
+      @Nullable Throwable ex) {
+    boolean overload = (response != null && OVERLOAD_STATUS_CODES.contains(response.statusCode()))
+        || isTimeout(ex);
+    concurrencyLimiter.release(System.nanoTime() - startNanos, overload);
+    statistics.recordConcurrencyLimit(concurrencyLimiter.getLimit());
+  }
+
+  private static Throwable unwrapCompletionException(Throwable ex) {
+    return (ex instanceof CompletionException && ex.getCause() != null) ? ex.getCause() : ex;
+  }
+
+  private static boolean isTimeout(@Nullable Throwable ex) {
+    Throwable cause = ex;
+    while (cause != null) {
+      if (cause instanceof HttpTimeoutException) {
+        return true;
+      }
+      cause = cause.getCause();
+    }
+    return false;
+  }
+
+  /**
+   * @return Current limit of concurrent requests if adaptive concurrency control is enabled, otherwise 0.
+   */
+  public int getConcurrencyLimit() {
+    return concurrencyLimiter != null ? concurrencyLimiter.getLimit() : 0;
+  }
+
+  /**
+   * Reserves a request for the host of the request URI at the rate limiter.
+   * @return Time in nanoseconds to wait before sending the request.
+   */
+  private long reserveRateLimit(HttpRequest request) {
+    if (rateLimit <= 0) {
+      return 0;
+    }
+    TokenBucketRateLimiter rateLimiter = rateLimiters.computeIfAbsent(request.uri().getAuthority(),
+        host -> new TokenBucketRateLimiter(rateLimit, rateLimitBurst));
+    long waitNanos = rateLimiter.reserve();
+    if (waitNanos > 0) {
+      statistics.recordRateLimiterWait(waitNanos);
+    }
+    return waitNanos;
+  }
+
+  private @Nullable HttpCache.Entry getCacheEntry(String urlWithTimestamp) {
+    return cache != null ? cache.get(urlWithTimestamp) : null;
+  }
+
+  private HttpRequest buildRequest(String urlWithTimestamp, @Nullable HttpCache.Entry cacheEntry) {
+    HttpRequest.Builder builder = HttpRequest.newBuilder()
+        .uri(URI.create(urlWithTimestamp))
+        .timeout(requestTimeout);
+    if (compression) {
+      builder.header("Accept-Encoding", ContentDecodingBodySubscriber.ACCEPT_ENCODING);
+    }
+    if (cacheEntry != null) {
+      if (cacheEntry.getEtag() != null) {
+        builder.header("If-None-Match", cacheEntry.getEtag());
+      }
+      if (cacheEntry.getLastModified() != null) {
+        builder.header("If-Modified-Since", cacheEntry.getLastModified());
+      }
+    }
+    return builder.build();
+  }
+
+  /**
+   * @return Response, or null if the server responded with 304 for a cached body that is no longer available.
+   */
+  private <T> @Nullable HttpResponse<T> toResponse(String urlWithTimestamp, java.net.http.HttpResponse<T> response,
+      @Nullable HttpCache.Entry cacheEntry, BodyType<T> bodyType) {
+    if (negotiatedVersions.add(response.version())) {
+      log.info("Negotiated HTTP protocol version: {}", response.version());
+    }
+    if (cache != null) {
+      if (response.statusCode() == HTTP_NOT_MODIFIED && cacheEntry != null) {
+        byte[] cachedBody = cache.getBody(cacheEntry);
+        if (cachedBody != null) {
+          statistics.recordCacheHit();
+          bodyType.discard(response.body());
+          return new DefaultHttpResponse<>(response, HTTP_OK, bodyType.fromBytes(cachedBody), true);
+        }
+        bodyType.discard(response.body());
+        return null;
+      }
+      else if (response.statusCode() == HTTP_OK && bodyType.isCacheable()) {
+        cache.put(urlWithTimestamp,
+            response.headers().firstValue("ETag").orElse(null),
+            response.headers().firstValue("Last-Modified").orElse(null),
+            bodyType.toBytes(response.body()));
+      }
+    }
+    return new DefaultHttpResponse<>(response);
+  }
+
+  /**
+   * @return Local HTTP cache or null if no HTTP cache directory is configured.
+   */
+  public @Nullable HttpCache getCache() {
+    return this.cache;
+  }
+
+  /**
+   * @return HTTP protocol versions negotiated with the server so far.
+   */
+  public @NotNull Set<Version> getNegotiatedVersions() {
+    return Set.copyOf(negotiatedVersions);
+  }
+
+  private static HttpRequestFailedException requestFailed(String urlWithTimestamp, Throwable cause) {
+    return new HttpRequestFailedException("Unable to fetch " + urlWithTimestamp + ": " + cause.getMessage(), cause);
+  }
+
+  private static <T> T getSuccessfulBody(String urlWithTimestamp, HttpResponse<T> response) {
+    if (response.statusCode() == HTTP_OK) {
       return response.body();
     }
     else {
-      throw new HttpRequestFailedException(urlWithTimestamp + " returned HTTP " + response.statusCode());
+      throw new HttpRequestFailedException(urlWithTimestamp + " returned HTTP " + response.statusCode(), response.statusCode());
     }
   }
 
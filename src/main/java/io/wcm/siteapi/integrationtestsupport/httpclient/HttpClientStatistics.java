@@ -0,0 +1,129 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2023 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.siteapi.integrationtestsupport.httpclient;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Statistics of the requests executed by {@link HttpClient}. All counters are updated concurrently
+ * and can be read at any time.
+ */
+public final class HttpClientStatistics {
+
+  private final LongAdder requests = new LongAdder();
+  private final LongAdder retries = new LongAdder();
+  private final LongAdder cacheHits = new LongAdder();
+  private final LongAdder rateLimiterWaits = new LongAdder();
+  private final LongAdder rateLimiterWaitNanos = new LongAdder();
+  private final LongAdder bytesReceived = new LongAdder();
+  private final LongAdder bytesDecoded = new LongAdder();
+  private volatile int concurrencyLimit;
+
+  void recordRequest() {
+    requests.increment();
+  }
+
+  void recordRetry() {
+    retries.increment();
+  }
+
+  void recordCacheHit() {
+    cacheHits.increment();
+  }
+
+  void recordRateLimiterWait(long nanos) {
+    rateLimiterWaits.increment();
+    rateLimiterWaitNanos.add(nanos);
+  }
+
+  void recordBytesReceived(long bytes) {
+    bytesReceived.add(bytes);
+  }
+
+  void recordBytesDecoded(long bytes) {
+    bytesDecoded.add(bytes);
+  }
+
+  void recordConcurrencyLimit(int limit) {
+    this.concurrencyLimit = limit;
+  }
+
+  /**
+   * @return Number of HTTP requests sent.
+   */
+  public long getRequests() {
+    return requests.sum();
+  }
+
+  /**
+   * @return Number of HTTP requests that were retried after a failed attempt.
+   *         Each retry is also counted in {@link #getRequests()}.
+   */
+  public long getRetries() {
+    return retries.sum();
+  }
+
+  /**
+   * @return Number of HTTP requests answered with 304 Not Modified for which the body from the local HTTP cache was used.
+   */
+  public long getCacheHits() {
+    return cacheHits.sum();
+  }
+
+  /**
+   * @return Number of HTTP requests that were delayed by the rate limiter.
+   */
+  public long getRateLimiterWaits() {
+    return rateLimiterWaits.sum();
+  }
+
+  /**
+   * @return Total time requests were delayed by the rate limiter.
+   */
+  public @NotNull Duration getRateLimiterWaitTime() {
+    return Duration.ofNanos(rateLimiterWaitNanos.sum());
+  }
+
+  /**
+   * @return Number of response body bytes received over the network, compressed if the server applied
+   *         a content encoding.
+   */
+  public long getBytesReceived() {
+    return bytesReceived.sum();
+  }
+
+  /**
+   * @return Number of response body bytes after decompression.
+   */
+  public long getBytesDecoded() {
+    return bytesDecoded.sum();
+  }
+
+  /**
+   * @return Current limit of concurrent requests if adaptive concurrency control is enabled, otherwise 0.
+   */
+  public int getConcurrencyLimit() {
+    return this.concurrencyLimit;
+  }
+
+}
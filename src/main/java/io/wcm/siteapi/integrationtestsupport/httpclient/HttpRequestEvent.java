@@ -0,0 +1,53 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2023 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.siteapi.integrationtestsupport.httpclient;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Java Flight Recorder event for a HTTP GET request executed by {@link HttpClient}, including retries.
+ */
+@Name("io.wcm.siteapi.HttpRequest")
+@Label("HTTP Request")
+@Category({ "wcm.io Site API", "Crawler" })
+@Description("HTTP GET request executed by the Site API integration test HTTP client, including retries")
+final class HttpRequestEvent extends Event {
+
+  @Label("URL")
+  String url;
+
+  @Label("Status")
+  @Description("HTTP status code, 0 if the request failed")
+  int status;
+
+  @Label("Body Size")
+  @Description("Size of the decompressed response body, -1 if the body is streamed")
+  @DataAmount
+  long bodySize;
+
+  @Label("Error")
+  String error;
+
+}
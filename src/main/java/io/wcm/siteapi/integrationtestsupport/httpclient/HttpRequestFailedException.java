@@ -25,11 +25,22 @@ package io.wcm.siteapi.integrationtestsupport.httpclient;
 public final class HttpRequestFailedException extends RuntimeException {
   private static final long serialVersionUID = 1L;
 
+  private final int statusCode;
+
   /**
    * @param message Message
    */
   public HttpRequestFailedException(String message) {
+    this(message, 0);
+  }
+
+  /**
+   * @param message Message
+   * @param statusCode HTTP status code of the response
+   */
+  public HttpRequestFailedException(String message, int statusCode) {
     super(message);
+    this.statusCode = statusCode;
   }
 
   /**
@@ -38,6 +49,14 @@ public final class HttpRequestFailedException extends RuntimeException {
    */
   public HttpRequestFailedException(String message, Throwable cause) {
     super(message, cause);
+    this.statusCode = 0;
+  }
+
+  /**
+   * @return HTTP status code of the response, or 0 if no response was received.
+   */
+  public int getStatusCode() {
+    return this.statusCode;
   }
 
 }
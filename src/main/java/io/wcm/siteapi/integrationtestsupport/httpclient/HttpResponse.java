@@ -19,6 +19,8 @@
  */
 package io.wcm.siteapi.integrationtestsupport.httpclient;
 
+import java.net.http.HttpClient.Version;
+
 /**
  * Http client response.
  * @param <T> Response object type
@@ -35,4 +37,20 @@ public interface HttpResponse<T> {
    */
   T body();
 
+  /**
+   * @return HTTP protocol version negotiated with the server. Defaults to HTTP/1.1 for implementations
+   *         that do not provide the protocol version.
+   */
+  default Version version() {
+    return Version.HTTP_1_1;
+  }
+
+  /**
+   * @return true if the server responded with <code>304 Not Modified</code> and the response body was taken
+   *         from the local HTTP cache. The status code of such responses is 200.
+   */
+  default boolean isFromCache() {
+    return false;
+  }
+
 }
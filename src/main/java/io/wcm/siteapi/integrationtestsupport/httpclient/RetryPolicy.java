@@ -0,0 +1,238 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2023 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.siteapi.integrationtestsupport.httpclient;
+
+import java.io.IOException;
+import java.net.http.HttpHeaders;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+import org.apache.commons.lang3.StringUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Defines if and when failed HTTP requests are retried by {@link HttpClient}.
+ * <p>
+ * The backoff between two attempts grows exponentially from the base backoff up to the max backoff.
+ * A random jitter reduces the backoff by up to the given fraction to avoid synchronized retries of
+ * concurrent requests. If the server sends a <code>Retry-After</code> header it takes precedence,
+ * but is also capped by the max backoff.
+ * </p>
+ */
+public final class RetryPolicy {
+
+  private int maxAttempts = 1;
+  private Duration baseBackoff = Duration.ofMillis(500);
+  private Duration maxBackoff = Duration.ofSeconds(30);
+  private double jitter = 0.5;
+  private boolean honorRetryAfter = true;
+  private Set<Integer> retryableStatusCodes = Set.of(429, 502, 503, 504);
+  private List<Class<? extends Throwable>> retryableExceptions = List.of(IOException.class);
+
+  /**
+   * @return Maximum number of attempts per request including the first one.
+   */
+  public int getMaxAttempts() {
+    return this.maxAttempts;
+  }
+
+  /**
+   * @param value Maximum number of attempts per request including the first one. Default is 1 which means no retries.
+   * @return this
+   */
+  public @NotNull RetryPolicy maxAttempts(int value) {
+    if (value < 1) {
+      throw new IllegalArgumentException("Max attempts must be at least 1.");
+    }
+    this.maxAttempts = value;
+    return this;
+  }
+
+  /**
+   * @return Backoff before the first retry.
+   */
+  public @NotNull Duration getBaseBackoff() {
+    return this.baseBackoff;
+  }
+
+  /**
+   * @param value Backoff before the first retry, doubled for each further retry. Default is 500ms.
+   * @return this
+   */
+  public @NotNull RetryPolicy baseBackoff(@NotNull Duration value) {
+    this.baseBackoff = value;
+    return this;
+  }
+
+  /**
+   * @return Maximum backoff between two attempts.
+   */
+  public @NotNull Duration getMaxBackoff() {
+    return this.maxBackoff;
+  }
+
+  /**
+   * @param value Maximum backoff between two attempts. Default is 30s.
+   * @return this
+   */
+  public @NotNull RetryPolicy maxBackoff(@NotNull Duration value) {
+    this.maxBackoff = value;
+    return this;
+  }
+
+  /**
+   * @return Fraction by which the backoff is randomly reduced.
+   */
+  public double getJitter() {
+    return this.jitter;
+  }
+
+  /**
+   * @param value Fraction between 0 and 1 by which the backoff is randomly reduced. Default is 0.5.
+   * @return this
+   */
+  public @NotNull RetryPolicy jitter(double value) {
+    if (value < 0 || value > 1) {
+      throw new IllegalArgumentException("Jitter must be between 0 and 1.");
+    }
+    this.jitter = value;
+    return this;
+  }
+
+  /**
+   * @return Whether to use the backoff sent by the server via <code>Retry-After</code> header.
+   */
+  public boolean isHonorRetryAfter() {
+    return this.honorRetryAfter;
+  }
+
+  /**
+   * @param value Whether to use the backoff sent by the server via <code>Retry-After</code> header. Default is true.
+   * @return this
+   */
+  public @NotNull RetryPolicy honorRetryAfter(boolean value) {
+    this.honorRetryAfter = value;
+    return this;
+  }
+
+  /**
+   * @return HTTP status codes for which a request is retried.
+   */
+  public @NotNull Set<Integer> getRetryableStatusCodes() {
+    return this.retryableStatusCodes;
+  }
+
+  /**
+   * @param value HTTP status codes for which a request is retried. Default is 429, 502, 503, 504.
+   * @return this
+   */
+  public @NotNull RetryPolicy retryableStatusCodes(int... value) {
+    this.retryableStatusCodes = Arrays.stream(value).boxed().collect(Collectors.toUnmodifiableSet());
+    return this;
+  }
+
+  /**
+   * @return Exception types for which a request is retried.
+   */
+  public @NotNull List<Class<? extends Throwable>> getRetryableExceptions() {
+    return this.retryableExceptions;
+  }
+
+  /**
+   * @param value Exception types for which a request is retried (including subclasses).
+   *          Default is {@link IOException}, which includes connect failures, connection resets and timeouts.
+   * @return this
+   */
+  public @NotNull RetryPolicy retryableExceptions(@NotNull List<Class<? extends Throwable>> value) {
+    this.retryableExceptions = List.copyOf(value);
+    return this;
+  }
+
+  boolean isRetryable(int statusCode) {
+    return retryableStatusCodes.contains(statusCode);
+  }
+
+  boolean isRetryable(@NotNull Throwable ex) {
+    return retryableExceptions.stream().anyMatch(type -> type.isInstance(ex));
+  }
+
+  /**
+   * Calculates the backoff before the next attempt.
+   * @param attempt Number of the attempt that failed (starting with 1)
+   * @param headers Response headers of failed attempt or null if the attempt failed with an exception
+   * @return Backoff
+   */
+  @NotNull
+  Duration getBackoff(int attempt, @Nullable HttpHeaders headers) {
+    if (honorRetryAfter && headers != null) {
+      Optional<Duration> retryAfter = headers.firstValue("Retry-After").map(RetryPolicy::parseRetryAfter);
+      if (retryAfter.isPresent()) {
+        return min(retryAfter.get(), maxBackoff);
+      }
+    }
+    long backoffNanos = baseBackoff.toNanos();
+    for (int i = 1; i < attempt && backoffNanos < maxBackoff.toNanos(); i++) {
+      backoffNanos *= 2;
+    }
+    backoffNanos = Math.min(backoffNanos, maxBackoff.toNanos());
+    if (jitter > 0) {
+      backoffNanos -= (long)(backoffNanos * jitter * ThreadLocalRandom.current().nextDouble());
+    }
+    return Duration.ofNanos(backoffNanos);
+  }
+
+  /**
+   * Parses Retry-After header value which is either a number of seconds or a HTTP date.
+   * Numbers of seconds exceeding the long range are treated as the maximum duration.
+   */
+  static @Nullable Duration parseRetryAfter(@NotNull String value) {
+    String trimmedValue = value.trim();
+    if (StringUtils.isNumeric(trimmedValue)) {
+      try {
+        return Duration.ofSeconds(Long.parseLong(trimmedValue));
+      }
+      catch (NumberFormatException ex) {
+        return Duration.ofSeconds(Long.MAX_VALUE);
+      }
+    }
+    try {
+      ZonedDateTime date = ZonedDateTime.parse(trimmedValue, DateTimeFormatter.RFC_1123_DATE_TIME);
+      Duration duration = Duration.between(ZonedDateTime.now(date.getZone()), date);
+      return duration.isNegative() ? Duration.ZERO : duration;
+    }
+    catch (DateTimeParseException ex) {
+      return null;
+    }
+  }
+
+  private static Duration min(Duration duration1, Duration duration2) {
+    return duration1.compareTo(duration2) <= 0 ? duration1 : duration2;
+  }
+
+}
@@ -0,0 +1,57 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2023 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.siteapi.integrationtestsupport.httpclient;
+
+/**
+ * Token bucket rate limiter. Requests may consume tokens in advance, the returned wait time
+ * ensures that the configured rate is not exceeded.
+ */
+final class TokenBucketRateLimiter {
+
+  private static final double NANOS_PER_SECOND = 1_000_000_000d;
+
+  private final double requestsPerSecond;
+  private final int burst;
+  private double tokens;
+  private long lastRefillNanos;
+
+  TokenBucketRateLimiter(double requestsPerSecond, int burst) {
+    this.requestsPerSecond = requestsPerSecond;
+    this.burst = burst;
+    this.tokens = burst;
+    this.lastRefillNanos = System.nanoTime();
+  }
+
+  /**
+   * Reserves a token for a single request.
+   * @return Time in nanoseconds the caller has to wait before sending the request
+   */
+  synchronized long reserve() {
+    long now = System.nanoTime();
+    tokens = Math.min(burst, tokens + (now - lastRefillNanos) * requestsPerSecond / NANOS_PER_SECOND);
+    lastRefillNanos = now;
+    tokens -= 1;
+    if (tokens >= 0) {
+      return 0;
+    }
+    return (long)Math.ceil(-tokens * NANOS_PER_SECOND / requestsPerSecond);
+  }
+
+}
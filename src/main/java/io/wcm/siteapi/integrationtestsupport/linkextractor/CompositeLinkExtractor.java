@@ -0,0 +1,173 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2023 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.siteapi.integrationtestsupport.linkextractor;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.jetbrains.annotations.NotNull;
+
+import com.jayway.jsonpath.Configuration;
+import com.jayway.jsonpath.DocumentContext;
+import com.jayway.jsonpath.JsonPath;
+import com.jayway.jsonpath.ParseContext;
+
+/**
+ * Combines multiple link extractors so that the link extraction for a JSON response requires only
+ * a single pass over the document.
+ * <p>
+ * All applicable {@link StreamingLinkExtractor}s share a single {@link StreamingLinkScanner} pass.
+ * Link extractors without streaming support share a single JSON path document, which is only parsed
+ * if at least one of them applies. The applicable link extractors are looked up once per suffix
+ * and cached afterwards.
+ * </p>
+ * <p>
+ * Instances are thread-safe.
+ * </p>
+ */
+public final class CompositeLinkExtractor {
+
+  private static final ParseContext JSON_PARSER = JsonPath.using(Configuration.defaultConfiguration());
+
+  private final List<LinkExtractor> linkExtractors;
+  private final Map<String, SuffixLinkExtractors> suffixLinkExtractors = new ConcurrentHashMap<>();
+
+  /**
+   * @param linkExtractors Link extractors
+   */
+  public CompositeLinkExtractor(@NotNull List<LinkExtractor> linkExtractors) {
+    this.linkExtractors = List.copyOf(linkExtractors);
+  }
+
+  /**
+   * @param suffix Suffix
+   * @return true if any link extractor accepts the given suffix
+   */
+  public boolean accept(@NotNull String suffix) {
+    return !getSuffixLinkExtractors(suffix).isEmpty();
+  }
+
+  /**
+   * Retrieves links from the JSON document with all link extractors accepting the given suffix.
+   * @param suffix Suffix
+   * @param json JSON content
+   * @return Distinct link URLs
+   */
+  public @NotNull Stream<String> getLinks(@NotNull String suffix, @NotNull String json) {
+    return getSuffixLinkExtractors(suffix).getLinks(json);
+  }
+
+  /**
+   * Retrieves links from the UTF-8 encoded JSON document with all link extractors accepting the given suffix.
+   * The document is not decoded to a string if only streaming link extractors apply.
+   * @param suffix Suffix
+   * @param json JSON content
+   * @return Distinct link URLs
+   */
+  public @NotNull Stream<String> getLinks(@NotNull String suffix, @NotNull byte[] json) {
+    return getLinks(suffix, json, nanos -> { /* not measured */ });
+  }
+
+  /**
+   * Retrieves links from the UTF-8 encoded JSON document with all link extractors accepting the given suffix.
+   * The document is not decoded to a string if only streaming link extractors apply.
+   * @param suffix Suffix
+   * @param json JSON content
+   * @param parseTimeConsumer Receives the time in nanoseconds spent parsing the JSON path document for
+   *          link extractors without streaming support. Is not called if only streaming link extractors apply.
+   * @return Distinct link URLs
+   */
+  public @NotNull Stream<String> getLinks(@NotNull String suffix, @NotNull byte[] json,
+      @NotNull LongConsumer parseTimeConsumer) {
+    return getSuffixLinkExtractors(suffix).getLinks(json, parseTimeConsumer);
+  }
+
+  private SuffixLinkExtractors getSuffixLinkExtractors(String suffix) {
+    return suffixLinkExtractors.computeIfAbsent(suffix, key -> new SuffixLinkExtractors(linkExtractors.stream()
+        .filter(linkExtractor -> linkExtractor.accept(key))
+        .collect(Collectors.toList())));
+  }
+
+
+  private static final class SuffixLinkExtractors {
+
+    private final StreamingLinkScanner streamingLinkScanner;
+    private final List<LinkExtractor> jsonPathLinkExtractors = new ArrayList<>();
+
+    SuffixLinkExtractors(List<LinkExtractor> linkExtractors) {
+      List<StreamingLinkExtractor> streamingLinkExtractors = new ArrayList<>();
+      for (LinkExtractor linkExtractor : linkExtractors) {
+        if (linkExtractor instanceof StreamingLinkExtractor) {
+          streamingLinkExtractors.add((StreamingLinkExtractor)linkExtractor);
+        }
+        else {
+          jsonPathLinkExtractors.add(linkExtractor);
+        }
+      }
+      this.streamingLinkScanner = streamingLinkExtractors.isEmpty() ? null : new StreamingLinkScanner(streamingLinkExtractors);
+    }
+
+    boolean isEmpty() {
+      return streamingLinkScanner == null && jsonPathLinkExtractors.isEmpty();
+    }
+
+    Stream<String> getLinks(String json) {
+      return getLinks(linkConsumer -> streamingLinkScanner.scan(json, linkConsumer),
+          () -> JSON_PARSER.parse(json), nanos -> { /* not measured */ });
+    }
+
+    Stream<String> getLinks(byte[] json, LongConsumer parseTimeConsumer) {
+      return getLinks(linkConsumer -> streamingLinkScanner.scan(json, linkConsumer),
+          () -> JSON_PARSER.parse(new ByteArrayInputStream(json)), parseTimeConsumer);
+    }
+
+    /**
+     * @param streamingScan Scans the document with the streaming link scanner
+     * @param jsonPathParser Parses the document for JSON path link extractors
+     * @param parseTimeConsumer Receives the time spent in the JSON path parser
+     */
+    private Stream<String> getLinks(Consumer<Consumer<String>> streamingScan, Supplier<DocumentContext> jsonPathParser,
+        LongConsumer parseTimeConsumer) {
+      List<String> links = new ArrayList<>();
+      if (streamingLinkScanner != null) {
+        streamingScan.accept(links::add);
+      }
+      if (!jsonPathLinkExtractors.isEmpty()) {
+        long parseStart = System.nanoTime();
+        DocumentContext jsonPathContext = jsonPathParser.get();
+        parseTimeConsumer.accept(System.nanoTime() - parseStart);
+        jsonPathLinkExtractors.stream()
+            .flatMap(linkExtractor -> linkExtractor.getLinks(jsonPathContext))
+            .forEach(links::add);
+      }
+      return links.stream().distinct();
+    }
+
+  }
+
+}
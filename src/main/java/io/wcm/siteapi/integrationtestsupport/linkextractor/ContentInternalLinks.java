@@ -25,8 +25,11 @@ import static com.jayway.jsonpath.Filter.filter;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
+import org.jetbrains.annotations.NotNull;
+
 import com.jayway.jsonpath.DocumentContext;
 import com.jayway.jsonpath.JsonPath;
 
@@ -38,9 +41,10 @@ import com.jayway.jsonpath.JsonPath;
  * and a "type=internal" property.
  * </p>
  */
-public final class ContentInternalLinks implements LinkExtractor {
+public final class ContentInternalLinks implements StreamingLinkExtractor {
 
   private static final Set<String> SUFFIXES = Set.of("content", "navigation", "config");
+  private static final Set<String> PROPERTY_NAMES = Set.of("url", "type");
   private static final JsonPath JSON_PATH = JsonPath.compile("$..[?]",
       filter(where("url").exists(true).and("type").is("internal")));
 
@@ -57,4 +61,17 @@ public final class ContentInternalLinks implements LinkExtractor {
         .map(item -> item.get("url"));
   }
 
+  @Override
+  public @NotNull Set<String> getPropertyNames() {
+    return PROPERTY_NAMES;
+  }
+
+  @Override
+  public void extractLinks(@NotNull JsonObjectProperties object, @NotNull Consumer<String> linkConsumer) {
+    String url = object.get("url");
+    if (url != null && "internal".equals(object.get("type"))) {
+      linkConsumer.accept(url);
+    }
+  }
+
 }
@@ -0,0 +1,273 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2023 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.siteapi.integrationtestsupport.linkextractor;
+
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import org.jetbrains.annotations.NotNull;
+import org.jsoup.parser.Parser;
+
+/**
+ * Lightweight HTML tokenizer that reports the href attribute of all anchor tags with a
+ * "data-type=internal" attribute, without building a DOM.
+ * <p>
+ * Follows the tokenization rules of the HTML specification that are relevant for finding start tags:
+ * comments, end tags and the content of raw text elements like script or textarea are skipped.
+ * Like Jsoup, the content of noscript elements is only treated as raw text while the fragment is still in head
+ * context, i.e. if only whitespace, comments and head elements precede them.
+ * Attribute values are only copied and decoded for href and data-type attributes of anchor tags.
+ * </p>
+ */
+final class HtmlAnchorScanner {
+
+  private static final Set<String> RAW_TEXT_ELEMENTS = Set.of(
+      "script", "style", "textarea", "title", "xmp", "iframe", "noembed", "noframes");
+  private static final String NOSCRIPT_ELEMENT = "noscript";
+  private static final Set<String> HEAD_ELEMENTS = Set.of(
+      "html", "head", "base", "basefont", "bgsound", "link", "meta", "title", "noframes", "style", "script",
+      NOSCRIPT_ELEMENT, "template");
+  private static final String PLAINTEXT_ELEMENT = "plaintext";
+
+  private HtmlAnchorScanner() {
+    // static methods only
+  }
+
+  /**
+   * Scans the HTML fragment for internal links.
+   * @param html HTML fragment
+   * @param hrefConsumer Accepts the href attribute value of each internal link (empty string if missing)
+   */
+  static void scan(@NotNull String html, @NotNull Consumer<String> hrefConsumer) {
+    int length = html.length();
+    int pos = 0;
+    // head context ends with the first text or start tag of a non-head element
+    boolean inHead = true;
+    while (pos < length) {
+      int tagStart = html.indexOf('<', pos);
+      if (inHead && !isWhitespace(html, pos, tagStart < 0 ? length : tagStart)) {
+        inHead = false;
+      }
+      if (tagStart < 0 || tagStart + 1 >= length) {
+        return;
+      }
+      pos = tagStart + 1;
+      char c = html.charAt(pos);
+      if (c == '!') {
+        pos = skipMarkupDeclaration(html, pos + 1);
+      }
+      else if (c == '?' || c == '/') {
+        // processing instruction (bogus comment) or end tag
+        pos = skipTo(html, pos + 1, ">");
+      }
+      else if (isAsciiLetter(c)) {
+        int nameEnd = getTagNameEnd(html, pos);
+        if (inHead && !HEAD_ELEMENTS.contains(html.substring(pos, nameEnd).toLowerCase(Locale.ROOT))) {
+          inHead = false;
+        }
+        pos = scanStartTag(html, pos, nameEnd, inHead, hrefConsumer);
+      }
+      else {
+        // '<' is plain text
+        inHead = false;
+      }
+    }
+  }
+
+  private static int getTagNameEnd(String html, int start) {
+    int pos = start;
+    while (pos < html.length() && !isTagNameEnd(html.charAt(pos))) {
+      pos++;
+    }
+    return pos;
+  }
+
+  private static int scanStartTag(String html, int start, int nameEnd, boolean inHead, Consumer<String> hrefConsumer) {
+    int length = html.length();
+    int pos = nameEnd;
+    int nameLength = nameEnd - start;
+    boolean anchor = nameLength == 1 && (html.charAt(start) == 'a' || html.charAt(start) == 'A');
+
+    String href = null;
+    String dataType = null;
+    boolean closed = false;
+    while (pos < length) {
+      char c = html.charAt(pos);
+      if (c == '>') {
+        closed = true;
+        pos++;
+        break;
+      }
+      if (isWhitespace(c) || c == '/') {
+        pos++;
+        continue;
+      }
+
+      // attribute name - a leading '=' is part of the name
+      int attrNameStart = pos++;
+      while (pos < length && !isAttributeNameEnd(html.charAt(pos))) {
+        pos++;
+      }
+      int attrNameEnd = pos;
+      pos = skipWhitespace(html, pos);
+
+      // attribute value
+      int valueStart = -1;
+      int valueEnd = -1;
+      if (pos < length && html.charAt(pos) == '=') {
+        pos = skipWhitespace(html, pos + 1);
+        if (pos < length && (html.charAt(pos) == '"' || html.charAt(pos) == '\'')) {
+          char quote = html.charAt(pos);
+          valueStart = pos + 1;
+          valueEnd = html.indexOf(quote, valueStart);
+          if (valueEnd < 0) {
+            valueEnd = length;
+            pos = length;
+          }
+          else {
+            pos = valueEnd + 1;
+          }
+        }
+        else {
+          valueStart = pos;
+          while (pos < length && !isWhitespace(html.charAt(pos)) && html.charAt(pos) != '>') {
+            pos++;
+          }
+          valueEnd = pos;
+        }
+      }
+
+      // keep first occurrence of href and data-type attributes of anchor tags
+      if (anchor) {
+        if (href == null && isAttribute(html, attrNameStart, attrNameEnd, "href")) {
+          href = getAttributeValue(html, valueStart, valueEnd);
+        }
+        else if (dataType == null && isAttribute(html, attrNameStart, attrNameEnd, "data-type")) {
+          dataType = getAttributeValue(html, valueStart, valueEnd);
+        }
+      }
+    }
+
+    // tags not closed until end of input are dropped
+    if (!closed) {
+      return length;
+    }
+    if (anchor && dataType != null && "internal".equalsIgnoreCase(dataType.trim())) {
+      hrefConsumer.accept(href != null ? href : "");
+    }
+    if (nameLength > 1) {
+      String tagName = html.substring(start, start + nameLength).toLowerCase(Locale.ROOT);
+      if (RAW_TEXT_ELEMENTS.contains(tagName) || (inHead && NOSCRIPT_ELEMENT.equals(tagName))) {
+        return skipRawText(html, pos, tagName);
+      }
+      if (PLAINTEXT_ELEMENT.equals(tagName)) {
+        return length;
+      }
+    }
+    return pos;
+  }
+
+  private static int skipMarkupDeclaration(String html, int pos) {
+    if (html.startsWith("--", pos)) {
+      // comment
+      int end = html.indexOf("-->", pos + 2);
+      return end < 0 ? html.length() : end + 3;
+    }
+    // doctype, CDATA (bogus comment in HTML content) etc.
+    return skipTo(html, pos, ">");
+  }
+
+  /**
+   * Skips content of raw text elements until the matching end tag.
+   */
+  private static int skipRawText(String html, int pos, String tagName) {
+    int length = html.length();
+    int current = pos;
+    while (current < length) {
+      int end = html.indexOf("</", current);
+      if (end < 0) {
+        return length;
+      }
+      int nameEnd = end + 2 + tagName.length();
+      if (html.regionMatches(true, end + 2, tagName, 0, tagName.length())
+          && (nameEnd >= length || isTagNameEnd(html.charAt(nameEnd)))) {
+        return end;
+      }
+      current = end + 2;
+    }
+    return length;
+  }
+
+  private static int skipTo(String html, int pos, String str) {
+    int end = html.indexOf(str, pos);
+    return end < 0 ? html.length() : end + str.length();
+  }
+
+  private static boolean isWhitespace(String html, int start, int end) {
+    for (int i = start; i < end; i++) {
+      if (!isWhitespace(html.charAt(i))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static int skipWhitespace(String html, int pos) {
+    int current = pos;
+    while (current < html.length() && isWhitespace(html.charAt(current))) {
+      current++;
+    }
+    return current;
+  }
+
+  private static boolean isAttribute(String html, int nameStart, int nameEnd, String name) {
+    return nameEnd - nameStart == name.length()
+        && html.regionMatches(true, nameStart, name, 0, name.length());
+  }
+
+  private static String getAttributeValue(String html, int valueStart, int valueEnd) {
+    if (valueStart < 0) {
+      return "";
+    }
+    String value = html.substring(valueStart, valueEnd);
+    if (value.indexOf('&') >= 0) {
+      value = Parser.unescapeEntities(value, true);
+    }
+    return value;
+  }
+
+  private static boolean isAsciiLetter(char c) {
+    return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+  }
+
+  private static boolean isWhitespace(char c) {
+    return c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f';
+  }
+
+  private static boolean isTagNameEnd(char c) {
+    return isWhitespace(c) || c == '/' || c == '>';
+  }
+
+  private static boolean isAttributeNameEnd(char c) {
+    return isWhitespace(c) || c == '/' || c == '>' || c == '=';
+  }
+
+}
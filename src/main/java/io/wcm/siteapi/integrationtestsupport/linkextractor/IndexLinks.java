@@ -21,8 +21,11 @@ package io.wcm.siteapi.integrationtestsupport.linkextractor;
 
 import java.util.List;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
+import org.jetbrains.annotations.NotNull;
+
 import com.jayway.jsonpath.DocumentContext;
 import com.jayway.jsonpath.JsonPath;
 
@@ -31,9 +34,10 @@ import com.jayway.jsonpath.JsonPath;
  * "https://github.com/wcm-io/io.wcm.site-api.processor/blob/develop/src/main/java/io/wcm/siteapi/processor/impl/index/IndexProcessor.java">Site
  * API Index Processor</a>.
  */
-public final class IndexLinks implements LinkExtractor {
+public final class IndexLinks implements StreamingLinkExtractor {
 
   private static final Set<String> SUFFIXES = Set.of("index");
+  private static final Set<String> PROPERTY_NAMES = Set.of("url");
   private static final JsonPath JSON_PATH = JsonPath.compile("$.[*].url");
 
   @Override
@@ -47,4 +51,18 @@ public final class IndexLinks implements LinkExtractor {
     return urls.stream();
   }
 
+  @Override
+  public @NotNull Set<String> getPropertyNames() {
+    return PROPERTY_NAMES;
+  }
+
+  @Override
+  public void extractLinks(@NotNull JsonObjectProperties object, @NotNull Consumer<String> linkConsumer) {
+    // only objects that are direct children of the root element, as with JSON path $.[*].url
+    String url = object.get("url");
+    if (url != null && object.depth() == 1) {
+      linkConsumer.accept(url);
+    }
+  }
+
 }
@@ -0,0 +1,44 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2023 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.siteapi.integrationtestsupport.linkextractor;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * String properties of a single JSON object, as collected by {@link StreamingLinkScanner}.
+ * Only the properties declared by {@link StreamingLinkExtractor#getPropertyNames()} are available.
+ */
+public interface JsonObjectProperties {
+
+  /**
+   * @param name Property name
+   * @return String value of the property, or null if it does not exist or is not a string
+   */
+  @Nullable
+  String get(@NotNull String name);
+
+  /**
+   * @return Nesting depth of the JSON object. An object at the root of the document has depth 0,
+   *         objects that are direct children of the root array or object have depth 1.
+   */
+  int depth();
+
+}
@@ -22,12 +22,15 @@ package io.wcm.siteapi.integrationtestsupport.linkextractor;
 import static com.jayway.jsonpath.Criteria.where;
 import static com.jayway.jsonpath.Filter.filter;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
+import org.jetbrains.annotations.NotNull;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 
@@ -42,11 +45,31 @@ import com.jayway.jsonpath.JsonPath;
  * default representation of internal links generated by <a href="https://wcm.io/handler/link/">wcm.io Link Handler</a>.
  * </p>
  */
-public final class RichTextInternalLinks implements LinkExtractor {
+public final class RichTextInternalLinks implements StreamingLinkExtractor {
 
   private static final Set<String> SUFFIXES = Set.of("content");
+  private static final Set<String> PROPERTY_NAMES = Set.of(":type", "text");
+  private final HtmlParser htmlParser;
+  private final Set<String> resourceTypes;
   private final JsonPath jsonPath;
 
+  /**
+   * Parser used to find internal links in the rich text HTML fragments.
+   */
+  public enum HtmlParser {
+
+    /**
+     * Lightweight tokenizer that only reports matching anchor tags without building a DOM (default).
+     */
+    ANCHOR_SCANNER,
+
+    /**
+     * Parse full Jsoup DOM and select matching anchor tags.
+     */
+    JSOUP
+
+  }
+
   /**
    * @param resourceTypes Resource type(s) for components containing rich text.
    */
@@ -58,6 +81,16 @@ public final class RichTextInternalLinks implements LinkExtractor {
    * @param resourceTypes Resource type(s) for components containing rich text.
    */
   public RichTextInternalLinks(List<String> resourceTypes) {
+    this(HtmlParser.ANCHOR_SCANNER, resourceTypes);
+  }
+
+  /**
+   * @param htmlParser Parser used to find internal links in the rich text HTML fragments.
+   * @param resourceTypes Resource type(s) for components containing rich text.
+   */
+  public RichTextInternalLinks(HtmlParser htmlParser, List<String> resourceTypes) {
+    this.htmlParser = htmlParser;
+    this.resourceTypes = Set.copyOf(resourceTypes);
     jsonPath = JsonPath.compile("$..[?]",
         filter(where(":type").in(resourceTypes).and("text").exists(true)));
   }
@@ -71,15 +104,36 @@ public final class RichTextInternalLinks implements LinkExtractor {
   public Stream<String> getLinks(DocumentContext jsonPathContext) {
     // find all rich text components and parse rich text from "text" property
     final List<Map<String, String>> richTextComponents = jsonPathContext.read(jsonPath);
-    return richTextComponents.stream()
+    List<String> links = new ArrayList<>();
+    richTextComponents.stream()
         .map(entry -> entry.get("text"))
-        .flatMap(this::extractLinksFromHtmlFragment);
+        .forEach(html -> extractLinksFromHtmlFragment(html, links::add));
+    return links.stream();
+  }
+
+  @Override
+  public @NotNull Set<String> getPropertyNames() {
+    return PROPERTY_NAMES;
+  }
+
+  @Override
+  public void extractLinks(@NotNull JsonObjectProperties object, @NotNull Consumer<String> linkConsumer) {
+    String text = object.get("text");
+    if (text != null && resourceTypes.contains(object.get(":type"))) {
+      extractLinksFromHtmlFragment(text, linkConsumer);
+    }
   }
 
-  private Stream<String> extractLinksFromHtmlFragment(String html) {
-    final Document document = Jsoup.parse(html);
-    return document.select("a[data-type='internal']").stream()
-        .map(a -> a.attr("href"));
+  private void extractLinksFromHtmlFragment(String html, Consumer<String> linkConsumer) {
+    if (htmlParser == HtmlParser.JSOUP) {
+      final Document document = Jsoup.parse(html);
+      document.select("a[data-type='internal']").stream()
+          .map(a -> a.attr("href"))
+          .forEach(linkConsumer);
+    }
+    else {
+      HtmlAnchorScanner.scan(html, linkConsumer);
+    }
   }
 
 }
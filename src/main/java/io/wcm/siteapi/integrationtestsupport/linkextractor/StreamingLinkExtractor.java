@@ -0,0 +1,48 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2023 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.siteapi.integrationtestsupport.linkextractor;
+
+import java.util.Set;
+import java.util.function.Consumer;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Link extractor that supports extracting links in a single forward pass over the JSON tokens
+ * via {@link StreamingLinkScanner}, without parsing the whole JSON document into memory.
+ */
+public interface StreamingLinkExtractor extends LinkExtractor {
+
+  /**
+   * @return Names of the string properties the link extractor needs to inspect JSON objects.
+   */
+  @NotNull
+  Set<String> getPropertyNames();
+
+  /**
+   * Is called for each JSON object in the document that has at least one of the properties
+   * returned by {@link #getPropertyNames()}. Objects are reported when they end, so nested objects
+   * are reported before their parent.
+   * @param object Properties of the JSON object
+   * @param linkConsumer Accepts the link URLs found in the object
+   */
+  void extractLinks(@NotNull JsonObjectProperties object, @NotNull Consumer<String> linkConsumer);
+
+}
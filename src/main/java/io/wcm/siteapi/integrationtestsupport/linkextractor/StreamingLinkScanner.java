@@ -0,0 +1,240 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2023 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.siteapi.integrationtestsupport.linkextractor;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * Extracts links from JSON content in a single forward pass over the JSON tokens.
+ * <p>
+ * Only the string properties declared by the {@link StreamingLinkExtractor}s are kept for the JSON objects
+ * currently open, so the memory required is bounded by the nesting depth of the document and not by its size.
+ * If multiple link extractors are given, all of them are served by the same pass.
+ * </p>
+ * <p>
+ * Instances are thread-safe and can be reused.
+ * </p>
+ */
+public final class StreamingLinkScanner {
+
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+  private final List<StreamingLinkExtractor> linkExtractors;
+  private final int[][] linkExtractorPropertyIndexes;
+  private final Map<String, Integer> propertyIndex = new HashMap<>();
+
+  /**
+   * @param linkExtractor Link extractor
+   */
+  public StreamingLinkScanner(@NotNull StreamingLinkExtractor linkExtractor) {
+    this(List.of(linkExtractor));
+  }
+
+  /**
+   * @param linkExtractors Link extractors
+   */
+  public StreamingLinkScanner(@NotNull Collection<StreamingLinkExtractor> linkExtractors) {
+    this.linkExtractors = List.copyOf(linkExtractors);
+    this.linkExtractorPropertyIndexes = new int[this.linkExtractors.size()][];
+    for (int i = 0; i < this.linkExtractors.size(); i++) {
+      Set<String> propertyNames = this.linkExtractors.get(i).getPropertyNames();
+      int[] indexes = new int[propertyNames.size()];
+      int j = 0;
+      for (String propertyName : propertyNames) {
+        Integer index = propertyIndex.get(propertyName);
+        if (index == null) {
+          index = propertyIndex.size();
+          propertyIndex.put(propertyName, index);
+        }
+        indexes[j++] = index;
+      }
+      linkExtractorPropertyIndexes[i] = indexes;
+    }
+  }
+
+  /**
+   * Extracts links from JSON content.
+   * @param json JSON content
+   * @return Link URLs
+   */
+  public @NotNull Stream<String> getLinks(@NotNull String json) {
+    List<String> links = new ArrayList<>();
+    scan(json, links::add);
+    return links.stream();
+  }
+
+  /**
+   * Extracts links from JSON content.
+   * @param json JSON content
+   * @param linkConsumer Accepts the link URLs found in the content
+   */
+  public void scan(@NotNull String json, @NotNull Consumer<String> linkConsumer) {
+    try (JsonParser parser = JSON_FACTORY.createParser(json)) {
+      scan(parser, linkConsumer);
+    }
+    catch (IOException ex) {
+      throw new IllegalArgumentException("Invalid JSON: " + ex.getMessage(), ex);
+    }
+  }
+
+  /**
+   * Extracts links from UTF-8 encoded JSON content without decoding it to a string first.
+   * @param json JSON content
+   * @param linkConsumer Accepts the link URLs found in the content
+   */
+  public void scan(@NotNull byte[] json, @NotNull Consumer<String> linkConsumer) {
+    try (JsonParser parser = JSON_FACTORY.createParser(json)) {
+      scan(parser, linkConsumer);
+    }
+    catch (IOException ex) {
+      throw new IllegalArgumentException("Invalid JSON: " + ex.getMessage(), ex);
+    }
+  }
+
+  private void scan(@NotNull JsonParser parser, @NotNull Consumer<String> linkConsumer) throws IOException {
+    // reuse one frame per nesting depth for all objects on that depth
+    List<ObjectFrame> frames = new ArrayList<>();
+    ObjectFrame currentFrame = null;
+    int depth = 0;
+    JsonToken token;
+    while ((token = parser.nextToken()) != null) {
+      switch (token) {
+        case START_OBJECT:
+          while (frames.size() <= depth) {
+            frames.add(new ObjectFrame(propertyIndex, frames.size()));
+          }
+          currentFrame = frames.get(depth);
+          currentFrame.reset();
+          depth++;
+          break;
+        case START_ARRAY:
+          depth++;
+          break;
+        case END_OBJECT:
+          depth--;
+          ObjectFrame frame = frames.get(depth);
+          if (frame.hasProperties()) {
+            extractLinks(frame, linkConsumer);
+          }
+          currentFrame = getEnclosingObjectFrame(parser, frames, depth);
+          break;
+        case END_ARRAY:
+          depth--;
+          currentFrame = getEnclosingObjectFrame(parser, frames, depth);
+          break;
+        case VALUE_STRING:
+          if (currentFrame != null && parser.getParsingContext().inObject()) {
+            Integer index = propertyIndex.get(parser.currentName());
+            if (index != null) {
+              currentFrame.set(index, parser.getText());
+            }
+          }
+          break;
+        default:
+          // field names and other scalar values are not relevant
+          break;
+      }
+    }
+  }
+
+  private void extractLinks(@NotNull ObjectFrame frame, @NotNull Consumer<String> linkConsumer) {
+    for (int i = 0; i < linkExtractors.size(); i++) {
+      if (frame.hasAnyProperty(linkExtractorPropertyIndexes[i])) {
+        linkExtractors.get(i).extractLinks(frame, linkConsumer);
+      }
+    }
+  }
+
+  private static @Nullable ObjectFrame getEnclosingObjectFrame(JsonParser parser, List<ObjectFrame> frames, int depth) {
+    if (depth > 0 && parser.getParsingContext().inObject()) {
+      return frames.get(depth - 1);
+    }
+    return null;
+  }
+
+
+  private static final class ObjectFrame implements JsonObjectProperties {
+
+    private final Map<String, Integer> propertyIndex;
+    private final String[] values;
+    private final int depth;
+    private boolean hasProperties;
+
+    ObjectFrame(Map<String, Integer> propertyIndex, int depth) {
+      this.propertyIndex = propertyIndex;
+      this.values = new String[propertyIndex.size()];
+      this.depth = depth;
+    }
+
+    void reset() {
+      if (hasProperties) {
+        Arrays.fill(values, null);
+        hasProperties = false;
+      }
+    }
+
+    void set(int index, String value) {
+      values[index] = value;
+      hasProperties = true;
+    }
+
+    boolean hasProperties() {
+      return hasProperties;
+    }
+
+    boolean hasAnyProperty(int[] indexes) {
+      for (int index : indexes) {
+        if (values[index] != null) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    @Override
+    public @Nullable String get(@NotNull String name) {
+      Integer index = propertyIndex.get(name);
+      return index != null ? values[index] : null;
+    }
+
+    @Override
+    public int depth() {
+      return depth;
+    }
+
+  }
+
+}
@@ -0,0 +1,380 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2023 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.siteapi.integrationtestsupport.syntheticsite;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.lang3.StringUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/**
+ * Page tree and JSON responses of a synthetic site.
+ * <p>
+ * Pages are numbered in breadth-first order: page 0 is the root page, the children of page <code>i</code>
+ * are the pages <code>i * fanOut + 1</code> to <code>i * fanOut + fanOut</code>. The path of each page
+ * is derived from its number, so no page data needs to be kept in memory.
+ * </p>
+ */
+final class SyntheticSite {
+
+  static final String SUFFIX_INDEX = "index";
+  static final String SUFFIX_NAVIGATION = "navigation";
+  static final String SUFFIX_CONTENT = "content";
+  static final String SUFFIX_CONFIG = "config";
+
+  static final String RESOURCE_TYPE_PAGE = "siteapi-test/core/components/global/page";
+  static final String RESOURCE_TYPE_CONTAINER = "siteapi-test/core/components/container/container";
+  static final String RESOURCE_TYPE_TITLE = "siteapi-test/core/components/content/title";
+  static final String RESOURCE_TYPE_TEXT = "siteapi-test/core/components/content/text";
+  static final String RESOURCE_TYPE_TEASER = "siteapi-test/core/components/content/teaser";
+
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+  private static final String PAGE_NAME_PREFIX = "page-";
+  private static final String FILLER_TEXT = "<p>Lorem ipsum dolor sit amet, consectetur adipiscing elit, "
+      + "sed do eiusmod tempor incididunt ut labore et dolore magna aliqua.</p>";
+
+  private final String publishUrl;
+  private final String rootPath;
+  private final String selectors;
+  private final int pageCount;
+  private final int fanOut;
+  private final int navigationDepth;
+  private final int richTextLinks;
+  private final int payloadSize;
+  private final long seed;
+
+  SyntheticSite(SyntheticSiteApiServer config, String publishUrl) {
+    this.publishUrl = publishUrl;
+    this.rootPath = config.getRootPath();
+    this.selectors = "." + config.getSelector()
+        + (StringUtils.isEmpty(config.getApiVersion()) ? "" : "." + config.getApiVersion())
+        + "." + config.getExtension();
+    this.fanOut = config.getFanOut();
+    this.pageCount = calculatePageCount(config.getPages(), config.getFanOut(), config.getMaxDepth());
+    this.navigationDepth = config.getNavigationDepth();
+    this.richTextLinks = config.getRichTextLinks();
+    this.payloadSize = config.getPayloadSize();
+    this.seed = config.getSeed();
+  }
+
+  /**
+   * @return Number of pages, limited by the configured number of pages and the maximum depth.
+   */
+  static int calculatePageCount(int pages, int fanOut, int maxDepth) {
+    long count = 0;
+    long levelSize = 1;
+    for (int depth = 0; depth <= maxDepth && count < pages; depth++) {
+      count += levelSize;
+      levelSize *= fanOut;
+    }
+    return (int)Math.min(count, pages);
+  }
+
+  @NotNull
+  String getPublishUrl() {
+    return this.publishUrl;
+  }
+
+  int getPageCount() {
+    return this.pageCount;
+  }
+
+  @NotNull
+  String getPagePath(int page) {
+    StringBuilder path = new StringBuilder();
+    int current = page;
+    while (current > 0) {
+      int sibling = (current - 1) % fanOut + 1;
+      path.insert(0, "/" + PAGE_NAME_PREFIX + sibling);
+      current = (current - 1) / fanOut;
+    }
+    return rootPath + path;
+  }
+
+  /**
+   * @param path Page path
+   * @return Page number or -1 if the page does not exist.
+   */
+  int getPage(@NotNull String path) {
+    if (!path.startsWith(rootPath)) {
+      return -1;
+    }
+    String relativePath = path.substring(rootPath.length());
+    long page = 0;
+    if (!relativePath.isEmpty()) {
+      if (!relativePath.startsWith("/")) {
+        return -1;
+      }
+      for (String name : StringUtils.split(relativePath, '/')) {
+        int sibling = parseSibling(name);
+        if (sibling < 1) {
+          return -1;
+        }
+        page = page * fanOut + sibling;
+        if (page >= pageCount) {
+          return -1;
+        }
+      }
+    }
+    return (int)page;
+  }
+
+  private int parseSibling(String name) {
+    if (!name.startsWith(PAGE_NAME_PREFIX)) {
+      return -1;
+    }
+    try {
+      int sibling = Integer.parseInt(name.substring(PAGE_NAME_PREFIX.length()));
+      return sibling <= fanOut ? sibling : -1;
+    }
+    catch (NumberFormatException ex) {
+      return -1;
+    }
+  }
+
+  @NotNull
+  List<Integer> getChildren(int page) {
+    List<Integer> children = new ArrayList<>();
+    for (long child = (long)page * fanOut + 1; child <= (long)page * fanOut + fanOut && child < pageCount; child++) {
+      children.add((int)child);
+    }
+    return children;
+  }
+
+  @NotNull
+  String getUrl(int page, @NotNull String suffix) {
+    return publishUrl + getPagePath(page) + selectors + "/" + suffix + ".json";
+  }
+
+  /**
+   * Parses a Site API URL path into page number and suffix.
+   * @param path URL path
+   * @return Page number and suffix, or null if no such page exists
+   */
+  @Nullable
+  Request parseRequest(@NotNull String path) {
+    int suffixStart = path.lastIndexOf('/');
+    if (suffixStart < 0 || !path.endsWith(".json")) {
+      return null;
+    }
+    String suffix = path.substring(suffixStart + 1, path.length() - ".json".length());
+    String pagePathWithSelectors = path.substring(0, suffixStart);
+    if (!pagePathWithSelectors.endsWith(selectors)) {
+      return null;
+    }
+    int page = getPage(pagePathWithSelectors.substring(0, pagePathWithSelectors.length() - selectors.length()));
+    if (page < 0) {
+      return null;
+    }
+    return new Request(page, suffix);
+  }
+
+  /**
+   * Generates the JSON response.
+   * @param request Request
+   * @return JSON response or null if the suffix is not supported
+   */
+  @Nullable
+  byte[] getJson(@NotNull Request request) {
+    ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    try (JsonGenerator generator = JSON_FACTORY.createGenerator(bos, JsonEncoding.UTF8)) {
+      switch (request.suffix) {
+        case SUFFIX_INDEX:
+          writeIndex(generator, request.page);
+          break;
+        case SUFFIX_NAVIGATION:
+          writeNavigationItem(generator, request.page, navigationDepth);
+          break;
+        case SUFFIX_CONTENT:
+          writeContent(generator, request.page, bos);
+          break;
+        case SUFFIX_CONFIG:
+          writeConfig(generator, request.page);
+          break;
+        default:
+          return null;
+      }
+    }
+    catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+    return bos.toByteArray();
+  }
+
+  private void writeIndex(JsonGenerator generator, int page) throws IOException {
+    generator.writeStartArray();
+    for (String suffix : List.of(SUFFIX_NAVIGATION, SUFFIX_CONTENT, SUFFIX_CONFIG)) {
+      generator.writeStartObject();
+      generator.writeStringField("suffix", suffix);
+      generator.writeStringField("url", getUrl(page, suffix));
+      generator.writeEndObject();
+    }
+    generator.writeEndArray();
+  }
+
+  private void writeNavigationItem(JsonGenerator generator, int page, int depth) throws IOException {
+    generator.writeStartObject();
+    generator.writeStringField("title", getTitle(page));
+    generator.writeFieldName("link");
+    writeLink(generator, page);
+    List<Integer> children = getChildren(page);
+    if (depth > 0 && !children.isEmpty()) {
+      generator.writeArrayFieldStart("children");
+      for (int child : children) {
+        writeNavigationItem(generator, child, depth - 1);
+      }
+      generator.writeEndArray();
+    }
+    generator.writeEndObject();
+  }
+
+  private void writeLink(JsonGenerator generator, int page) throws IOException {
+    generator.writeStartObject();
+    generator.writeStringField("type", "internal");
+    generator.writeStringField("url", getUrl(page, SUFFIX_CONTENT));
+    generator.writeStringField("path", getPagePath(page));
+    generator.writeEndObject();
+  }
+
+  /**
+   * Writes the page content with a title, a teaser for each child page, a text component for each rich text link
+   * and filler text components until the payload size is reached.
+   */
+  private void writeContent(JsonGenerator generator, int page, ByteArrayOutputStream bos) throws IOException {
+    List<String> itemsOrder = new ArrayList<>();
+    generator.writeStartObject();
+    generator.writeStringField(":type", RESOURCE_TYPE_PAGE);
+    generator.writeStringField("title", getTitle(page));
+    generator.writeObjectFieldStart(":items");
+    generator.writeObjectFieldStart("root");
+    generator.writeStringField(":type", RESOURCE_TYPE_CONTAINER);
+    generator.writeObjectFieldStart(":items");
+
+    itemsOrder.add("title");
+    generator.writeObjectFieldStart("title");
+    generator.writeStringField(":type", RESOURCE_TYPE_TITLE);
+    generator.writeStringField("text", getTitle(page));
+    generator.writeEndObject();
+
+    for (int child : getChildren(page)) {
+      String name = "teaser-" + child;
+      itemsOrder.add(name);
+      generator.writeObjectFieldStart(name);
+      generator.writeStringField(":type", RESOURCE_TYPE_TEASER);
+      generator.writeStringField("title", getTitle(child));
+      generator.writeFieldName("link");
+      writeLink(generator, child);
+      generator.writeEndObject();
+    }
+
+    for (int i = 0; i < richTextLinks; i++) {
+      int target = getRichTextLinkTarget(page, i);
+      String name = "text-" + i;
+      itemsOrder.add(name);
+      generator.writeObjectFieldStart(name);
+      generator.writeStringField(":type", RESOURCE_TYPE_TEXT);
+      generator.writeStringField("text", "<p>See also <a href=\"" + getUrl(target, SUFFIX_CONTENT)
+          + "\" data-path=\"" + getPagePath(target) + "\" data-type=\"internal\">" + getTitle(target) + "</a>.</p>");
+      generator.writeEndObject();
+    }
+
+    generator.flush();
+    for (int i = 0; bos.size() < payloadSize; i++) {
+      String name = "filler-" + i;
+      itemsOrder.add(name);
+      generator.writeObjectFieldStart(name);
+      generator.writeStringField(":type", RESOURCE_TYPE_TEXT);
+      generator.writeStringField("text", FILLER_TEXT);
+      generator.writeEndObject();
+      generator.flush();
+    }
+
+    generator.writeEndObject();
+    writeItemsOrder(generator, itemsOrder);
+    generator.writeEndObject();
+    generator.writeEndObject();
+    writeItemsOrder(generator, List.of("root"));
+    generator.writeEndObject();
+  }
+
+  private static void writeItemsOrder(JsonGenerator generator, List<String> itemsOrder) throws IOException {
+    generator.writeArrayFieldStart(":itemsOrder");
+    for (String item : itemsOrder) {
+      generator.writeString(item);
+    }
+    generator.writeEndArray();
+  }
+
+  private void writeConfig(JsonGenerator generator, int page) throws IOException {
+    generator.writeStartObject();
+    generator.writeObjectFieldStart("ConfigSample");
+    generator.writeStringField("stringParam", getTitle(page));
+    generator.writeNumberField("intParam", page);
+    generator.writeBooleanField("boolParam", true);
+    generator.writeEndObject();
+    generator.writeEndObject();
+  }
+
+  private static String getTitle(int page) {
+    return "Page " + page;
+  }
+
+  /**
+   * Picks a pseudo-random link target for a rich text link, derived from seed and page number.
+   */
+  private int getRichTextLinkTarget(int page, int index) {
+    long hash = seed ^ ((long)page << 20) ^ index;
+    hash = (hash ^ (hash >>> 33)) * 0xff51afd7ed558ccdL;
+    hash = (hash ^ (hash >>> 33)) * 0xc4ceb9fe1a85ec53L;
+    hash ^= hash >>> 33;
+    return (int)Math.floorMod(hash, (long)pageCount);
+  }
+
+
+  static final class Request {
+
+    private final int page;
+    private final String suffix;
+
+    Request(int page, String suffix) {
+      this.page = page;
+      this.suffix = suffix;
+    }
+
+    int getPage() {
+      return this.page;
+    }
+
+    String getSuffix() {
+      return this.suffix;
+    }
+
+  }
+
+}
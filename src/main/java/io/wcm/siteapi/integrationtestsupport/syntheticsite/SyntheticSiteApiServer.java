@@ -0,0 +1,486 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2023 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.siteapi.integrationtestsupport.syntheticsite;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.commons.lang3.StringUtils;
+import org.jetbrains.annotations.NotNull;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Embedded HTTP server serving a synthetic site via Site API, to measure crawl throughput and scaling
+ * offline and repeatably.
+ * <p>
+ * The site is a tree of pages with the configured fan-out and maximum depth, limited to the configured number
+ * of pages. For each page the server responds to <code>index</code>, <code>navigation</code>,
+ * <code>content</code> and <code>config</code> requests with JSON matching the v1 Site API spec used in the
+ * tests of this project:
+ * </p>
+ * <ul>
+ * <li>index: Links to navigation, content and config of the page.</li>
+ * <li>navigation: Navigation tree of the page and its descendants up to the navigation depth.</li>
+ * <li>content: Title, a teaser linking to each child page, text components with rich text links to
+ * pseudo-random other pages, and filler text components up to the payload size.</li>
+ * <li>config: A context-aware configuration sample.</li>
+ * </ul>
+ * <p>
+ * Crawling the index of the root page visits {@link #getExpectedUrls()} URLs: the index, navigation and config
+ * of the root page, and the content of all pages. The page structure and link targets are derived from the
+ * configuration and the seed only. Latency and injected errors simulate a slow or flaky publish instance.
+ * </p>
+ * <p>
+ * Configure the server via the fluent setters, then call {@link #start()}. Close the server to stop it.
+ * </p>
+ */
+public final class SyntheticSiteApiServer implements AutoCloseable {
+
+  private int port;
+  private String rootPath = "/content/synthetic";
+  private String selector = "site";
+  private String apiVersion = "v1";
+  private String extension = "api";
+  private int pages = 100;
+  private int fanOut = 5;
+  private int maxDepth = 10;
+  private int navigationDepth = 2;
+  private int richTextLinks = 2;
+  private int payloadSize;
+  private Duration latency = Duration.ZERO;
+  private double errorRate;
+  private long seed;
+  private boolean compression = true;
+  private boolean requestLog;
+
+  private HttpServer server;
+  private ExecutorService executor;
+  private SyntheticSite site;
+  private Random random;
+  private final LongAdder requests = new LongAdder();
+  private final LongAdder injectedErrors = new LongAdder();
+  private final Queue<String> requestedPaths = new ConcurrentLinkedQueue<>();
+
+  private static final int HTTP_OK = 200;
+  private static final int HTTP_NOT_FOUND = 404;
+  private static final int HTTP_METHOD_NOT_ALLOWED = 405;
+  private static final int HTTP_INTERNAL_SERVER_ERROR = 500;
+
+  /**
+   * @param value Port to listen on. Default is 0 which means a free port is chosen.
+   * @return this
+   */
+  public @NotNull SyntheticSiteApiServer port(int value) {
+    this.port = value;
+    return this;
+  }
+
+  /**
+   * @param value Content path of the root page. Default is "/content/synthetic".
+   * @return this
+   */
+  public @NotNull SyntheticSiteApiServer rootPath(@NotNull String value) {
+    this.rootPath = value;
+    return this;
+  }
+
+  /**
+   * @param value Site API selector. Default is "site".
+   * @return this
+   */
+  public @NotNull SyntheticSiteApiServer selector(@NotNull String value) {
+    this.selector = value;
+    return this;
+  }
+
+  /**
+   * @param value Site API version. Default is "v1".
+   * @return this
+   */
+  public @NotNull SyntheticSiteApiServer apiVersion(@NotNull String value) {
+    this.apiVersion = value;
+    return this;
+  }
+
+  /**
+   * @param value Site API extension. Default is "api".
+   * @return this
+   */
+  public @NotNull SyntheticSiteApiServer extension(@NotNull String value) {
+    this.extension = value;
+    return this;
+  }
+
+  /**
+   * @param value Maximum number of pages. Default is 100.
+   * @return this
+   */
+  public @NotNull SyntheticSiteApiServer pages(int value) {
+    this.pages = value;
+    return this;
+  }
+
+  /**
+   * @param value Number of child pages per page. Default is 5.
+   * @return this
+   */
+  public @NotNull SyntheticSiteApiServer fanOut(int value) {
+    this.fanOut = value;
+    return this;
+  }
+
+  /**
+   * @param value Maximum depth of the page tree, the root page has depth 0. Default is 10.
+   * @return this
+   */
+  public @NotNull SyntheticSiteApiServer maxDepth(int value) {
+    this.maxDepth = value;
+    return this;
+  }
+
+  /**
+   * @param value Number of levels below the page included in the navigation response. Default is 2.
+   * @return this
+   */
+  public @NotNull SyntheticSiteApiServer navigationDepth(int value) {
+    this.navigationDepth = value;
+    return this;
+  }
+
+  /**
+   * @param value Number of rich text links to other pages in the content of each page. Default is 2.
+   * @return this
+   */
+  public @NotNull SyntheticSiteApiServer richTextLinks(int value) {
+    this.richTextLinks = value;
+    return this;
+  }
+
+  /**
+   * @param value Minimum size of the (uncompressed) content responses in bytes, reached by adding filler text
+   *          components. Default is 0.
+   * @return this
+   */
+  public @NotNull SyntheticSiteApiServer payloadSize(int value) {
+    this.payloadSize = value;
+    return this;
+  }
+
+  /**
+   * @param value Delay added to each response. Default is no delay.
+   * @return this
+   */
+  public @NotNull SyntheticSiteApiServer latency(@NotNull Duration value) {
+    this.latency = value;
+    return this;
+  }
+
+  /**
+   * @param value Ratio of requests answered with HTTP 500, between 0 and 1. Default is 0.
+   * @return this
+   */
+  public @NotNull SyntheticSiteApiServer errorRate(double value) {
+    this.errorRate = value;
+    return this;
+  }
+
+  /**
+   * @param value Seed for rich text link targets and injected errors. Default is 0.
+   * @return this
+   */
+  public @NotNull SyntheticSiteApiServer seed(long value) {
+    this.seed = value;
+    return this;
+  }
+
+  /**
+   * @param value Whether responses are gzip-compressed if the client accepts it. Default is true.
+   * @return this
+   */
+  public @NotNull SyntheticSiteApiServer compression(boolean value) {
+    this.compression = value;
+    return this;
+  }
+
+  /**
+   * @param value Whether to record the path of each request, see {@link #getRequestLog()}. Default is false.
+   * @return this
+   */
+  public @NotNull SyntheticSiteApiServer requestLog(boolean value) {
+    this.requestLog = value;
+    return this;
+  }
+
+  /**
+   * Starts the server.
+   * @return this
+   * @throws IllegalArgumentException if the configuration is invalid
+   * @throws IllegalStateException if the server is already started
+   */
+  public @NotNull SyntheticSiteApiServer start() {
+    if (server != null) {
+      throw new IllegalStateException("Server is already started.");
+    }
+    validateConfiguration();
+    try {
+      server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+    }
+    catch (IOException ex) {
+      throw new UncheckedIOException("Unable to start synthetic Site API server.", ex);
+    }
+    site = new SyntheticSite(this, "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort());
+    random = new Random(seed);
+    executor = Executors.newCachedThreadPool(new ServerThreadFactory());
+    server.setExecutor(executor);
+    server.createContext("/", this::handle);
+    server.start();
+    return this;
+  }
+
+  private void validateConfiguration() {
+    if (pages < 1) {
+      throw new IllegalArgumentException("Pages must be at least 1: " + pages);
+    }
+    if (fanOut < 1) {
+      throw new IllegalArgumentException("Fan-out must be at least 1: " + fanOut);
+    }
+    if (maxDepth < 0 || navigationDepth < 0 || richTextLinks < 0 || payloadSize < 0) {
+      throw new IllegalArgumentException("Max depth, navigation depth, rich text links and payload size must not be negative.");
+    }
+    if (latency.isNegative()) {
+      throw new IllegalArgumentException("Latency must not be negative: " + latency);
+    }
+    if (errorRate < 0 || errorRate > 1) {
+      throw new IllegalArgumentException("Error rate must be between 0 and 1: " + errorRate);
+    }
+  }
+
+  /**
+   * Stops the server.
+   */
+  @Override
+  public void close() {
+    if (server != null) {
+      server.stop(0);
+      executor.shutdownNow();
+      server = null;
+    }
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    try {
+      requests.increment();
+      if (requestLog) {
+        requestedPaths.add(exchange.getRequestURI().getPath());
+      }
+      if (!"GET".equals(exchange.getRequestMethod())) {
+        sendResponse(exchange, HTTP_METHOD_NOT_ALLOWED, new byte[0]);
+        return;
+      }
+      if (!latency.isZero()) {
+        TimeUnit.NANOSECONDS.sleep(latency.toNanos());
+      }
+      if (errorRate > 0 && random.nextDouble() < errorRate) {
+        injectedErrors.increment();
+        sendResponse(exchange, HTTP_INTERNAL_SERVER_ERROR, "{\"error\":\"Injected error\"}".getBytes(StandardCharsets.UTF_8));
+        return;
+      }
+      SyntheticSite.Request request = site.parseRequest(exchange.getRequestURI().getPath());
+      byte[] json = request != null ? site.getJson(request) : null;
+      if (json == null) {
+        sendResponse(exchange, HTTP_NOT_FOUND, new byte[0]);
+        return;
+      }
+      sendResponse(exchange, HTTP_OK, json);
+    }
+    catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+    finally {
+      exchange.close();
+    }
+  }
+
+  private void sendResponse(HttpExchange exchange, int status, byte[] body) throws IOException {
+    if (body.length > 0) {
+      exchange.getResponseHeaders().set("Content-Type", "application/json;charset=utf-8");
+    }
+    byte[] responseBody = body;
+    if (compression && body.length > 0 && acceptsGzip(exchange)) {
+      exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+      responseBody = gzip(body);
+    }
+    // content length -1 means no response body
+    exchange.sendResponseHeaders(status, responseBody.length > 0 ? responseBody.length : -1);
+    if (responseBody.length > 0) {
+      try (OutputStream os = exchange.getResponseBody()) {
+        os.write(responseBody);
+      }
+    }
+  }
+
+  private static boolean acceptsGzip(HttpExchange exchange) {
+    return exchange.getRequestHeaders().getOrDefault("Accept-Encoding", List.of()).stream()
+        .anyMatch(value -> StringUtils.containsIgnoreCase(value, "gzip"));
+  }
+
+  private static byte[] gzip(byte[] data) throws IOException {
+    ByteArrayOutputStream bos = new ByteArrayOutputStream(data.length / 4);
+    try (GZIPOutputStream gzip = new GZIPOutputStream(bos)) {
+      gzip.write(data);
+    }
+    return bos.toByteArray();
+  }
+
+  /**
+   * @return Publish URL of the running server.
+   */
+  public @NotNull String getPublishUrl() {
+    return getSite().getPublishUrl();
+  }
+
+  /**
+   * @return URL of the index of the root page, to start crawling at.
+   */
+  public @NotNull String getIndexUrl() {
+    return getSite().getUrl(0, SyntheticSite.SUFFIX_INDEX);
+  }
+
+  /**
+   * @return Number of pages of the synthetic site.
+   */
+  public int getPageCount() {
+    return getSite().getPageCount();
+  }
+
+  /**
+   * @return Number of distinct URLs a crawl starting at {@link #getIndexUrl()} visits.
+   */
+  public int getExpectedUrls() {
+    // index, navigation and config of root page + content of all pages
+    return 3 + getPageCount();
+  }
+
+  /**
+   * @return Number of requests received.
+   */
+  public long getRequests() {
+    return requests.sum();
+  }
+
+  /**
+   * @return Paths of all requests in the order they were received, if the request log is enabled.
+   */
+  public @NotNull List<String> getRequestLog() {
+    return List.copyOf(requestedPaths);
+  }
+
+  /**
+   * @return Number of requests answered with an injected HTTP 500 error.
+   */
+  public long getInjectedErrors() {
+    return injectedErrors.sum();
+  }
+
+  private SyntheticSite getSite() {
+    if (site == null) {
+      throw new IllegalStateException("Server is not started.");
+    }
+    return site;
+  }
+
+  String getRootPath() {
+    return this.rootPath;
+  }
+
+  String getSelector() {
+    return this.selector;
+  }
+
+  String getApiVersion() {
+    return this.apiVersion;
+  }
+
+  String getExtension() {
+    return this.extension;
+  }
+
+  int getPages() {
+    return this.pages;
+  }
+
+  int getFanOut() {
+    return this.fanOut;
+  }
+
+  int getMaxDepth() {
+    return this.maxDepth;
+  }
+
+  int getNavigationDepth() {
+    return this.navigationDepth;
+  }
+
+  int getRichTextLinks() {
+    return this.richTextLinks;
+  }
+
+  int getPayloadSize() {
+    return this.payloadSize;
+  }
+
+  long getSeed() {
+    return this.seed;
+  }
+
+
+  private static final class ServerThreadFactory implements ThreadFactory {
+
+    private final AtomicInteger threadNumber = new AtomicInteger();
+
+    @Override
+    public Thread newThread(Runnable runnable) {
+      Thread thread = new Thread(runnable, "synthetic-site-api-" + threadNumber.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    }
+
+  }
+
+}
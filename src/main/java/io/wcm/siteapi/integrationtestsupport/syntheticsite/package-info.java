@@ -17,24 +17,7 @@
  * limitations under the License.
  * #L%
  */
-package io.wcm.siteapi.integrationtestsupport.httpclient;
-
-class StringHttpResponse implements HttpResponse<String> {
-
-  private final java.net.http.HttpResponse<String> delegate;
-
-  StringHttpResponse(java.net.http.HttpResponse<String> delegate) {
-    this.delegate = delegate;
-  }
-
-  @Override
-  public int statusCode() {
-    return delegate.statusCode();
-  }
-
-  @Override
-  public String body() {
-    return delegate.body();
-  }
-
-}
+/**
+ * Embedded HTTP server generating a synthetic site for reproducible crawler load tests.
+ */
+package io.wcm.siteapi.integrationtestsupport.syntheticsite;
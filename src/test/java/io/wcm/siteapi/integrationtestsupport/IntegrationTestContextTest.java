@@ -21,12 +21,21 @@ package io.wcm.siteapi.integrationtestsupport;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
+import org.apache.commons.codec.digest.DigestUtils;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import io.wcm.siteapi.openapi.validator.OpenApiSpecVersions;
+
 class IntegrationTestContextTest {
 
   IntegrationTestContext underTest;
@@ -47,6 +56,32 @@ class IntegrationTestContextTest {
     assertEquals("sel1", underTest.getSelector());
     assertEquals("v1", underTest.getApiVersion());
     assertEquals("ext1", underTest.getExtension());
+    assertEquals(1, underTest.getCrawlerConcurrency());
+  }
+
+  @Test
+  void testInvalidCrawlerConcurrency() {
+    IntegrationTestContextBuilder builder = new IntegrationTestContextBuilder()
+        .publishUrl("http://localhost:8080/")
+        .crawlerConcurrency(0);
+    assertThrows(IllegalArgumentException.class, builder::build);
+  }
+
+  @Test
+  void testInvalidHttpRateLimit() {
+    IntegrationTestContextBuilder builder = new IntegrationTestContextBuilder()
+        .publishUrl("http://localhost:8080/")
+        .httpRateLimit(-1);
+    assertThrows(IllegalArgumentException.class, builder::build);
+  }
+
+  @Test
+  void testInvalidHttpRateLimitBurst() {
+    IntegrationTestContextBuilder builder = new IntegrationTestContextBuilder()
+        .publishUrl("http://localhost:8080/")
+        .httpRateLimit(10)
+        .httpRateLimitBurst(0);
+    assertThrows(IllegalArgumentException.class, builder::build);
   }
 
   @Test
@@ -57,6 +92,77 @@ class IntegrationTestContextTest {
   @Test
   void testGetValidator() {
     assertNotNull(underTest.getValidator("content"));
+    assertSame(underTest.getValidator("content"), underTest.getValidator("content"));
+  }
+
+  @Test
+  void testGetSpecChecksum() throws IOException {
+    try (InputStream is = getClass().getClassLoader().getResourceAsStream("site-api-spec/site-api-v1.yaml")) {
+      assertEquals(DigestUtils.sha256Hex(is), underTest.getSpecChecksum());
+    }
+  }
+
+  @Test
+  void testGetSpecChecksum_CustomSpecVersions() {
+    underTest = new IntegrationTestContextBuilder()
+        .publishUrl("http://localhost:8080/")
+        .apiVersion("v1")
+        .specVersions(new OpenApiSpecVersions())
+        .build();
+    assertNull(underTest.getSpecChecksum());
+  }
+
+  @Test
+  void testPreloadValidators() {
+    underTest = new IntegrationTestContextBuilder()
+        .publishUrl("http://localhost:8080/")
+        .apiVersion("v1")
+        .preloadValidators("index", "navigation", "content")
+        .build();
+    assertNotNull(underTest.getValidator("content"));
+  }
+
+  @Test
+  void testPreloadValidators_All() {
+    underTest = new IntegrationTestContextBuilder()
+        .publishUrl("http://localhost:8080/")
+        .apiVersion("v1")
+        .preloadValidators()
+        .build();
+    assertNotNull(underTest.getValidator("config"));
+  }
+
+  @Test
+  void testPreloadValidators_All_CustomSpecVersions() {
+    IntegrationTestContextBuilder builder = new IntegrationTestContextBuilder()
+        .publishUrl("http://localhost:8080/")
+        .apiVersion("v1")
+        .specVersions(new OpenApiSpecVersions())
+        .preloadValidators();
+    assertThrows(IllegalStateException.class, builder::build);
+  }
+
+  @Test
+  void testGetSpecSuffixes() throws IOException {
+    try (InputStream is = getClass().getClassLoader().getResourceAsStream("site-api-spec/site-api-v1.yaml")) {
+      String spec = new String(is.readAllBytes(), StandardCharsets.UTF_8);
+      assertEquals(List.of("index", "navigation", "config", "content"),
+          List.copyOf(IntegrationTestContext.getSpecSuffixes(spec)));
+    }
+  }
+
+  @Test
+  void testGetSpecSuffixes_IgnoresOtherSections() {
+    String spec = "openapi: \"3.0.0\"\n"
+        + "paths:\n"
+        + "\n"
+        + "  \"{contentPath}.site.v2.api/index.json\":\n"
+        + "    get:\n"
+        + "      summary: \"/ignored.json\":\n"
+        + "  /content/page.site.v2.api/content.json:\n"
+        + "components:\n"
+        + "  \"/other.json\":\n";
+    assertEquals(List.of("index", "content"), List.copyOf(IntegrationTestContext.getSpecSuffixes(spec)));
   }
 
   @Test
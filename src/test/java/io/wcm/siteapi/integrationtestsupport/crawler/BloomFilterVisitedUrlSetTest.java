@@ -0,0 +1,82 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2023 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.siteapi.integrationtestsupport.crawler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class BloomFilterVisitedUrlSetTest {
+
+  private static final String URL_PREFIX = "http://localhost:4503/content/site/en/page";
+  private static final String URL_SUFFIX = ".site.v1.api/content.json";
+
+  @Test
+  void testSizing() {
+    BloomFilterVisitedUrlSet underTest = new BloomFilterVisitedUrlSet(1_000_000, 0.01);
+    // about 9.6 bits per URL and 7 hash functions for 1% false-positive rate
+    assertEquals(9_585_088, underTest.numBits());
+    assertEquals(7, underTest.numHashFunctions());
+  }
+
+  @Test
+  void testAdd() {
+    BloomFilterVisitedUrlSet underTest = new BloomFilterVisitedUrlSet(100, 0.001);
+    assertEquals(0d, underTest.falsePositiveProbability());
+    assertTrue(underTest.add(URL_PREFIX + 1 + URL_SUFFIX));
+    assertTrue(underTest.add(URL_PREFIX + 2 + URL_SUFFIX));
+    assertFalse(underTest.add(URL_PREFIX + 1 + URL_SUFFIX));
+    assertEquals(2, underTest.size());
+    assertTrue(underTest.falsePositiveProbability() > 0);
+  }
+
+  @Test
+  void testFalsePositiveProbability() {
+    int count = 100_000;
+    BloomFilterVisitedUrlSet underTest = new BloomFilterVisitedUrlSet(count, 0.01);
+    for (int i = 0; i < count; i++) {
+      underTest.add(URL_PREFIX + i + URL_SUFFIX);
+    }
+    double estimated = underTest.falsePositiveProbability();
+    assertTrue(estimated > 0.005 && estimated < 0.02, "estimated: " + estimated);
+
+    // measure false positives for a small sample of URLs never added
+    int sample = 5_000;
+    int falsePositives = 0;
+    for (int i = 0; i < sample; i++) {
+      if (!underTest.add(URL_PREFIX + "x" + i + URL_SUFFIX)) {
+        falsePositives++;
+      }
+    }
+    double measured = (double)falsePositives / sample;
+    assertTrue(measured < 0.02, "measured: " + measured);
+  }
+
+  @Test
+  void testInvalidParameters() {
+    assertThrows(IllegalArgumentException.class, () -> VisitedUrlStore.bloomFilter(0, 0.01));
+    assertThrows(IllegalArgumentException.class, () -> VisitedUrlStore.bloomFilter(1000, 0));
+    assertThrows(IllegalArgumentException.class, () -> VisitedUrlStore.bloomFilter(1000, 1));
+  }
+
+}
@@ -0,0 +1,75 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2023 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.siteapi.integrationtestsupport.crawler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class CrawlOrderTest {
+
+  @Test
+  void testBreadthFirst() {
+    CrawlerFrontier underTest = CrawlOrder.BREADTH_FIRST.createFrontier();
+    underTest.addAll(items("/a", "/b"));
+    assertEquals("/a", underTest.poll().getUrl());
+    underTest.addAll(items("/a1", "/a2"));
+    assertEquals(List.of("/b", "/a1", "/a2"), pollAll(underTest));
+  }
+
+  @Test
+  void testDepthFirst() {
+    CrawlerFrontier underTest = CrawlOrder.DEPTH_FIRST.createFrontier();
+    underTest.addAll(items("/a", "/b"));
+    assertEquals("/a", underTest.poll().getUrl());
+    underTest.addAll(items("/a1", "/a2"));
+    assertEquals(List.of("/a1", "/a2", "/b"), pollAll(underTest));
+  }
+
+  @Test
+  void testPriority() {
+    CrawlerFrontier underTest = CrawlOrder.priority(Comparator.comparing(String::length)).createFrontier();
+    underTest.addAll(items("/aaa", "/b", "/cc", "/d"));
+    assertEquals(List.of("/b", "/d", "/cc", "/aaa"), pollAll(underTest));
+  }
+
+  private static List<CrawlerItem> items(String... urls) {
+    List<CrawlerItem> items = new ArrayList<>();
+    for (String url : urls) {
+      items.add(new CrawlerItem(null, null, url));
+    }
+    return items;
+  }
+
+  private static List<String> pollAll(CrawlerFrontier frontier) {
+    List<String> urls = new ArrayList<>();
+    while (frontier.size() > 0) {
+      urls.add(frontier.poll().getUrl());
+    }
+    assertNull(frontier.poll());
+    return urls;
+  }
+
+}
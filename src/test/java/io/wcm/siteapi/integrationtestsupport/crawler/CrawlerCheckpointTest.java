@@ -0,0 +1,145 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2023 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.siteapi.integrationtestsupport.crawler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CrawlerCheckpointTest {
+
+  @TempDir
+  Path directory;
+
+  @Test
+  void testWriteRead() throws IOException {
+    Path file = directory.resolve("checkpoint.txt");
+    CrawlerItem index = new CrawlerItem(null, null, "/index.json");
+    CrawlerItem content = new CrawlerItem(null, null, "/content.json", "/index.json");
+    CrawlerItem navigation = new CrawlerItem(null, null, "/navigation.json", "/index.json");
+    try (CrawlerCheckpoint underTest = CrawlerCheckpoint.create(file)) {
+      underTest.queued(index);
+      underTest.queued(content);
+      underTest.queued(navigation);
+      underTest.done(index);
+      underTest.failed("/navigation.json");
+      underTest.done(navigation);
+    }
+
+    CrawlerCheckpoint.State state = CrawlerCheckpoint.read(file);
+    assertEquals(Set.of("/index.json", "/content.json", "/navigation.json"), state.getVisitedUrls());
+    assertEquals(Set.of("/navigation.json"), state.getFailedUrls());
+    List<CrawlerItem> pendingItems = state.getPendingItems((url, refererUrl) -> new CrawlerItem(null, null, url, refererUrl));
+    assertEquals(1, pendingItems.size());
+    assertEquals("/content.json", pendingItems.get(0).getUrl());
+    assertEquals("/index.json", pendingItems.get(0).getRefererUrl());
+    assertEquals(1, pendingItems.get(0).getCheckpointId());
+  }
+
+  @Test
+  void testWriteRead_EncodedUrls() throws IOException {
+    Path file = directory.resolve("checkpoint.txt");
+    CrawlerItem index = new CrawlerItem(null, null, "/index page.json");
+    CrawlerItem content = new CrawlerItem(null, null, "/content%20 page\n.json", "/index page.json");
+    try (CrawlerCheckpoint underTest = CrawlerCheckpoint.create(file)) {
+      underTest.queued(index);
+      underTest.queued(content);
+      underTest.failed("/index page.json");
+      underTest.done(index);
+    }
+
+    CrawlerCheckpoint.State state = CrawlerCheckpoint.read(file);
+    assertEquals(Set.of("/index page.json", "/content%20 page\n.json"), state.getVisitedUrls());
+    assertEquals(Set.of("/index page.json"), state.getFailedUrls());
+    List<CrawlerItem> pendingItems = state.getPendingItems((url, refererUrl) -> new CrawlerItem(null, null, url, refererUrl));
+    assertEquals(1, pendingItems.size());
+    assertEquals("/content%20 page\n.json", pendingItems.get(0).getUrl());
+    assertEquals("/index page.json", pendingItems.get(0).getRefererUrl());
+  }
+
+  @Test
+  void testDone_Flush() throws IOException {
+    Path file = directory.resolve("checkpoint.txt");
+    CrawlerItem index = new CrawlerItem(null, null, "/index.json");
+    try (CrawlerCheckpoint underTest = CrawlerCheckpoint.create(file)) {
+      underTest.queued(index);
+      underTest.done(index);
+      assertEquals(CrawlerCheckpoint.HEADER + "\nQ /index.json\nD 0\n", Files.readString(file, StandardCharsets.UTF_8));
+    }
+  }
+
+  @Test
+  void testAppend_TruncatedLine() throws IOException {
+    Path file = directory.resolve("checkpoint.txt");
+    Files.writeString(file, CrawlerCheckpoint.HEADER + "\nQ /index.json\nQ /content.json /index.json\nD 0\nD 1", StandardCharsets.UTF_8);
+
+    CrawlerCheckpoint.State state = CrawlerCheckpoint.read(file);
+    List<CrawlerItem> pendingItems = state.getPendingItems((url, refererUrl) -> new CrawlerItem(null, null, url, refererUrl));
+    assertEquals(List.of("/content.json"), pendingItems.stream().map(CrawlerItem::getUrl).collect(Collectors.toList()));
+
+    CrawlerItem page2 = new CrawlerItem(null, null, "/page2.json");
+    try (CrawlerCheckpoint underTest = CrawlerCheckpoint.append(file, state)) {
+      underTest.queued(page2);
+      underTest.done(pendingItems.get(0));
+    }
+    assertEquals(2, page2.getCheckpointId());
+
+    state = CrawlerCheckpoint.read(file);
+    pendingItems = state.getPendingItems((url, refererUrl) -> new CrawlerItem(null, null, url, refererUrl));
+    assertEquals(List.of("/page2.json"), pendingItems.stream().map(CrawlerItem::getUrl).collect(Collectors.toList()));
+    assertNull(pendingItems.get(0).getRefererUrl());
+  }
+
+  @Test
+  void testRead_InvalidFile() throws IOException {
+    Path file = directory.resolve("checkpoint.txt");
+    Files.writeString(file, "invalid", StandardCharsets.UTF_8);
+    assertThrows(IllegalArgumentException.class, () -> CrawlerCheckpoint.read(file));
+  }
+
+  @Test
+  void testRead_InvalidRecord() throws IOException {
+    Path file = directory.resolve("checkpoint.txt");
+    Files.writeString(file, CrawlerCheckpoint.HEADER + "\nQ /index.json\nD x\n", StandardCharsets.UTF_8);
+    IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> CrawlerCheckpoint.read(file));
+    assertTrue(ex.getMessage().contains("at line 3: D x"), ex.getMessage());
+  }
+
+  @Test
+  void testRead_UnknownRecord() throws IOException {
+    Path file = directory.resolve("checkpoint.txt");
+    Files.writeString(file, CrawlerCheckpoint.HEADER + "\nX /index.json\n", StandardCharsets.UTF_8);
+    IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> CrawlerCheckpoint.read(file));
+    assertTrue(ex.getMessage().contains("at line 2: X /index.json"), ex.getMessage());
+  }
+
+}
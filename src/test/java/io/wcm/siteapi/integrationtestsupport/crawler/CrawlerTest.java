@@ -20,31 +20,66 @@
 package io.wcm.siteapi.integrationtestsupport.crawler;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
 import static com.github.tomakehurst.wiremock.client.WireMock.get;
 import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static com.github.tomakehurst.wiremock.stubbing.Scenario.STARTED;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
 import javax.json.Json;
 import javax.json.JsonArrayBuilder;
+import javax.json.JsonObjectBuilder;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 
 import org.apache.commons.lang3.StringUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import com.github.tomakehurst.wiremock.junit5.WireMockRuntimeInfo;
 import com.github.tomakehurst.wiremock.junit5.WireMockTest;
 
 import io.wcm.siteapi.integrationtestsupport.IntegrationTestContext;
 import io.wcm.siteapi.integrationtestsupport.IntegrationTestContextBuilder;
+import io.wcm.siteapi.integrationtestsupport.httpclient.RetryPolicy;
 import io.wcm.siteapi.integrationtestsupport.linkextractor.ContentInternalLinks;
 import io.wcm.siteapi.integrationtestsupport.linkextractor.IndexLinks;
 import io.wcm.siteapi.integrationtestsupport.linkextractor.LinkExtractor;
+import io.wcm.siteapi.integrationtestsupport.syntheticsite.SyntheticSiteApiServer;
 
 @WireMockTest
 class CrawlerTest {
@@ -55,21 +90,15 @@ class CrawlerTest {
   private static final String NAVIGATION_PATH = ROOT_PATH + ".site.v1.api/navigation.json";
   private static final String CONTENT_ROOT_PATH = ROOT_PATH + ".site.v1.api/content.json";
   private static final String CONTENT_PAGE2_PATH = PAGE2_PATH + ".site.v1.api/content.json";
+  private static final String PAGE_TREE_PATH = "/content/tree";
 
   IntegrationTestContext context;
   Crawler underTest;
 
   @BeforeEach
   void setUp(WireMockRuntimeInfo wm) throws Exception {
-    context = new IntegrationTestContextBuilder()
-        .publishUrl(wm.getHttpBaseUrl())
-        .apiVersion("v1")
-        .httpConnectTimeout(Duration.ofMillis(2000))
-        .httpRequestTimeout(Duration.ofMillis(2000))
-        .build();
-    underTest = new Crawler(context, List.<LinkExtractor>of(
-        new IndexLinks(),
-        new ContentInternalLinks()));
+    context = buildContext(wm, 1);
+    underTest = buildCrawler(context);
 
     // prepare valid JSON responses for index, navigation and 2 content pages
     stubFor(get(urlPathEqualTo(INDEX_PATH)).willReturn(aResponse()
@@ -137,6 +166,649 @@ class CrawlerTest {
         List.copyOf(underTest.failedVisitUrls()));
   }
 
+  @Test
+  void testCrawl_Statistics() {
+    stubFor(get(urlPathEqualTo(CONTENT_PAGE2_PATH)).willReturn(aResponse()
+        .withBody("{}")));
+
+    underTest.start(context.buildSiteApiUrl(ROOT_PATH, "index"));
+
+    CrawlerStatistics statistics = underTest.getStatistics();
+    PageStatistics total = statistics.getTotal();
+    assertEquals(4, total.getPages());
+    assertEquals(1, total.getFailedPages());
+    assertEquals(4, total.getFetchTime().getCount());
+    assertEquals(4, total.getResponseSize().getCount());
+    assertEquals(4, total.getValidationTime().getCount());
+    assertEquals(3, total.getLinkExtractionTime().getCount());
+    assertEquals(0, total.getParseTime().getCount(), "only streaming link extractors apply");
+    assertEquals(4, total.getLinks().getSum(), "index: 2 links, navigation: 2 links");
+    assertTrue(total.getFetchTime().getMax() > 0);
+
+    assertEquals(List.of("content", "index", "navigation"), List.copyOf(statistics.getSuffixes().keySet()));
+    PageStatistics content = statistics.getSuffixes().get("content");
+    assertEquals(2, content.getPages());
+    assertEquals(1, content.getFailedPages());
+    assertEquals(2, statistics.getSuffixes().get("index").getLinks().getMax());
+
+    // statistics are reset for each crawl
+    underTest.start(context.buildSiteApiUrl(ROOT_PATH, "index"));
+    assertEquals(4, underTest.getStatistics().getTotal().getPages());
+    assertEquals(1, underTest.getStatistics().getTotal().getFailedPages());
+    assertNotSame(total, underTest.getStatistics().getTotal());
+  }
+
+  @Test
+  void testCrawl_Repeated() {
+    stubFor(get(urlPathEqualTo(CONTENT_PAGE2_PATH)).willReturn(aResponse()
+        .withBody("{}")));
+
+    underTest.start(context.buildSiteApiUrl(ROOT_PATH, "index"));
+    underTest.start(context.buildSiteApiUrl(ROOT_PATH, "index"));
+
+    // visited and failed URLs are reset for each crawl
+    assertEquals(4, underTest.numberOfVisits(), "number of visits");
+    assertEquals(1, underTest.numberOfFailedVisits(), "number of failed visits");
+    assertEquals(List.of(context.getPublishUrl() + CONTENT_PAGE2_PATH),
+        List.copyOf(underTest.failedVisitUrls()));
+    assertEquals(8, context.getHttpClient().getStatistics().getRequests());
+  }
+
+  @Test
+  void testCrawl_FlightRecorderEvents(@TempDir Path directory) throws IOException {
+    Path recordingFile = directory.resolve("crawl.jfr");
+    try (Recording recording = new Recording()) {
+      recording.enable("io.wcm.siteapi.HttpRequest");
+      recording.enable("io.wcm.siteapi.Validation");
+      recording.enable("io.wcm.siteapi.LinkExtraction");
+      recording.start();
+      underTest.start(context.buildSiteApiUrl(ROOT_PATH, "index"));
+      recording.stop();
+      recording.dump(recordingFile);
+    }
+
+    List<RecordedEvent> events = RecordingFile.readAllEvents(recordingFile);
+    Map<String, Long> eventCounts = events.stream()
+        .collect(Collectors.groupingBy(event -> event.getEventType().getName(), Collectors.counting()));
+    assertEquals(Map.of(
+        "io.wcm.siteapi.HttpRequest", 4L,
+        "io.wcm.siteapi.Validation", 4L,
+        "io.wcm.siteapi.LinkExtraction", 4L), eventCounts);
+
+    RecordedEvent indexFetch = events.stream()
+        .filter(event -> event.getEventType().getName().equals("io.wcm.siteapi.HttpRequest"))
+        .filter(event -> event.getString("url").contains("/index.json"))
+        .findFirst().orElseThrow();
+    assertEquals(200, indexFetch.getInt("status"));
+    assertTrue(indexFetch.getLong("bodySize") > 0);
+
+    RecordedEvent indexLinks = events.stream()
+        .filter(event -> event.getEventType().getName().equals("io.wcm.siteapi.LinkExtraction"))
+        .filter(event -> event.getString("suffix").equals("index"))
+        .findFirst().orElseThrow();
+    assertEquals(2, indexLinks.getInt("links"));
+  }
+
+  @Test
+  void testCrawl_BreadthFirst() {
+    assertEquals(List.of(0, 1, 2, 3, 4, 5, 6), crawlPageTree(CrawlOrder.BREADTH_FIRST));
+  }
+
+  @Test
+  void testCrawl_DepthFirst() {
+    assertEquals(List.of(0, 1, 3, 4, 2, 5, 6), crawlPageTree(CrawlOrder.DEPTH_FIRST));
+  }
+
+  @Test
+  void testCrawl_DefaultDepthFirst() {
+    assertEquals(List.of(0, 1, 3, 4, 2, 5, 6), crawlPageTree(null));
+  }
+
+  /**
+   * Crawls a synthetic site with a binary tree of 7 pages and returns the page numbers in the order
+   * their content was fetched.
+   */
+  private static List<Integer> crawlPageTree(@Nullable CrawlOrder crawlOrder) {
+    try (SyntheticSiteApiServer server = buildPageTreeServer(7, 2).start()) {
+      Crawler crawler = buildCrawler(buildContext(server.getPublishUrl(), 1));
+      if (crawlOrder != null) {
+        crawler.crawlOrder(crawlOrder);
+      }
+      crawler.start(server.getIndexUrl());
+
+      assertEquals(server.getExpectedUrls(), crawler.numberOfVisits(), "number of visits");
+      assertEquals(0, crawler.numberOfFailedVisits(), "number of failed visits");
+      return server.getRequestLog().stream()
+          .filter(path -> path.endsWith("/content.json"))
+          .map(path -> getSyntheticPage(path, 2))
+          .collect(Collectors.toList());
+    }
+  }
+
+  /**
+   * Synthetic site where pages link only to their child pages.
+   */
+  private static SyntheticSiteApiServer buildPageTreeServer(int pages, int fanOut) {
+    return new SyntheticSiteApiServer()
+        .pages(pages)
+        .fanOut(fanOut)
+        .maxDepth(pages)
+        .navigationDepth(0)
+        .richTextLinks(0)
+        .requestLog(true);
+  }
+
+  /**
+   * Gets the synthetic site page number from a path like /content/synthetic/page-1/page-2.site.v1.api/content.json.
+   */
+  private static int getSyntheticPage(String path, int fanOut) {
+    int page = 0;
+    for (String name : StringUtils.split(StringUtils.substringBefore(path, "."), '/')) {
+      if (name.startsWith("page-")) {
+        page = page * fanOut + Integer.parseInt(StringUtils.substringAfter(name, "page-"));
+      }
+    }
+    return page;
+  }
+
+  @Test
+  void testCrawl_DeepChain() throws InterruptedException {
+    try (SyntheticSiteApiServer server = buildPageTreeServer(2000, 1).start()) {
+      Crawler crawler = buildCrawler(buildContext(server.getPublishUrl(), 1));
+      // crawl in a thread with a small stack - recursive traversal would overflow it
+      Throwable[] error = new Throwable[1];
+      Thread thread = new Thread(null, () -> {
+        try {
+          crawler.start(server.getIndexUrl());
+        }
+        catch (RuntimeException | Error ex) {
+          error[0] = ex;
+        }
+      }, "deep-chain-crawl", 256 * 1024);
+      thread.start();
+      thread.join();
+
+      assertNull(error[0]);
+      assertEquals(server.getExpectedUrls(), crawler.numberOfVisits(), "number of visits");
+      assertEquals(0, crawler.numberOfFailedVisits(), "number of failed visits");
+    }
+  }
+
+  @Test
+  void testCrawl_FingerprintVisitedUrls() {
+    underTest.visitedUrlStore(VisitedUrlStore.FINGERPRINT);
+    underTest.start(context.buildSiteApiUrl(ROOT_PATH, "index"));
+
+    assertEquals(4, underTest.numberOfVisits(), "number of visits");
+    assertEquals(0, underTest.numberOfFailedVisits(), "number of failed visits");
+  }
+
+  @Test
+  void testCrawl_BloomFilterVisitedUrls() {
+    underTest.visitedUrlStore(VisitedUrlStore.bloomFilter(1000, 0.001));
+    underTest.start(context.buildSiteApiUrl(ROOT_PATH, "index"));
+
+    assertEquals(4, underTest.numberOfVisits(), "number of visits");
+    assertEquals(0, underTest.numberOfFailedVisits(), "number of failed visits");
+    assertTrue(underTest.visitedUrlsFalsePositiveProbability() > 0);
+    assertTrue(underTest.visitedUrlsFalsePositiveProbability() < 0.001);
+  }
+
+  @Test
+  void testCrawl_Priority() {
+    assertEquals(List.of(0, 2, 6, 5, 1, 4, 3), crawlPageTree(CrawlOrder.priority(Comparator.reverseOrder())));
+  }
+
+  @Test
+  void testCrawl_Concurrent_Successful(WireMockRuntimeInfo wm) {
+    underTest = buildCrawler(buildContext(wm, 4));
+    underTest.start(context.buildSiteApiUrl(ROOT_PATH, "index"));
+
+    assertEquals(4, underTest.numberOfVisits(), "number of visits");
+    assertEquals(0, underTest.numberOfFailedVisits(), "number of failed visits");
+    assertTrue(underTest.failedVisitUrls().isEmpty());
+  }
+
+  @Test
+  void testCrawl_Concurrent_OnePageInvalid(WireMockRuntimeInfo wm) {
+    stubFor(get(urlPathEqualTo(CONTENT_PAGE2_PATH)).willReturn(aResponse()
+        .withBody("{}")));
+
+    underTest = buildCrawler(buildContext(wm, 4));
+    underTest.start(context.buildSiteApiUrl(ROOT_PATH, "index"));
+
+    assertEquals(4, underTest.numberOfVisits(), "number of visits");
+    assertEquals(1, underTest.numberOfFailedVisits(), "number of failed visits");
+    assertEquals(List.of(context.getPublishUrl() + CONTENT_PAGE2_PATH),
+        List.copyOf(underTest.failedVisitUrls()));
+  }
+
+  @Test
+  void testCrawl_Concurrent_FailureOrder(WireMockRuntimeInfo wm) {
+    stubPageTree(wm, 15, 2, Set.of(4, 5, 7));
+    String startUrl = wm.getHttpBaseUrl() + PAGE_TREE_PATH + "/p0.site.v1.api/content.json";
+
+    for (int concurrency : List.of(1, 4)) {
+      underTest = buildCrawler(buildContext(wm, concurrency))
+          .crawlOrder(CrawlOrder.DEPTH_FIRST);
+      underTest.start(startUrl);
+      assertEquals(List.of(7, 4, 5), getPageTreePages(underTest.failedVisitUrls()), "depth-first, concurrency " + concurrency);
+
+      underTest = buildCrawler(buildContext(wm, concurrency))
+          .crawlOrder(CrawlOrder.BREADTH_FIRST);
+      underTest.start(startUrl);
+      assertEquals(List.of(4, 5, 7), getPageTreePages(underTest.failedVisitUrls()), "breadth-first, concurrency " + concurrency);
+    }
+  }
+
+  /**
+   * Stubs a tree of content pages, where page n links to the pages n * fanOut + 1 ... n * fanOut + fanOut via teasers.
+   * Pages with higher numbers respond faster, so concurrent crawls complete the pages out of crawl order.
+   */
+  private static void stubPageTree(WireMockRuntimeInfo wm, int pages, int fanOut, Set<Integer> invalidPages) {
+    for (int page = 0; page < pages; page++) {
+      JsonObjectBuilder items = Json.createObjectBuilder();
+      JsonArrayBuilder itemsOrder = Json.createArrayBuilder();
+      for (int child = page * fanOut + 1; child <= page * fanOut + fanOut && child < pages; child++) {
+        items.add("teaser-" + child, Json.createObjectBuilder()
+            .add(":type", "siteapi-test/core/components/content/teaser")
+            .add("link", Json.createObjectBuilder()
+                .add("type", "internal")
+                .add("url", wm.getHttpBaseUrl() + PAGE_TREE_PATH + "/p" + child + ".site.v1.api/content.json")
+                .add("path", PAGE_TREE_PATH + "/p" + child)));
+        itemsOrder.add("teaser-" + child);
+      }
+      String content = Json.createObjectBuilder()
+          .add(":type", "siteapi-test/core/components/global/page")
+          .add(":items", Json.createObjectBuilder()
+              .add("root", Json.createObjectBuilder()
+                  .add(":type", "siteapi-test/core/components/container/container")
+                  .add(":items", items)
+                  .add(":itemsOrder", itemsOrder)))
+          .add(":itemsOrder", Json.createArrayBuilder().add("root"))
+          .build().toString();
+      stubFor(get(urlPathEqualTo(PAGE_TREE_PATH + "/p" + page + ".site.v1.api/content.json")).willReturn(aResponse()
+          .withFixedDelay((pages - page) * 10)
+          .withBody(invalidPages.contains(page) ? "{}" : content)));
+    }
+  }
+
+  private static List<Integer> getPageTreePages(Collection<String> urls) {
+    return urls.stream()
+        .map(url -> Integer.parseInt(StringUtils.substringBetween(url, PAGE_TREE_PATH + "/p", ".")))
+        .collect(Collectors.toList());
+  }
+
+  @Test
+  void testCrawl_Concurrent_AdaptiveConcurrency(WireMockRuntimeInfo wm) {
+    IntegrationTestContext adaptiveContext = buildContextBuilder(wm, 4)
+        .httpAdaptiveConcurrencyLimit(2)
+        .build();
+    underTest = buildCrawler(adaptiveContext);
+    underTest.start(context.buildSiteApiUrl(ROOT_PATH, "index"));
+
+    assertEquals(4, underTest.numberOfVisits(), "number of visits");
+    assertEquals(0, underTest.numberOfFailedVisits(), "number of failed visits");
+    assertEquals(4, adaptiveContext.getHttpClient().getStatistics().getRequests());
+  }
+
+  @Test
+  void testCrawl_Retry(WireMockRuntimeInfo wm) {
+    stubFor(get(urlPathEqualTo(NAVIGATION_PATH)).inScenario("retry").whenScenarioStateIs(STARTED)
+        .willReturn(aResponse().withStatus(503))
+        .willSetStateTo("ok"));
+
+    underTest = buildCrawler(buildContextBuilder(wm, 1)
+        .httpRetryPolicy(new RetryPolicy()
+            .maxAttempts(2)
+            .baseBackoff(Duration.ofMillis(10)))
+        .build());
+    underTest.start(context.buildSiteApiUrl(ROOT_PATH, "index"));
+
+    assertEquals(4, underTest.numberOfVisits(), "number of visits");
+    assertEquals(0, underTest.numberOfFailedVisits(), "number of failed visits");
+    assertEquals(1, underTest.numberOfRetries(), "number of retries");
+  }
+
+  @Test
+  void testCrawl_Cache(WireMockRuntimeInfo wm, @TempDir Path cacheDirectory) {
+    stubFor(get(urlPathEqualTo(CONTENT_PAGE2_PATH)).willReturn(aResponse()
+        .withHeader("ETag", "\"v1\"")
+        .withBody(buildContent())));
+    stubFor(get(urlPathEqualTo(CONTENT_PAGE2_PATH)).withHeader("If-None-Match", equalTo("\"v1\"")).willReturn(aResponse()
+        .withStatus(304)));
+
+    IntegrationTestContext cacheContext = buildContextBuilder(wm, 1)
+        .httpCacheDirectory(cacheDirectory)
+        .build();
+    underTest = buildCrawler(cacheContext);
+    underTest.start(context.buildSiteApiUrl(ROOT_PATH, "index"));
+    assertEquals(0, underTest.numberOfFailedVisits(), "number of failed visits");
+    assertTrue(cacheContext.getHttpClient().getCache().isValidated(context.getPublishUrl() + CONTENT_PAGE2_PATH,
+        buildContent().getBytes(StandardCharsets.UTF_8), underTest.getValidationKey()));
+
+    // recrawl
+    underTest = buildCrawler(cacheContext);
+    Map<String, Integer> statusCodes = new ConcurrentHashMap<>();
+    underTest.addListener(new CrawlerListener() {
+      @Override
+      public void onFetched(@NotNull String url, int statusCode, long bytes, @NotNull Duration duration) {
+        statusCodes.put(StringUtils.substringAfter(url, context.getPublishUrl()), statusCode);
+      }
+    });
+    underTest.start(context.buildSiteApiUrl(ROOT_PATH, "index"));
+    assertEquals(4, underTest.numberOfVisits(), "number of visits");
+    assertEquals(0, underTest.numberOfFailedVisits(), "number of failed visits");
+    assertEquals(1, cacheContext.getHttpClient().getStatistics().getCacheHits());
+    assertEquals(304, statusCodes.get(CONTENT_PAGE2_PATH), "cached response");
+    assertEquals(200, statusCodes.get(CONTENT_ROOT_PATH), "uncached response");
+    assertEquals(3, underTest.getStatistics().getTotal().getValidationTime().getCount());
+
+    // recrawl after spec changed
+    cacheContext.getHttpClient().getCache().markValidated(context.getPublishUrl() + CONTENT_PAGE2_PATH,
+        buildContent().getBytes(StandardCharsets.UTF_8), "v1:outdated");
+    underTest = buildCrawler(cacheContext);
+    underTest.start(context.buildSiteApiUrl(ROOT_PATH, "index"));
+    assertEquals(0, underTest.numberOfFailedVisits(), "number of failed visits");
+    assertEquals(4, underTest.getStatistics().getTotal().getValidationTime().getCount());
+  }
+
+  @Test
+  void testCrawl_ResultSink(@TempDir Path directory) throws IOException {
+    stubFor(get(urlPathEqualTo(CONTENT_PAGE2_PATH)).willReturn(aResponse()
+        .withBody("{}")));
+    Path resultFile = directory.resolve("results.jsonl");
+
+    underTest.resultSink(new JsonLinesResultSink(resultFile));
+    underTest.start(context.buildSiteApiUrl(ROOT_PATH, "index"));
+
+    List<String> lines = Files.readAllLines(resultFile, StandardCharsets.UTF_8);
+    assertEquals(4, lines.size());
+    List<String> failedLines = lines.stream()
+        .filter(line -> line.contains("\"success\":false"))
+        .collect(Collectors.toList());
+    assertEquals(1, failedLines.size());
+    assertTrue(failedLines.get(0).contains("\"url\":\"" + context.getPublishUrl() + CONTENT_PAGE2_PATH + "\""));
+    assertTrue(failedLines.get(0).contains("\"response\":\"{}\""));
+    assertEquals(1, underTest.numberOfFailedVisits(), "number of failed visits");
+    // failed URLs are only kept in the result sink
+    assertTrue(underTest.failedVisitUrls().isEmpty());
+
+    // result sink is detached after the crawl
+    underTest.start(context.buildSiteApiUrl(ROOT_PATH, "index"));
+    assertEquals(4, Files.readAllLines(resultFile, StandardCharsets.UTF_8).size());
+  }
+
+  @Test
+  void testCrawl_Listener(WireMockRuntimeInfo wm) {
+    stubFor(get(urlPathEqualTo(NAVIGATION_PATH)).willReturn(aResponse()
+        .withStatus(404)));
+    underTest = buildCrawler(buildContext(wm, 4));
+
+    List<String> events = Collections.synchronizedList(new ArrayList<>());
+    underTest.addListener(new CrawlerListener() {
+      @Override
+      public void onVisit(@NotNull String url, @Nullable String refererUrl) {
+        throw new IllegalStateException("Listener failure");
+      }
+    });
+    underTest.addListener(new CrawlerListener() {
+      @Override
+      public void onVisit(@NotNull String url, @Nullable String refererUrl) {
+        events.add("visit " + StringUtils.substringAfter(url, context.getPublishUrl()));
+      }
+      @Override
+      public void onFetched(@NotNull String url, int statusCode, long bytes, @NotNull Duration duration) {
+        events.add("fetched " + statusCode + " " + StringUtils.substringAfter(url, context.getPublishUrl()));
+      }
+      @Override
+      public void onValidated(@NotNull String url, @NotNull String suffix, @NotNull Duration duration) {
+        events.add("validated " + suffix);
+      }
+      @Override
+      public void onLinksExtracted(@NotNull String url, @NotNull String suffix, int links, @NotNull Duration duration) {
+        events.add("links " + suffix + " " + links);
+      }
+      @Override
+      public void onFailure(@NotNull CrawlResult result) {
+        events.add("failure " + result.getSuffix());
+      }
+    });
+    underTest.start(context.buildSiteApiUrl(ROOT_PATH, "index"));
+
+    assertEquals(3, underTest.numberOfVisits(), "number of visits");
+    assertEquals(List.of(
+        "failure navigation",
+        "fetched 200 " + CONTENT_ROOT_PATH,
+        "fetched 200 " + INDEX_PATH,
+        "fetched 404 " + NAVIGATION_PATH,
+        "links content 0",
+        "links index 2",
+        "validated content",
+        "validated index",
+        "visit " + CONTENT_ROOT_PATH,
+        "visit " + INDEX_PATH,
+        "visit " + NAVIGATION_PATH),
+        events.stream().sorted().collect(Collectors.toList()));
+  }
+
+  @Test
+  void testPublish() throws InterruptedException {
+    stubFor(get(urlPathEqualTo(CONTENT_PAGE2_PATH)).willReturn(aResponse()
+        .withBody("{}")));
+    ResultSubscriber subscriber = new ResultSubscriber(Long.MAX_VALUE);
+    underTest.publish(context.buildSiteApiUrl(ROOT_PATH, "index")).subscribe(subscriber);
+
+    assertTrue(subscriber.completed.await(10, TimeUnit.SECONDS));
+    assertEquals(4, subscriber.results.size());
+    CrawlResult index = subscriber.results.poll();
+    assertTrue(index.isSuccess());
+    assertEquals(2, index.getLinks());
+    assertTrue(StringUtils.contains(index.getResponse(), CONTENT_ROOT_PATH));
+    List<String> failedUrls = subscriber.results.stream()
+        .filter(result -> !result.isSuccess())
+        .map(CrawlResult::getUrl)
+        .collect(Collectors.toList());
+    assertEquals(List.of(context.getPublishUrl() + CONTENT_PAGE2_PATH), failedUrls);
+  }
+
+  @Test
+  void testPublish_Backpressure(WireMockRuntimeInfo wm) throws InterruptedException {
+    underTest = buildCrawler(buildContext(wm, 4));
+    AtomicInteger fetched = new AtomicInteger();
+    underTest.addListener(new CrawlerListener() {
+      @Override
+      public void onFetched(@NotNull String url, int statusCode, long bytes, @NotNull Duration duration) {
+        fetched.incrementAndGet();
+      }
+    });
+    ResultSubscriber subscriber = new ResultSubscriber(1);
+    underTest.publish(context.buildSiteApiUrl(ROOT_PATH, "index")).subscribe(subscriber);
+
+    assertNotNull(subscriber.results.poll(10, TimeUnit.SECONDS));
+    assertTrue(subscriber.awaitWaitingForDemand());
+    assertEquals(1, fetched.get(), "fetched without demand");
+
+    subscriber.subscription.request(2);
+    assertNotNull(subscriber.results.poll(10, TimeUnit.SECONDS));
+    assertNotNull(subscriber.results.poll(10, TimeUnit.SECONDS));
+    assertTrue(subscriber.awaitWaitingForDemand());
+    assertEquals(3, fetched.get(), "fetched without demand");
+    assertEquals(1, subscriber.completed.getCount());
+
+    subscriber.subscription.request(1);
+    assertTrue(subscriber.completed.await(10, TimeUnit.SECONDS));
+    assertEquals(4, fetched.get());
+  }
+
+  @Test
+  void testPublish_Cancel() throws InterruptedException {
+    // crawler concurrency is 1, so the listener is called in the crawl thread
+    Thread[] crawlThread = new Thread[1];
+    underTest.addListener(new CrawlerListener() {
+      @Override
+      public void onFetched(@NotNull String url, int statusCode, long bytes, @NotNull Duration duration) {
+        crawlThread[0] = Thread.currentThread();
+      }
+    });
+    ResultSubscriber subscriber = new ResultSubscriber(1);
+    underTest.publish(context.buildSiteApiUrl(ROOT_PATH, "index")).subscribe(subscriber);
+
+    assertNotNull(subscriber.results.poll(10, TimeUnit.SECONDS));
+    subscriber.subscription.cancel();
+    subscriber.subscription.request(10);
+
+    // no further signals after the crawl thread has finished
+    crawlThread[0].join(10_000);
+    assertFalse(crawlThread[0].isAlive());
+    assertTrue(subscriber.results.isEmpty());
+    assertEquals(1, subscriber.completed.getCount());
+  }
+
+  @Test
+  void testPublish_AlreadyRunning() throws InterruptedException {
+    ResultSubscriber subscriber = new ResultSubscriber(1);
+    underTest.publish(context.buildSiteApiUrl(ROOT_PATH, "index")).subscribe(subscriber);
+    assertTrue(subscriber.awaitWaitingForDemand());
+
+    String url = context.buildSiteApiUrl(ROOT_PATH, "index");
+    assertThrows(IllegalStateException.class, () -> underTest.start(url));
+    ResultSubscriber concurrentSubscriber = new ResultSubscriber(Long.MAX_VALUE);
+    underTest.publish(url).subscribe(concurrentSubscriber);
+    assertTrue(concurrentSubscriber.completed.await(10, TimeUnit.SECONDS));
+    assertInstanceOf(IllegalStateException.class, concurrentSubscriber.error);
+
+    subscriber.subscription.request(Long.MAX_VALUE);
+    assertTrue(subscriber.completed.await(10, TimeUnit.SECONDS));
+    assertNull(subscriber.error);
+    assertEquals(4, underTest.numberOfVisits(), "number of visits");
+  }
+
+  @Test
+  void testPublish_SingleSubscriber() throws InterruptedException {
+    Flow.Publisher<CrawlResult> publisher = underTest.publish(context.buildSiteApiUrl(ROOT_PATH, "index"));
+    ResultSubscriber subscriber1 = new ResultSubscriber(Long.MAX_VALUE);
+    ResultSubscriber subscriber2 = new ResultSubscriber(Long.MAX_VALUE);
+    publisher.subscribe(subscriber1);
+    publisher.subscribe(subscriber2);
+
+    assertTrue(subscriber1.completed.await(10, TimeUnit.SECONDS));
+    assertNull(subscriber1.error);
+    assertTrue(subscriber2.completed.await(10, TimeUnit.SECONDS));
+    assertInstanceOf(IllegalStateException.class, subscriber2.error);
+  }
+
+  @Test
+  void testCrawl_Checkpoint(@TempDir Path directory) {
+    Path checkpointFile = directory.resolve("checkpoint.txt");
+    underTest.checkpoint(checkpointFile);
+    underTest.start(context.buildSiteApiUrl(ROOT_PATH, "index"));
+    assertEquals(4, underTest.numberOfVisits(), "number of visits");
+
+    // nothing left to crawl when resuming
+    Crawler resumedCrawler = buildCrawler(context);
+    resumedCrawler.resume(checkpointFile);
+    assertEquals(4, resumedCrawler.numberOfVisits(), "number of visits");
+    assertEquals(4, context.getHttpClient().getStatistics().getRequests());
+  }
+
+  @Test
+  void testCrawl_Resume(@TempDir Path directory) throws IOException {
+    stubFor(get(urlPathEqualTo(CONTENT_PAGE2_PATH)).willReturn(aResponse()
+        .withBody("{}")));
+
+    // simulate crawl interrupted after processing the index and detecting a failure for page2
+    String indexUrl = context.buildSiteApiUrl(ROOT_PATH, "index");
+    Path checkpointFile = directory.resolve("checkpoint.txt");
+    Files.writeString(checkpointFile, CrawlerCheckpoint.HEADER + "\n"
+        + "Q " + indexUrl + "\n"
+        + "Q " + context.getPublishUrl() + CONTENT_ROOT_PATH + " " + indexUrl + "\n"
+        + "Q " + context.getPublishUrl() + NAVIGATION_PATH + " " + indexUrl + "\n"
+        + "D 0\n"
+        + "Q " + context.getPublishUrl() + CONTENT_PAGE2_PATH + " " + context.getPublishUrl() + NAVIGATION_PATH + "\n"
+        + "F " + context.getPublishUrl() + CONTENT_PAGE2_PATH + "\n",
+        StandardCharsets.UTF_8);
+
+    underTest.resume(checkpointFile);
+
+    assertEquals(4, underTest.numberOfVisits(), "number of visits");
+    assertEquals(1, underTest.numberOfFailedVisits(), "number of failed visits");
+    assertEquals(List.of(context.getPublishUrl() + CONTENT_PAGE2_PATH),
+        List.copyOf(underTest.failedVisitUrls()));
+    // index is not fetched again
+    assertEquals(3, context.getHttpClient().getStatistics().getRequests());
+  }
+
+  private static final class ResultSubscriber implements Flow.Subscriber<CrawlResult> {
+
+    private final long initialDemand;
+    private final BlockingQueue<CrawlResult> results = new LinkedBlockingQueue<>();
+    private final CountDownLatch completed = new CountDownLatch(1);
+    private volatile Flow.Subscription subscription;
+    private volatile Throwable error;
+
+    ResultSubscriber(long initialDemand) {
+      this.initialDemand = initialDemand;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription value) {
+      subscription = value;
+      subscription.request(initialDemand);
+    }
+
+    @Override
+    public void onNext(CrawlResult item) {
+      results.add(item);
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+      error = throwable;
+      completed.countDown();
+    }
+
+    @Override
+    public void onComplete() {
+      completed.countDown();
+    }
+
+    /**
+     * Waits until the crawler has fetched all requested URLs and is blocked because there is no more demand.
+     */
+    boolean awaitWaitingForDemand() throws InterruptedException {
+      return ((CrawlPublisher.CrawlSubscription)subscription).awaitWaitingForDemand(Duration.ofSeconds(10));
+    }
+
+  }
+
+  private static IntegrationTestContext buildContext(WireMockRuntimeInfo wm, int crawlerConcurrency) {
+    return buildContextBuilder(wm, crawlerConcurrency).build();
+  }
+
+  private static IntegrationTestContextBuilder buildContextBuilder(WireMockRuntimeInfo wm, int crawlerConcurrency) {
+    return buildContextBuilder(wm.getHttpBaseUrl(), crawlerConcurrency);
+  }
+
+  private static IntegrationTestContext buildContext(String publishUrl, int crawlerConcurrency) {
+    return buildContextBuilder(publishUrl, crawlerConcurrency).build();
+  }
+
+  private static IntegrationTestContextBuilder buildContextBuilder(String publishUrl, int crawlerConcurrency) {
+    return new IntegrationTestContextBuilder()
+        .publishUrl(publishUrl)
+        .apiVersion("v1")
+        .httpConnectTimeout(Duration.ofMillis(2000))
+        .httpRequestTimeout(Duration.ofMillis(2000))
+        .crawlerConcurrency(crawlerConcurrency);
+  }
+
+  private static Crawler buildCrawler(IntegrationTestContext context) {
+    return new Crawler(context, List.<LinkExtractor>of(
+        new IndexLinks(),
+        new ContentInternalLinks()));
+  }
+
   private String buildIndexJson(Map<String, String> suffixUrls) {
     JsonArrayBuilder array = Json.createArrayBuilder();
     suffixUrls.entrySet().forEach(entry -> {
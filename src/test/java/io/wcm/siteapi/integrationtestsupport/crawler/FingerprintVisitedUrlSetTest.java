@@ -0,0 +1,64 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2023 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.siteapi.integrationtestsupport.crawler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class FingerprintVisitedUrlSetTest {
+
+  private static final String URL_PREFIX = "http://localhost:4503/content/site/en/page";
+  private static final String URL_SUFFIX = ".site.v1.api/content.json";
+
+  @Test
+  void testAdd() {
+    FingerprintVisitedUrlSet underTest = new FingerprintVisitedUrlSet();
+    assertTrue(underTest.add(URL_PREFIX + 1 + URL_SUFFIX));
+    assertTrue(underTest.add(URL_PREFIX + 2 + URL_SUFFIX));
+    assertFalse(underTest.add(URL_PREFIX + 1 + URL_SUFFIX));
+    assertEquals(2, underTest.size());
+  }
+
+  @Test
+  void testResize() {
+    FingerprintVisitedUrlSet underTest = new FingerprintVisitedUrlSet();
+    int count = 100_000;
+    for (int i = 0; i < count; i++) {
+      assertTrue(underTest.add(URL_PREFIX + i + URL_SUFFIX));
+    }
+    for (int i = 0; i < count; i++) {
+      assertFalse(underTest.add(URL_PREFIX + i + URL_SUFFIX));
+    }
+    assertEquals(count, underTest.size());
+    assertTrue(underTest.capacity() >= count * 2);
+  }
+
+  @Test
+  void testFingerprint() {
+    assertEquals(FingerprintVisitedUrlSet.fingerprint("/a"), FingerprintVisitedUrlSet.fingerprint("/a"));
+    assertNotEquals(FingerprintVisitedUrlSet.fingerprint("/a"), FingerprintVisitedUrlSet.fingerprint("/b"));
+    assertNotEquals(0L, FingerprintVisitedUrlSet.fingerprint(""));
+  }
+
+}
@@ -0,0 +1,95 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2023 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.siteapi.integrationtestsupport.crawler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+class HistogramTest {
+
+  private final Histogram underTest = new Histogram();
+
+  @Test
+  void testEmpty() {
+    assertEquals(0, underTest.getCount());
+    assertEquals(0, underTest.getMean());
+    assertEquals(0, underTest.getP50());
+    assertEquals(0, underTest.getMax());
+  }
+
+  @Test
+  void testSmallValuesExact() {
+    IntStream.rangeClosed(1, 10).forEach(underTest::record);
+    assertEquals(10, underTest.getCount());
+    assertEquals(55, underTest.getSum());
+    assertEquals(5.5, underTest.getMean());
+    assertEquals(5, underTest.getP50());
+    assertEquals(10, underTest.getP95());
+    assertEquals(10, underTest.getMax());
+  }
+
+  @Test
+  void testPercentiles() {
+    IntStream.rangeClosed(1, 100_000).forEach(underTest::record);
+    assertWithinPrecision(50_000, underTest.getP50());
+    assertWithinPrecision(95_000, underTest.getP95());
+    assertWithinPrecision(99_000, underTest.getP99());
+    assertEquals(100_000, underTest.getMax());
+    assertEquals(100_000, underTest.getPercentile(100));
+  }
+
+  @Test
+  void testLargeValues() {
+    underTest.record(Long.MAX_VALUE);
+    assertEquals(Long.MAX_VALUE, underTest.getP50());
+    assertEquals(Long.MAX_VALUE, underTest.getMax());
+  }
+
+  @Test
+  void testNegativeValuesRecordedAsZero() {
+    underTest.record(-5);
+    assertEquals(0, underTest.getMax());
+    assertEquals(1, underTest.getCount());
+  }
+
+  @Test
+  void testBuckets() {
+    for (long value : new long[] { 0, 1, 15, 16, 17, 1000, 123_456_789, Long.MAX_VALUE }) {
+      long upperBound = Histogram.bucketUpperBound(Histogram.bucketIndex(value));
+      assertTrue(upperBound >= value, "upper bound of " + value);
+      assertTrue(upperBound - value <= value / 8, "precision of " + value);
+    }
+  }
+
+  @Test
+  void testInvalidPercentile() {
+    assertThrows(IllegalArgumentException.class, () -> underTest.getPercentile(101));
+  }
+
+  private static void assertWithinPrecision(long expected, long actual) {
+    assertTrue(actual >= expected && actual <= expected + expected / 8, "expected ~" + expected + " but was " + actual);
+  }
+
+}
@@ -0,0 +1,88 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2023 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.siteapi.integrationtestsupport.crawler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.file.Path;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+class JUnitXmlResultSinkTest {
+
+  private static final String URL = "http://localhost/content/en.site.v1.api/content.json?a=1&b=2";
+
+  @TempDir
+  Path directory;
+
+  @Test
+  void testWrite() throws Exception {
+    Path file = directory.resolve("results.xml");
+    try (JUnitXmlResultSink underTest = new JUnitXmlResultSink(file, "Site API <Crawler>")) {
+      underTest.accept(CrawlResult.success(URL, null, "content", 3, null, 1_500_000));
+      underTest.accept(CrawlResult.failed(URL, "http://localhost/referer", "content", "Invalid \"JSON\"", "{\"a\":\"<b>\u0001\"}", 0));
+      underTest.accept(CrawlResult.failed("/invalid", null, null, "Invalid URL", null, 0));
+    }
+
+    Document document = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(file.toFile());
+    Element testSuite = document.getDocumentElement();
+    assertEquals("Site API <Crawler>", testSuite.getAttribute("name"));
+    assertEquals(3, Integer.parseInt(testSuite.getAttribute("tests")));
+    assertEquals(2, Integer.parseInt(testSuite.getAttribute("failures")));
+
+    NodeList testCases = testSuite.getElementsByTagName("testcase");
+    assertEquals(3, testCases.getLength());
+    Element success = (Element)testCases.item(0);
+    assertEquals("content", success.getAttribute("classname"));
+    assertEquals(URL, success.getAttribute("name"));
+    assertEquals("0.002", success.getAttribute("time"));
+    assertEquals(0, success.getElementsByTagName("failure").getLength());
+
+    Element failed = (Element)testCases.item(1);
+    Element failure = (Element)failed.getElementsByTagName("failure").item(0);
+    assertEquals("Invalid \"JSON\"", failure.getAttribute("message"));
+    assertEquals("{\"a\":\"<b>\"}", failure.getTextContent());
+    assertEquals("Referer: http://localhost/referer\n", failed.getElementsByTagName("system-out").item(0).getTextContent());
+
+    assertEquals("unknown", ((Element)testCases.item(2)).getAttribute("classname"));
+  }
+
+  @Test
+  void testEmpty() throws Exception {
+    Path file = directory.resolve("results.xml");
+    new JUnitXmlResultSink(file, "Crawler").close();
+
+    Document document = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(file.toFile());
+    assertEquals(0, Integer.parseInt(document.getDocumentElement().getAttribute("tests")));
+  }
+
+  @Test
+  void testEscape() {
+    assertEquals("&lt;a href=&quot;x&quot;&gt;&amp;&lt;/a&gt;\n", JUnitXmlResultSink.escape("<a href=\"x\">&</a>\u0000\n"));
+    assertEquals("", JUnitXmlResultSink.escape(null));
+  }
+
+}
@@ -0,0 +1,253 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2023 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.siteapi.integrationtestsupport.crawler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import org.apache.commons.lang3.StringUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.jayway.jsonpath.DocumentContext;
+import com.jayway.jsonpath.JsonPath;
+
+class JsonLinesResultSinkTest {
+
+  private static final String URL = "http://localhost/content/en.site.v1.api/content.json";
+
+  @TempDir
+  Path directory;
+
+  @Test
+  void testWrite() throws IOException {
+    Path file = directory.resolve("results.jsonl");
+    try (JsonLinesResultSink underTest = new JsonLinesResultSink(file)) {
+      underTest.accept(CrawlResult.success(URL, null, "content", 3, null, 2_500_000));
+      underTest.accept(CrawlResult.failed(URL, "http://localhost/referer", "content", "Invalid \"JSON\"", "{}", 1_000_000));
+    }
+
+    List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+    assertEquals(2, lines.size());
+
+    DocumentContext success = JsonPath.parse(lines.get(0));
+    assertEquals(URL, success.read("$.url"));
+    assertEquals("content", success.read("$.suffix"));
+    assertEquals(true, success.read("$.success"));
+    assertEquals(3, (int)success.read("$.links"));
+    assertEquals(2.5d, success.read("$.timeMs"));
+    assertFalse(lines.get(0).contains("referer"));
+
+    DocumentContext failed = JsonPath.parse(lines.get(1));
+    assertEquals("http://localhost/referer", failed.read("$.referer"));
+    assertEquals(false, failed.read("$.success"));
+    assertEquals("Invalid \"JSON\"", failed.read("$.message"));
+    assertEquals("{}", failed.read("$.response"));
+  }
+
+  @Test
+  void testTruncateAndSpill() throws IOException {
+    Path file = directory.resolve("results.jsonl");
+    Path spillDirectory = directory.resolve("spill");
+    String response = StringUtils.repeat("x", 100);
+    try (FileResultSink underTest = new JsonLinesResultSink(file)
+        .maxResponseLength(10)
+        .spillDirectory(spillDirectory)) {
+      underTest.accept(CrawlResult.failed(URL, null, "content", "Invalid", response, 0));
+      underTest.accept(CrawlResult.failed(URL, null, "content", "Invalid", "short", 0));
+    }
+
+    List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+    DocumentContext truncated = JsonPath.parse(lines.get(0));
+    assertEquals("xxxxxxxxxx... [90 chars truncated]", truncated.read("$.response"));
+    Path spillFile = Path.of((String)truncated.read("$.responseFile"));
+    assertEquals(spillDirectory, spillFile.getParent());
+    try (InputStream is = new GZIPInputStream(Files.newInputStream(spillFile))) {
+      assertEquals(response, new String(is.readAllBytes(), StandardCharsets.UTF_8));
+    }
+
+    DocumentContext notTruncated = JsonPath.parse(lines.get(1));
+    assertEquals("short", notTruncated.read("$.response"));
+    assertFalse(lines.get(1).contains("responseFile"));
+  }
+
+  @Test
+  void testOmitResponseAndSuccessful() throws IOException {
+    Path file = directory.resolve("results.jsonl");
+    try (FileResultSink underTest = new JsonLinesResultSink(file)
+        .maxResponseLength(0)
+        .includeSuccessful(false)) {
+      underTest.accept(CrawlResult.success(URL, null, "content", 3, null, 0));
+      underTest.accept(CrawlResult.failed(URL, null, "content", "Invalid", "{}", 0));
+    }
+
+    List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+    assertEquals(1, lines.size());
+    assertFalse(lines.get(0).contains("response"));
+  }
+
+  @Test
+  void testEmpty() throws IOException {
+    Path file = directory.resolve("results.jsonl");
+    new JsonLinesResultSink(file).close();
+    assertEquals(0, Files.size(file));
+  }
+
+  @Test
+  void testConcurrent() throws Exception {
+    Path file = directory.resolve("results.jsonl");
+    int results = FileResultSink.QUEUE_CAPACITY * 4;
+    try (JsonLinesResultSink underTest = new JsonLinesResultSink(file)) {
+      ExecutorService executor = Executors.newFixedThreadPool(4);
+      for (int i = 0; i < results; i++) {
+        String url = URL + "?" + i;
+        executor.execute(() -> underTest.accept(CrawlResult.success(url, null, "content", 0, null, 0)));
+      }
+      executor.shutdown();
+      assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    }
+    assertEquals(results, Files.readAllLines(file, StandardCharsets.UTF_8).stream().distinct().count());
+  }
+
+  @Test
+  void testWriteFailure() {
+    Path file = directory.resolve("missing").resolve("results.jsonl");
+    JsonLinesResultSink underTest = new JsonLinesResultSink(file);
+    underTest.accept(CrawlResult.success(URL, null, "content", 3, null, 0));
+    assertThrows(IOException.class, underTest::close);
+  }
+
+  @Test
+  void testWriteFailure_RuntimeException() {
+    Path file = directory.resolve("results.jsonl");
+    FileResultSink underTest = new FileResultSink(file) {
+      @Override
+      void writeStart(@NotNull Writer writer) {
+        // nothing to do
+      }
+      @Override
+      void writeResult(@NotNull Writer writer, @NotNull CrawlResult result,
+          @Nullable String response, @Nullable String spillFile) {
+        throw new IllegalStateException("Write failure");
+      }
+      @Override
+      void writeEnd(@NotNull Writer writer) {
+        // nothing to do
+      }
+    };
+    // must not block when the writer thread failed and the queue capacity is exceeded
+    assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+      for (int i = 0; i < FileResultSink.QUEUE_CAPACITY * 2; i++) {
+        underTest.accept(CrawlResult.success(URL, null, "content", 0, null, 0));
+      }
+    });
+    IOException ex = assertThrows(IOException.class, underTest::close);
+    assertEquals("Write failure", ex.getCause().getMessage());
+  }
+
+  @Test
+  void testWriteFailure_Error() {
+    Path file = directory.resolve("results.jsonl");
+    boolean[] finished = { false };
+    FileResultSink underTest = new FileResultSink(file) {
+      @Override
+      void writeStart(@NotNull Writer writer) {
+        // nothing to do
+      }
+      @Override
+      void writeResult(@NotNull Writer writer, @NotNull CrawlResult result,
+          @Nullable String response, @Nullable String spillFile) {
+        throw new AssertionError("Write error");
+      }
+      @Override
+      void writeEnd(@NotNull Writer writer) {
+        // nothing to do
+      }
+      @Override
+      void finish(@NotNull Path resultFile) {
+        finished[0] = true;
+      }
+    };
+    underTest.accept(CrawlResult.success(URL, null, "content", 0, null, 0));
+    IOException ex = assertThrows(IOException.class, underTest::close);
+    assertEquals("Write error", ex.getCause().getMessage());
+    assertFalse(finished[0]);
+  }
+
+  @Test
+  void testAcceptConcurrentToClose() throws Exception {
+    Path file = directory.resolve("results.jsonl");
+    JsonLinesResultSink underTest = new JsonLinesResultSink(file);
+    AtomicInteger accepted = new AtomicInteger();
+    CountDownLatch started = new CountDownLatch(4);
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    for (int i = 0; i < 4; i++) {
+      executor.execute(() -> {
+        started.countDown();
+        try {
+          while (true) {
+            underTest.accept(CrawlResult.success(URL, null, "content", 0, null, 0));
+            accepted.incrementAndGet();
+          }
+        }
+        catch (IllegalStateException ex) {
+          // sink closed
+        }
+      });
+    }
+    started.await();
+    underTest.close();
+    executor.shutdown();
+    assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+    // all accepted results are written before the end of the file
+    assertEquals(accepted.get(), Files.readAllLines(file, StandardCharsets.UTF_8).size());
+  }
+
+  @Test
+  void testAcceptAfterClose() throws IOException {
+    Path file = directory.resolve("results.jsonl");
+    JsonLinesResultSink underTest = new JsonLinesResultSink(file);
+    underTest.close();
+    CrawlResult result = CrawlResult.success(URL, null, "content", 0, null, 0);
+    assertThrows(IllegalStateException.class, () -> underTest.accept(result));
+  }
+
+}
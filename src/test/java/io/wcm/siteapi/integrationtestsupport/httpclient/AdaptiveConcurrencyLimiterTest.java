@@ -0,0 +1,123 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2023 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.siteapi.integrationtestsupport.httpclient;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Test;
+
+class AdaptiveConcurrencyLimiterTest {
+
+  private static final long LATENCY = 1_000_000L;
+
+  @Test
+  void testAdditiveIncrease() {
+    AdaptiveConcurrencyLimiter underTest = new AdaptiveConcurrencyLimiter(1, 3);
+    assertEquals(1, underTest.getLimit());
+
+    underTest.acquire().join();
+    underTest.release(LATENCY, false);
+    assertEquals(2, underTest.getLimit());
+
+    // limit grows by 1/limit per response
+    underTest.acquire().join();
+    underTest.acquire().join();
+    underTest.release(LATENCY, false);
+    underTest.release(LATENCY, false);
+    assertEquals(2, underTest.getLimit());
+    underTest.acquire().join();
+    underTest.release(LATENCY, false);
+    assertEquals(3, underTest.getLimit());
+
+    // max limit is not exceeded
+    for (int i = 0; i < 10; i++) {
+      underTest.acquire().join();
+      underTest.release(LATENCY, false);
+    }
+    assertEquals(3, underTest.getLimit());
+  }
+
+  @Test
+  void testNoIncreaseIfLimitNotUsed() {
+    AdaptiveConcurrencyLimiter underTest = new AdaptiveConcurrencyLimiter(4, 10);
+    for (int i = 0; i < 10; i++) {
+      underTest.acquire().join();
+      underTest.release(LATENCY, false);
+    }
+    assertEquals(4, underTest.getLimit());
+  }
+
+  @Test
+  void testOverloadDecrease() {
+    AdaptiveConcurrencyLimiter underTest = new AdaptiveConcurrencyLimiter(8, 10);
+    underTest.acquire().join();
+    underTest.release(LATENCY, true);
+    assertEquals(4, underTest.getLimit());
+    underTest.acquire().join();
+    underTest.release(LATENCY, true);
+    underTest.acquire().join();
+    underTest.release(LATENCY, true);
+    underTest.acquire().join();
+    underTest.release(LATENCY, true);
+    assertEquals(1, underTest.getLimit());
+  }
+
+  @Test
+  void testLatencyDecrease() {
+    AdaptiveConcurrencyLimiter underTest = new AdaptiveConcurrencyLimiter(10, 10);
+    underTest.acquire().join();
+    underTest.release(LATENCY, false);
+    assertEquals(10, underTest.getLimit());
+    underTest.acquire().join();
+    underTest.release(LATENCY * 3, false);
+    assertEquals(9, underTest.getLimit());
+  }
+
+  @Test
+  void testWaitForPermit() {
+    AdaptiveConcurrencyLimiter underTest = new AdaptiveConcurrencyLimiter(1, 1);
+    CompletableFuture<Void> permit1 = underTest.acquire();
+    CompletableFuture<Void> permit2 = underTest.acquire();
+    assertTrue(permit1.isDone());
+    assertFalse(permit2.isDone());
+
+    underTest.release(LATENCY, false);
+    assertTrue(permit2.isDone());
+  }
+
+  @Test
+  void testCancelledWaiter() {
+    AdaptiveConcurrencyLimiter underTest = new AdaptiveConcurrencyLimiter(1, 1);
+    underTest.acquire().join();
+    CompletableFuture<Void> permit2 = underTest.acquire();
+    CompletableFuture<Void> permit3 = underTest.acquire();
+    permit2.cancel(false);
+
+    underTest.release(LATENCY, false);
+    assertTrue(permit3.isDone());
+    assertFalse(permit3.isCompletedExceptionally());
+    assertFalse(underTest.acquire().isDone());
+  }
+
+}
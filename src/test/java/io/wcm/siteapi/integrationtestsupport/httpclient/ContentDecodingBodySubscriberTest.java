@@ -0,0 +1,165 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2023 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.siteapi.integrationtestsupport.httpclient;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.http.HttpResponse.BodySubscriber;
+import java.net.http.HttpResponse.BodySubscribers;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Flow;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.jupiter.api.Test;
+
+class ContentDecodingBodySubscriberTest {
+
+  private static final String JSON = "{\"text\":\"" + "compressible ".repeat(2000) + "\"}";
+
+  private final HttpClientStatistics statistics = new HttpClientStatistics();
+
+  @Test
+  void testIdentity() {
+    byte[] data = JSON.getBytes(StandardCharsets.UTF_8);
+    assertEquals(JSON, decode(null, data, 100));
+    assertEquals(data.length, statistics.getBytesReceived());
+    assertEquals(data.length, statistics.getBytesDecoded());
+  }
+
+  @Test
+  void testGzip() {
+    byte[] data = gzip(JSON);
+    assertEquals(JSON, decode("gzip", data, data.length));
+    assertEquals(data.length, statistics.getBytesReceived());
+    assertEquals(JSON.length(), statistics.getBytesDecoded());
+  }
+
+  @Test
+  void testGzip_SmallChunks() {
+    // split header, compressed data and trailer across buffers
+    assertEquals(JSON, decode("gzip", gzip(JSON), 1));
+    assertEquals(JSON, decode("gzip", gzip(JSON), 7));
+  }
+
+  @Test
+  void testGzip_OptionalHeaderFields() {
+    byte[] data = gzip(JSON);
+    // set FEXTRA, FNAME and FCOMMENT flags and insert the fields after the fixed header
+    byte[] fields = { 2, 0, 'x', 'y', 'f', '.', 'j', 's', 'o', 'n', 0, 'c', 0 };
+    byte[] withFields = new byte[data.length + fields.length];
+    System.arraycopy(data, 0, withFields, 0, 10);
+    System.arraycopy(fields, 0, withFields, 10, fields.length);
+    System.arraycopy(data, 10, withFields, 10 + fields.length, data.length - 10);
+    withFields[3] = 0x1c;
+    assertEquals(JSON, decode("gzip", withFields, 3));
+  }
+
+  @Test
+  void testGzip_Truncated() {
+    byte[] data = gzip(JSON);
+    byte[] truncated = Arrays.copyOf(data, data.length - 4);
+    CompletionException ex = assertThrows(CompletionException.class, () -> decode("gzip", truncated, 50));
+    assertInstanceOf(EOFException.class, ex.getCause());
+  }
+
+  @Test
+  void testGzip_Invalid() {
+    CompletionException ex = assertThrows(CompletionException.class,
+        () -> decode("gzip", JSON.getBytes(StandardCharsets.UTF_8), 50));
+    assertInstanceOf(IOException.class, ex.getCause());
+  }
+
+  @Test
+  void testDeflate_Zlib() {
+    assertEquals(JSON, decode("deflate", deflate(JSON, false), 5));
+  }
+
+  @Test
+  void testDeflate_Raw() {
+    assertEquals(JSON, decode("deflate", deflate(JSON, true), 5));
+  }
+
+  @Test
+  void testEmptyBody() {
+    assertEquals("", decode("gzip", new byte[0], 1));
+  }
+
+  @Test
+  void testUnsupportedEncoding() {
+    CompletionException ex = assertThrows(CompletionException.class,
+        () -> decode("br", JSON.getBytes(StandardCharsets.UTF_8), 50));
+    assertInstanceOf(IOException.class, ex.getCause());
+  }
+
+  private String decode(String contentEncoding, byte[] data, int chunkSize) {
+    BodySubscriber<String> underTest = ContentDecodingBodySubscriber.create(
+        BodySubscribers.ofString(StandardCharsets.UTF_8), contentEncoding, statistics);
+    underTest.onSubscribe(new Flow.Subscription() {
+      @Override
+      public void request(long n) {
+        // all buffers are pushed by the test
+      }
+      @Override
+      public void cancel() {
+        // nothing to cancel
+      }
+    });
+    for (int pos = 0; pos < data.length; pos += chunkSize) {
+      int length = Math.min(chunkSize, data.length - pos);
+      underTest.onNext(List.of(ByteBuffer.wrap(Arrays.copyOfRange(data, pos, pos + length))));
+    }
+    underTest.onComplete();
+    return underTest.getBody().toCompletableFuture().join();
+  }
+
+  private static byte[] gzip(String value) {
+    ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    try (GZIPOutputStream gzip = new GZIPOutputStream(bos)) {
+      gzip.write(value.getBytes(StandardCharsets.UTF_8));
+    }
+    catch (IOException ex) {
+      throw new IllegalStateException(ex);
+    }
+    return bos.toByteArray();
+  }
+
+  private static byte[] deflate(String value, boolean raw) {
+    ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    try (DeflaterOutputStream deflate = new DeflaterOutputStream(bos, new Deflater(Deflater.DEFAULT_COMPRESSION, raw))) {
+      deflate.write(value.getBytes(StandardCharsets.UTF_8));
+    }
+    catch (IOException ex) {
+      throw new IllegalStateException(ex);
+    }
+    return bos.toByteArray();
+  }
+
+}
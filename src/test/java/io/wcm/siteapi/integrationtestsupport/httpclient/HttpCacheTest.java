@@ -0,0 +1,109 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2023 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.siteapi.integrationtestsupport.httpclient;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class HttpCacheTest {
+
+  private static final String URL = "http://localhost/content/en.site.api/content.json";
+
+  @TempDir
+  Path directory;
+
+  HttpCache underTest;
+
+  @BeforeEach
+  void setUp() {
+    underTest = new HttpCache(directory.resolve("cache"));
+  }
+
+  @Test
+  void testPutGet() {
+    assertNull(underTest.get(URL));
+
+    underTest.put(URL + "?timestamp=123", "\"etag1\"", "Wed, 21 Oct 2015 07:28:00 GMT", bytes("{}"));
+
+    HttpCache.Entry entry = underTest.get(URL + "?timestamp=456");
+    assertEquals("\"etag1\"", entry.getEtag());
+    assertEquals("Wed, 21 Oct 2015 07:28:00 GMT", entry.getLastModified());
+    assertArrayEquals(bytes("{}"), underTest.getBody(entry));
+  }
+
+  @Test
+  void testPut_NoValidators() {
+    underTest.put(URL, "\"etag1\"", null, bytes("{}"));
+    underTest.put(URL, null, null, bytes("{\"changed\":true}"));
+    assertNull(underTest.get(URL));
+  }
+
+  @Test
+  void testValidated() {
+    assertFalse(underTest.isValidated(URL, bytes("{}"), "v1"));
+    underTest.markValidated(URL, bytes("{}"), "v1");
+    assertFalse(underTest.isValidated(URL, bytes("{}"), "v1"));
+
+    underTest.put(URL, "\"etag1\"", null, bytes("{}"));
+    underTest.markValidated(URL, bytes("{}"), "v1");
+    assertTrue(underTest.isValidated(URL + "?timestamp=123", bytes("{}"), "v1"));
+    assertFalse(underTest.isValidated(URL, bytes("{}"), "v2"));
+    assertFalse(underTest.isValidated(URL, bytes("{\"other\":true}"), "v1"));
+
+    // validation is reset when body changes
+    underTest.put(URL, "\"etag2\"", null, bytes("{\"changed\":true}"));
+    assertFalse(underTest.isValidated(URL, bytes("{\"changed\":true}"), "v1"));
+  }
+
+  @Test
+  void testMarkValidated_BodyReplaced() {
+    underTest.put(URL, "\"etag1\"", null, bytes("{}"));
+    underTest.put(URL, "\"etag2\"", null, bytes("{\"changed\":true}"));
+
+    // validation result of the replaced body is not applied to the current body
+    underTest.markValidated(URL, bytes("{}"), "v1");
+    assertFalse(underTest.isValidated(URL, bytes("{\"changed\":true}"), "v1"));
+  }
+
+  @Test
+  void testGetBody_BodyReplaced() {
+    underTest.put(URL, "\"etag1\"", null, bytes("{}"));
+    HttpCache.Entry entry = underTest.get(URL);
+    underTest.put(URL, "\"etag2\"", null, bytes("{\"changed\":true}"));
+
+    // body does not belong to the ETag of the entry any longer
+    assertNull(underTest.getBody(entry));
+  }
+
+  private static byte[] bytes(String value) {
+    return value.getBytes(StandardCharsets.UTF_8);
+  }
+
+}
@@ -20,19 +20,40 @@
 package io.wcm.siteapi.integrationtestsupport.httpclient;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.absent;
+import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
 import static com.github.tomakehurst.wiremock.client.WireMock.get;
 import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.matching;
 import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
 import static com.github.tomakehurst.wiremock.client.WireMock.verify;
+import static com.github.tomakehurst.wiremock.stubbing.Scenario.STARTED;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpClient.Version;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import com.github.tomakehurst.wiremock.junit5.WireMockRuntimeInfo;
 import com.github.tomakehurst.wiremock.junit5.WireMockTest;
@@ -69,12 +90,119 @@ class HttpClientTest {
     HttpResponse<String> response = underTest.get(url);
     assertEquals(200, response.statusCode());
     assertEquals(TEST_JSON, response.body());
+    assertEquals(Version.HTTP_1_1, response.version());
 
     // ensure timestamp parameter was added
     verify(getRequestedFor(urlPathEqualTo(TEST_PATH))
         .withQueryParam("timestamp", matching("\\d+")));
   }
 
+  @Test
+  void testFetchBytes() {
+    stubFor(get(urlPathEqualTo(TEST_PATH)).willReturn(aResponse()
+        .withBody(TEST_JSON)));
+
+    HttpResponse<byte[]> response = underTest.getBytes(url);
+    assertEquals(200, response.statusCode());
+    assertArrayEquals(TEST_JSON.getBytes(StandardCharsets.UTF_8), response.body());
+    assertArrayEquals(TEST_JSON.getBytes(StandardCharsets.UTF_8), underTest.getBodyBytes(url));
+    assertArrayEquals(TEST_JSON.getBytes(StandardCharsets.UTF_8), underTest.getBytesAsync(url).join().body());
+    assertArrayEquals(TEST_JSON.getBytes(StandardCharsets.UTF_8), underTest.getBodyBytesAsync(url).join());
+  }
+
+  @Test
+  void testFetchBytes_NotFound() {
+    stubFor(get(urlPathEqualTo(TEST_PATH)).willReturn(aResponse()
+        .withStatus(404)));
+
+    HttpRequestFailedException failed = assertThrows(HttpRequestFailedException.class, () -> underTest.getBodyBytes(url));
+    assertEquals(404, failed.getStatusCode());
+    CompletionException ex = assertThrows(CompletionException.class, () -> underTest.getBodyBytesAsync(url).join());
+    assertInstanceOf(HttpRequestFailedException.class, ex.getCause());
+  }
+
+  @Test
+  void testFetchStream() throws IOException {
+    stubFor(get(urlPathEqualTo(TEST_PATH)).willReturn(aResponse()
+        .withBody(TEST_JSON)));
+
+    HttpResponse<InputStream> response = underTest.getStream(url);
+    assertEquals(200, response.statusCode());
+    try (InputStream body = response.body()) {
+      assertEquals(TEST_JSON, new String(body.readAllBytes(), StandardCharsets.UTF_8));
+    }
+  }
+
+  @Test
+  void testFetch_Gzip(WireMockRuntimeInfo wm) throws IOException {
+    underTest = new IntegrationTestContextBuilder()
+        .publishUrl(wm.getHttpBaseUrl())
+        .httpCompression(true)
+        .build()
+        .getHttpClient();
+    String json = "{\"text\":\"" + "compressible ".repeat(100) + "\"}";
+    byte[] gzipped = gzip(json);
+    stubFor(get(urlPathEqualTo(TEST_PATH)).withHeader("Accept-Encoding", equalTo("gzip, deflate")).willReturn(aResponse()
+        .withHeader("Content-Encoding", "gzip")
+        .withBody(gzipped)));
+
+    assertEquals(json, underTest.getBody(url));
+    assertEquals(json, underTest.getBodyAsync(url).join());
+    try (InputStream body = underTest.getStream(url).body()) {
+      assertEquals(json, new String(body.readAllBytes(), StandardCharsets.UTF_8));
+    }
+    assertEquals(3L * gzipped.length, underTest.getStatistics().getBytesReceived());
+    assertEquals(3L * json.length(), underTest.getStatistics().getBytesDecoded());
+  }
+
+  @Test
+  void testFetch_Gzip_Corrupt() {
+    byte[] gzipped = gzip("{\"text\":\"value\"}");
+    gzipped[gzipped.length - 8] ^= 0xff;
+    stubFor(get(urlPathEqualTo(TEST_PATH)).willReturn(aResponse()
+        .withHeader("Content-Encoding", "gzip")
+        .withBody(gzipped)));
+
+    assertThrows(HttpRequestFailedException.class, () -> underTest.getBody(url));
+  }
+
+  @Test
+  void testFetch_UnsupportedContentEncoding() {
+    stubFor(get(urlPathEqualTo(TEST_PATH)).willReturn(aResponse()
+        .withHeader("Content-Encoding", "br")
+        .withBody(TEST_JSON)));
+
+    assertThrows(HttpRequestFailedException.class, () -> underTest.getBody(url));
+  }
+
+  @Test
+  void testFetch_CompressionDisabledByDefault() {
+    stubFor(get(urlPathEqualTo(TEST_PATH)).willReturn(aResponse()
+        .withBody(TEST_JSON)));
+
+    assertEquals(TEST_JSON, underTest.getBody(url));
+    verify(getRequestedFor(urlPathEqualTo(TEST_PATH)).withHeader("Accept-Encoding", absent()));
+    assertEquals(TEST_JSON.length(), underTest.getStatistics().getBytesReceived());
+    assertEquals(TEST_JSON.length(), underTest.getStatistics().getBytesDecoded());
+  }
+
+  @Test
+  void testFetch_Http2(WireMockRuntimeInfo wm) {
+    underTest = new IntegrationTestContextBuilder()
+        .publishUrl(wm.getHttpBaseUrl())
+        .httpVersion(Version.HTTP_2)
+        .build()
+        .getHttpClient();
+    stubFor(get(urlPathEqualTo(TEST_PATH)).willReturn(aResponse()
+        .withBody(TEST_JSON)));
+
+    HttpResponse<String> response = underTest.get(url);
+    assertEquals(200, response.statusCode());
+    assertEquals(TEST_JSON, response.body());
+    assertEquals(Version.HTTP_2, response.version());
+    assertEquals(Set.of(Version.HTTP_2), underTest.getNegotiatedVersions());
+  }
+
   @Test
   void testFetch_Timeout() {
     stubFor(get(urlPathEqualTo(TEST_PATH)).willReturn(aResponse()
@@ -99,4 +227,366 @@ class HttpClientTest {
     assertThrows(HttpRequestFailedException.class, () -> underTest.getBody(url));
   }
 
+  @Test
+  void testFetchAsync() {
+    stubFor(get(urlPathEqualTo(TEST_PATH)).willReturn(aResponse()
+        .withBody(TEST_JSON)));
+
+    HttpResponse<String> response = underTest.getAsync(url).join();
+    assertEquals(200, response.statusCode());
+    assertEquals(TEST_JSON, response.body());
+
+    // ensure timestamp parameter was added
+    verify(getRequestedFor(urlPathEqualTo(TEST_PATH))
+        .withQueryParam("timestamp", matching("\\d+")));
+  }
+
+  @Test
+  void testFetchAsync_Timeout() {
+    stubFor(get(urlPathEqualTo(TEST_PATH)).willReturn(aResponse()
+        .withFixedDelay(3000)
+        .withStatus(404)));
+    CompletionException ex = assertThrows(CompletionException.class, () -> underTest.getAsync(url).join());
+    assertInstanceOf(HttpRequestFailedException.class, ex.getCause());
+  }
+
+  @Test
+  void testFetchBodyAsync() {
+    stubFor(get(urlPathEqualTo(TEST_PATH)).willReturn(aResponse()
+        .withBody(TEST_JSON)));
+
+    assertEquals(TEST_JSON, underTest.getBodyAsync(url).join());
+  }
+
+  @Test
+  void testFetchBodyAsync_NotFound() {
+    stubFor(get(urlPathEqualTo(TEST_PATH)).willReturn(aResponse()
+        .withStatus(404)));
+
+    CompletionException ex = assertThrows(CompletionException.class, () -> underTest.getBodyAsync(url).join());
+    assertInstanceOf(HttpRequestFailedException.class, ex.getCause());
+  }
+
+  @Test
+  void testFetch_RateLimit(WireMockRuntimeInfo wm) {
+    underTest = new IntegrationTestContextBuilder()
+        .publishUrl(wm.getHttpBaseUrl())
+        .httpRateLimit(20)
+        .httpRateLimitBurst(2)
+        .build()
+        .getHttpClient();
+    stubFor(get(urlPathEqualTo(TEST_PATH)).willReturn(aResponse()
+        .withBody(TEST_JSON)));
+
+    long start = System.nanoTime();
+    for (int i = 0; i < 6; i++) {
+      assertEquals(TEST_JSON, underTest.getBody(url));
+    }
+    Duration duration = Duration.ofNanos(System.nanoTime() - start);
+
+    // 2 requests within burst, 4 requests delayed by 50ms each
+    assertTrue(duration.toMillis() >= 150, "duration: " + duration);
+    HttpClientStatistics statistics = underTest.getStatistics();
+    assertEquals(6, statistics.getRequests());
+    assertEquals(4, statistics.getRateLimiterWaits());
+    assertTrue(statistics.getRateLimiterWaitTime().toMillis() > 0);
+  }
+
+  @Test
+  void testFetchAsync_RateLimit(WireMockRuntimeInfo wm) {
+    underTest = new IntegrationTestContextBuilder()
+        .publishUrl(wm.getHttpBaseUrl())
+        .httpRateLimit(20)
+        .build()
+        .getHttpClient();
+    stubFor(get(urlPathEqualTo(TEST_PATH)).willReturn(aResponse()
+        .withBody(TEST_JSON)));
+
+    long start = System.nanoTime();
+    CompletableFuture<?>[] futures = new CompletableFuture<?>[5];
+    for (int i = 0; i < futures.length; i++) {
+      futures[i] = underTest.getBodyAsync(url);
+    }
+    CompletableFuture.allOf(futures).join();
+    Duration duration = Duration.ofNanos(System.nanoTime() - start);
+
+    // 1 request within burst, 4 requests delayed by 50ms each
+    assertTrue(duration.toMillis() >= 150, "duration: " + duration);
+    assertEquals(5, underTest.getStatistics().getRequests());
+    assertEquals(4, underTest.getStatistics().getRateLimiterWaits());
+  }
+
+  @Test
+  void testStatistics_NoRateLimit() {
+    stubFor(get(urlPathEqualTo(TEST_PATH)).willReturn(aResponse()
+        .withBody(TEST_JSON)));
+
+    underTest.getBody(url);
+    underTest.getBodyAsync(url).join();
+
+    HttpClientStatistics statistics = underTest.getStatistics();
+    assertEquals(2, statistics.getRequests());
+    assertEquals(0, statistics.getRateLimiterWaits());
+    assertEquals(Duration.ZERO, statistics.getRateLimiterWaitTime());
+  }
+
+  @Test
+  void testAdaptiveConcurrency(WireMockRuntimeInfo wm) {
+    underTest = new IntegrationTestContextBuilder()
+        .publishUrl(wm.getHttpBaseUrl())
+        .httpAdaptiveConcurrencyLimit(4)
+        .build()
+        .getHttpClient();
+    assertEquals(1, underTest.getConcurrencyLimit());
+    stubFor(get(urlPathEqualTo(TEST_PATH)).willReturn(aResponse()
+        .withBody(TEST_JSON)));
+
+    underTest.getBody(url);
+    assertEquals(2, underTest.getConcurrencyLimit());
+
+    // limit grows up to the maximum limit
+    for (int i = 0; i < 20; i++) {
+      CompletableFuture.allOf(underTest.getBodyAsync(url), underTest.getBodyAsync(url),
+          underTest.getBodyAsync(url), underTest.getBodyAsync(url)).join();
+    }
+    assertEquals(4, underTest.getConcurrencyLimit());
+    assertEquals(4, underTest.getStatistics().getConcurrencyLimit());
+
+    // back off on overload
+    stubFor(get(urlPathEqualTo(TEST_PATH)).willReturn(aResponse()
+        .withStatus(503)));
+    assertEquals(503, underTest.get(url).statusCode());
+    assertEquals(2, underTest.getConcurrencyLimit());
+    assertEquals(2, underTest.getStatistics().getConcurrencyLimit());
+  }
+
+  @Test
+  void testAdaptiveConcurrency_Timeout(WireMockRuntimeInfo wm) {
+    underTest = new IntegrationTestContextBuilder()
+        .publishUrl(wm.getHttpBaseUrl())
+        .httpRequestTimeout(Duration.ofMillis(200))
+        .httpAdaptiveConcurrencyLimit(4)
+        .build()
+        .getHttpClient();
+    stubFor(get(urlPathEqualTo(TEST_PATH)).willReturn(aResponse()
+        .withBody(TEST_JSON)));
+    underTest.getBody(url);
+    underTest.getBody(url);
+    assertEquals(2, underTest.getConcurrencyLimit());
+
+    stubFor(get(urlPathEqualTo(TEST_PATH)).willReturn(aResponse()
+        .withFixedDelay(1000)));
+    CompletionException ex = assertThrows(CompletionException.class, () -> underTest.getAsync(url).join());
+    assertInstanceOf(HttpRequestFailedException.class, ex.getCause());
+    assertEquals(1, underTest.getConcurrencyLimit());
+  }
+
+  @Test
+  void testNoAdaptiveConcurrency() {
+    assertEquals(0, underTest.getConcurrencyLimit());
+    assertEquals(0, underTest.getStatistics().getConcurrencyLimit());
+  }
+
+  @Test
+  void testRetry(WireMockRuntimeInfo wm) {
+    underTest = buildRetryHttpClient(wm);
+    stubFor(get(urlPathEqualTo(TEST_PATH)).inScenario("retry").whenScenarioStateIs(STARTED)
+        .willReturn(aResponse().withFixedDelay(1000))
+        .willSetStateTo("unavailable"));
+    stubFor(get(urlPathEqualTo(TEST_PATH)).inScenario("retry").whenScenarioStateIs("unavailable")
+        .willReturn(aResponse().withStatus(503).withHeader("Retry-After", "0"))
+        .willSetStateTo("ok"));
+    stubFor(get(urlPathEqualTo(TEST_PATH)).inScenario("retry").whenScenarioStateIs("ok")
+        .willReturn(aResponse().withBody(TEST_JSON)));
+
+    assertEquals(TEST_JSON, underTest.getBody(url));
+    assertEquals(3, underTest.getStatistics().getRequests());
+    assertEquals(2, underTest.getStatistics().getRetries());
+  }
+
+  @Test
+  void testRetry_RetryAfterTooLarge(WireMockRuntimeInfo wm) {
+    underTest = new IntegrationTestContextBuilder()
+        .publishUrl(wm.getHttpBaseUrl())
+        .httpRetryPolicy(new RetryPolicy()
+            .maxAttempts(2)
+            .maxBackoff(Duration.ofMillis(10)))
+        .build()
+        .getHttpClient();
+    stubFor(get(urlPathEqualTo(TEST_PATH)).inScenario("retry").whenScenarioStateIs(STARTED)
+        .willReturn(aResponse().withStatus(503).withHeader("Retry-After", "99999999999999999999999"))
+        .willSetStateTo("ok"));
+    stubFor(get(urlPathEqualTo(TEST_PATH)).inScenario("retry").whenScenarioStateIs("ok")
+        .willReturn(aResponse().withBody(TEST_JSON)));
+
+    assertEquals(TEST_JSON, underTest.getBody(url));
+    assertEquals(1, underTest.getStatistics().getRetries());
+  }
+
+  @Test
+  void testRetryAsync(WireMockRuntimeInfo wm) {
+    underTest = buildRetryHttpClient(wm);
+    stubFor(get(urlPathEqualTo(TEST_PATH)).inScenario("retry").whenScenarioStateIs(STARTED)
+        .willReturn(aResponse().withFixedDelay(1000))
+        .willSetStateTo("unavailable"));
+    stubFor(get(urlPathEqualTo(TEST_PATH)).inScenario("retry").whenScenarioStateIs("unavailable")
+        .willReturn(aResponse().withStatus(429))
+        .willSetStateTo("ok"));
+    stubFor(get(urlPathEqualTo(TEST_PATH)).inScenario("retry").whenScenarioStateIs("ok")
+        .willReturn(aResponse().withBody(TEST_JSON)));
+
+    assertEquals(TEST_JSON, underTest.getBodyAsync(url).join());
+    assertEquals(3, underTest.getStatistics().getRequests());
+    assertEquals(2, underTest.getStatistics().getRetries());
+  }
+
+  @Test
+  void testRetry_Exhausted(WireMockRuntimeInfo wm) {
+    underTest = buildRetryHttpClient(wm);
+    stubFor(get(urlPathEqualTo(TEST_PATH)).willReturn(aResponse()
+        .withStatus(503)));
+
+    assertEquals(503, underTest.get(url).statusCode());
+    assertEquals(503, underTest.getAsync(url).join().statusCode());
+    assertEquals(6, underTest.getStatistics().getRequests());
+    assertEquals(4, underTest.getStatistics().getRetries());
+  }
+
+  @Test
+  void testRetry_NotRetryable(WireMockRuntimeInfo wm) {
+    underTest = buildRetryHttpClient(wm);
+    stubFor(get(urlPathEqualTo(TEST_PATH)).willReturn(aResponse()
+        .withStatus(404)));
+
+    assertThrows(HttpRequestFailedException.class, () -> underTest.getBody(url));
+    assertEquals(1, underTest.getStatistics().getRequests());
+    assertEquals(0, underTest.getStatistics().getRetries());
+  }
+
+  private static HttpClient buildRetryHttpClient(WireMockRuntimeInfo wm) {
+    return new IntegrationTestContextBuilder()
+        .publishUrl(wm.getHttpBaseUrl())
+        .httpRequestTimeout(Duration.ofMillis(200))
+        .httpRetryPolicy(new RetryPolicy()
+            .maxAttempts(3)
+            .baseBackoff(Duration.ofMillis(10)))
+        .build()
+        .getHttpClient();
+  }
+
+  @Test
+  void testCache(WireMockRuntimeInfo wm, @TempDir Path cacheDirectory) {
+    underTest = new IntegrationTestContextBuilder()
+        .publishUrl(wm.getHttpBaseUrl())
+        .httpCacheDirectory(cacheDirectory)
+        .build()
+        .getHttpClient();
+    stubFor(get(urlPathEqualTo(TEST_PATH)).willReturn(aResponse()
+        .withHeader("ETag", "\"v1\"")
+        .withBody(TEST_JSON)));
+    stubFor(get(urlPathEqualTo(TEST_PATH)).withHeader("If-None-Match", equalTo("\"v1\"")).willReturn(aResponse()
+        .withStatus(304)));
+
+    HttpResponse<String> uncachedResponse = underTest.get(url);
+    assertEquals(TEST_JSON, uncachedResponse.body());
+    assertFalse(uncachedResponse.isFromCache());
+    verify(getRequestedFor(urlPathEqualTo(TEST_PATH)).withHeader("If-None-Match", absent()));
+    assertEquals(0, underTest.getStatistics().getCacheHits());
+
+    // body is reused from cache
+    HttpResponse<String> response = underTest.get(url);
+    assertEquals(200, response.statusCode());
+    assertEquals(TEST_JSON, response.body());
+    assertTrue(response.isFromCache());
+    assertEquals(TEST_JSON, underTest.getBodyAsync(url).join());
+    verify(2, getRequestedFor(urlPathEqualTo(TEST_PATH)).withHeader("If-None-Match", equalTo("\"v1\"")));
+    assertEquals(2, underTest.getStatistics().getCacheHits());
+  }
+
+  @Test
+  void testCache_BytesAndStream(WireMockRuntimeInfo wm, @TempDir Path cacheDirectory) throws IOException {
+    underTest = new IntegrationTestContextBuilder()
+        .publishUrl(wm.getHttpBaseUrl())
+        .httpCacheDirectory(cacheDirectory)
+        .build()
+        .getHttpClient();
+    stubFor(get(urlPathEqualTo(TEST_PATH)).willReturn(aResponse()
+        .withHeader("ETag", "\"v1\"")
+        .withBody(TEST_JSON)));
+    stubFor(get(urlPathEqualTo(TEST_PATH)).withHeader("If-None-Match", equalTo("\"v1\"")).willReturn(aResponse()
+        .withStatus(304)));
+
+    assertArrayEquals(TEST_JSON.getBytes(StandardCharsets.UTF_8), underTest.getBodyBytes(url));
+    assertEquals(TEST_JSON, underTest.getBody(url));
+    HttpResponse<InputStream> response = underTest.getStream(url);
+    assertEquals(200, response.statusCode());
+    try (InputStream body = response.body()) {
+      assertEquals(TEST_JSON, new String(body.readAllBytes(), StandardCharsets.UTF_8));
+    }
+    assertEquals(2, underTest.getStatistics().getCacheHits());
+  }
+
+  @Test
+  void testCache_BodyRemoved(WireMockRuntimeInfo wm, @TempDir Path cacheDirectory) throws IOException {
+    underTest = new IntegrationTestContextBuilder()
+        .publishUrl(wm.getHttpBaseUrl())
+        .httpCacheDirectory(cacheDirectory)
+        .build()
+        .getHttpClient();
+    stubFor(get(urlPathEqualTo(TEST_PATH)).willReturn(aResponse()
+        .withHeader("ETag", "\"v1\"")
+        .withBody(TEST_JSON)));
+    stubFor(get(urlPathEqualTo(TEST_PATH)).withHeader("If-None-Match", equalTo("\"v1\"")).willReturn(aResponse()
+        .withStatus(304)));
+
+    assertEquals(TEST_JSON, underTest.getBody(url));
+    removeCachedBodies(cacheDirectory);
+
+    // request is retried without conditional request headers
+    assertEquals(TEST_JSON, underTest.getBody(url));
+    removeCachedBodies(cacheDirectory);
+    assertEquals(TEST_JSON, underTest.getBodyAsync(url).join());
+    verify(2, getRequestedFor(urlPathEqualTo(TEST_PATH)).withHeader("If-None-Match", equalTo("\"v1\"")));
+    verify(3, getRequestedFor(urlPathEqualTo(TEST_PATH)).withHeader("If-None-Match", absent()));
+    assertEquals(0, underTest.getStatistics().getCacheHits());
+  }
+
+  private static void removeCachedBodies(Path cacheDirectory) throws IOException {
+    try (Stream<Path> files = Files.list(cacheDirectory)) {
+      for (Path file : files.filter(file -> file.toString().endsWith(".body")).collect(Collectors.toList())) {
+        Files.delete(file);
+      }
+    }
+  }
+
+  @Test
+  void testCache_LastModified(WireMockRuntimeInfo wm, @TempDir Path cacheDirectory) {
+    String lastModified = "Wed, 21 Oct 2015 07:28:00 GMT";
+    underTest = new IntegrationTestContextBuilder()
+        .publishUrl(wm.getHttpBaseUrl())
+        .httpCacheDirectory(cacheDirectory)
+        .build()
+        .getHttpClient();
+    stubFor(get(urlPathEqualTo(TEST_PATH)).willReturn(aResponse()
+        .withHeader("Last-Modified", lastModified)
+        .withBody(TEST_JSON)));
+    stubFor(get(urlPathEqualTo(TEST_PATH)).withHeader("If-Modified-Since", equalTo(lastModified)).willReturn(aResponse()
+        .withBody("{\"changed\":true}")));
+
+    assertEquals(TEST_JSON, underTest.getBody(url));
+    assertEquals("{\"changed\":true}", underTest.getBody(url));
+    assertEquals(0, underTest.getStatistics().getCacheHits());
+  }
+
+  private static byte[] gzip(String value) {
+    ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    try (GZIPOutputStream gzip = new GZIPOutputStream(bos)) {
+      gzip.write(value.getBytes(StandardCharsets.UTF_8));
+    }
+    catch (IOException ex) {
+      throw new IllegalStateException(ex);
+    }
+    return bos.toByteArray();
+  }
+
 }
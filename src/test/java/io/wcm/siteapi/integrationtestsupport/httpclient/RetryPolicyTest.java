@@ -0,0 +1,133 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2023 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.siteapi.integrationtestsupport.httpclient;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.http.HttpHeaders;
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class RetryPolicyTest {
+
+  @Test
+  void testDefaults() {
+    RetryPolicy underTest = new RetryPolicy();
+    assertEquals(1, underTest.getMaxAttempts());
+    assertTrue(underTest.isRetryable(503));
+    assertFalse(underTest.isRetryable(404));
+    assertTrue(underTest.isRetryable(new ConnectException()));
+    assertFalse(underTest.isRetryable(new IllegalStateException()));
+  }
+
+  @Test
+  void testRetryableStatusCodesAndExceptions() {
+    RetryPolicy underTest = new RetryPolicy()
+        .retryableStatusCodes(500)
+        .retryableExceptions(List.of(ConnectException.class));
+    assertTrue(underTest.isRetryable(500));
+    assertFalse(underTest.isRetryable(503));
+    assertTrue(underTest.isRetryable(new ConnectException()));
+    assertFalse(underTest.isRetryable(new IOException()));
+  }
+
+  @Test
+  void testExponentialBackoff() {
+    RetryPolicy underTest = new RetryPolicy()
+        .baseBackoff(Duration.ofMillis(100))
+        .maxBackoff(Duration.ofMillis(500))
+        .jitter(0);
+    assertEquals(Duration.ofMillis(100), underTest.getBackoff(1, null));
+    assertEquals(Duration.ofMillis(200), underTest.getBackoff(2, null));
+    assertEquals(Duration.ofMillis(400), underTest.getBackoff(3, null));
+    assertEquals(Duration.ofMillis(500), underTest.getBackoff(4, null));
+    assertEquals(Duration.ofMillis(500), underTest.getBackoff(50, null));
+  }
+
+  @Test
+  void testJitter() {
+    RetryPolicy underTest = new RetryPolicy()
+        .baseBackoff(Duration.ofMillis(100))
+        .jitter(0.5);
+    for (int i = 0; i < 100; i++) {
+      Duration backoff = underTest.getBackoff(1, null);
+      assertTrue(backoff.toMillis() >= 50 && backoff.toMillis() <= 100, "backoff: " + backoff);
+    }
+  }
+
+  @Test
+  void testRetryAfter() {
+    RetryPolicy underTest = new RetryPolicy()
+        .maxBackoff(Duration.ofSeconds(10));
+    assertEquals(Duration.ofSeconds(2), underTest.getBackoff(1, headers("2")));
+    assertEquals(Duration.ofSeconds(10), underTest.getBackoff(1, headers("120")));
+  }
+
+  @Test
+  void testRetryAfter_NotHonored() {
+    RetryPolicy underTest = new RetryPolicy()
+        .baseBackoff(Duration.ofMillis(100))
+        .jitter(0)
+        .honorRetryAfter(false);
+    assertEquals(Duration.ofMillis(100), underTest.getBackoff(1, headers("2")));
+  }
+
+  @Test
+  void testParseRetryAfter() {
+    assertEquals(Duration.ofSeconds(5), RetryPolicy.parseRetryAfter(" 5 "));
+    assertEquals(Duration.ZERO, RetryPolicy.parseRetryAfter("Wed, 21 Oct 2015 07:28:00 GMT"));
+    Duration duration = RetryPolicy.parseRetryAfter(ZonedDateTime.now(ZoneOffset.UTC).plusSeconds(60)
+        .format(DateTimeFormatter.RFC_1123_DATE_TIME));
+    assertTrue(duration.getSeconds() > 50 && duration.getSeconds() <= 60, "duration: " + duration);
+    assertNull(RetryPolicy.parseRetryAfter("invalid"));
+    assertEquals(Duration.ofSeconds(Long.MAX_VALUE), RetryPolicy.parseRetryAfter("99999999999999999999999"));
+  }
+
+  @Test
+  void testRetryAfter_TooLarge() {
+    RetryPolicy underTest = new RetryPolicy()
+        .maxBackoff(Duration.ofSeconds(10));
+    assertEquals(Duration.ofSeconds(10), underTest.getBackoff(1, headers("99999999999999999999999")));
+  }
+
+  @Test
+  void testInvalidValues() {
+    RetryPolicy underTest = new RetryPolicy();
+    assertThrows(IllegalArgumentException.class, () -> underTest.maxAttempts(0));
+    assertThrows(IllegalArgumentException.class, () -> underTest.jitter(1.5));
+  }
+
+  private static HttpHeaders headers(String retryAfter) {
+    return HttpHeaders.of(Map.of("Retry-After", List.of(retryAfter)), (name, value) -> true);
+  }
+
+}
@@ -0,0 +1,58 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2023 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.siteapi.integrationtestsupport.httpclient;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class TokenBucketRateLimiterTest {
+
+  @Test
+  void testBurst() {
+    TokenBucketRateLimiter underTest = new TokenBucketRateLimiter(1, 3);
+    assertEquals(0, underTest.reserve());
+    assertEquals(0, underTest.reserve());
+    assertEquals(0, underTest.reserve());
+    assertTrue(underTest.reserve() > 0);
+  }
+
+  @Test
+  void testWaitTimeAccumulates() {
+    TokenBucketRateLimiter underTest = new TokenBucketRateLimiter(10, 1);
+    assertEquals(0, underTest.reserve());
+    long wait1 = underTest.reserve();
+    long wait2 = underTest.reserve();
+    assertTrue(wait1 > TimeUnit.MILLISECONDS.toNanos(90) && wait1 <= TimeUnit.MILLISECONDS.toNanos(100), "wait1: " + wait1);
+    assertTrue(wait2 > TimeUnit.MILLISECONDS.toNanos(190) && wait2 <= TimeUnit.MILLISECONDS.toNanos(200), "wait2: " + wait2);
+  }
+
+  @Test
+  void testRefill() throws InterruptedException {
+    TokenBucketRateLimiter underTest = new TokenBucketRateLimiter(100, 1);
+    assertEquals(0, underTest.reserve());
+    Thread.sleep(20);
+    assertEquals(0, underTest.reserve());
+  }
+
+}
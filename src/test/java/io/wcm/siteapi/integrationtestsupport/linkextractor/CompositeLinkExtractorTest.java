@@ -0,0 +1,96 @@
+package io.wcm.siteapi.integrationtestsupport.linkextractor;
+
+import static io.wcm.siteapi.integrationtestsupport.linkextractor.LinkExtractorTestUtils.getJson;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.jayway.jsonpath.DocumentContext;
+import com.jayway.jsonpath.JsonPath;
+
+class CompositeLinkExtractorTest {
+
+  private static final String RICHTEXT_RESOURCE_TYPE = "siteapi-test/core/components/content/text";
+
+  private CompositeLinkExtractor underTest;
+
+  @BeforeEach
+  void setUp() {
+    underTest = new CompositeLinkExtractor(List.of(
+        new IndexLinks(),
+        new ContentInternalLinks(),
+        new RichTextInternalLinks(RICHTEXT_RESOURCE_TYPE),
+        new TitleLinks()));
+  }
+
+  @Test
+  void testAccept() {
+    assertTrue(underTest.accept("index"));
+    assertTrue(underTest.accept("content"));
+    assertTrue(underTest.accept("title"));
+    assertFalse(underTest.accept("unknown"));
+  }
+
+  @Test
+  void testGetLinks_content() {
+    assertEquals(Set.of("http://localhost:4502/content/siteapi-test/en/page-1.site.api/content.json"),
+        getLinks("content", "linkextractor/content.json"));
+  }
+
+  @Test
+  void testGetLinks_navigation() {
+    String json = getJson("linkextractor/navigation.json");
+    assertEquals(new ContentInternalLinks().getLinks(JsonPath.parse(json))
+        .collect(Collectors.toSet()), getLinks("navigation", "linkextractor/navigation.json"));
+  }
+
+  @Test
+  void testGetLinks_JsonPathLinkExtractor() {
+    assertEquals(Set.of("/HOME"), getLinks("title", "linkextractor/navigation.json"));
+  }
+
+  @Test
+  void testGetLinks_unknownSuffix() {
+    assertEquals(Set.of(), getLinks("unknown", "linkextractor/content.json"));
+  }
+
+  private Set<String> getLinks(String suffix, String classpath) {
+    String json = getJson(classpath);
+    List<String> links = underTest.getLinks(suffix, json).collect(Collectors.toList());
+    Set<String> distinctLinks = Set.copyOf(links);
+    assertEquals(distinctLinks.size(), links.size(), "distinct links");
+
+    // extracting links from UTF-8 bytes returns the same links
+    List<String> bytesLinks = underTest.getLinks(suffix, json.getBytes(StandardCharsets.UTF_8)).collect(Collectors.toList());
+    assertEquals(links, bytesLinks);
+
+    return distinctLinks;
+  }
+
+  /**
+   * Link extractor without streaming support, returns a link built from the root title.
+   */
+  private static class TitleLinks implements LinkExtractor {
+
+    @Override
+    public boolean accept(String suffix) {
+      return "title".equals(suffix);
+    }
+
+    @Override
+    public Stream<String> getLinks(DocumentContext jsonPathContext) {
+      return Stream.of("/" + jsonPathContext.read("$.title"));
+    }
+
+  }
+
+}
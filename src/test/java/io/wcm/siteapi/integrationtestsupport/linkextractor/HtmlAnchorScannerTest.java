@@ -0,0 +1,52 @@
+package io.wcm.siteapi.integrationtestsupport.linkextractor;
+
+import static io.wcm.siteapi.integrationtestsupport.linkextractor.LinkExtractorTestUtils.getJson;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.jsoup.Jsoup;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import com.jayway.jsonpath.JsonPath;
+
+class HtmlAnchorScannerTest {
+
+  @ParameterizedTest
+  @MethodSource("richTextFragments")
+  void testScan_SameResultAsJsoup(String html) {
+    List<String> expected = Jsoup.parse(html).select("a[data-type='internal']").stream()
+        .map(a -> a.attr("href"))
+        .collect(Collectors.toList());
+
+    List<String> actual = new ArrayList<>();
+    HtmlAnchorScanner.scan(html, actual::add);
+
+    assertEquals(expected, actual, html);
+  }
+
+  @Test
+  void testScan_Noscript() {
+    String link = "<a href=\"/in\" data-type=\"internal\">x</a>";
+    assertEquals(List.of(), scan("<noscript>" + link + "</noscript>"));
+    assertEquals(List.of("/in"), scan("<p><noscript>" + link + "</noscript>"));
+    assertEquals(List.of("/in"), scan("<div></div><noscript>" + link + "</noscript>"));
+  }
+
+  private static List<String> scan(String html) {
+    List<String> result = new ArrayList<>();
+    HtmlAnchorScanner.scan(html, result::add);
+    return result;
+  }
+
+  static Stream<String> richTextFragments() {
+    List<String> fragments = JsonPath.parse(getJson("linkextractor/richtext-fragments.json")).read("$");
+    return fragments.stream();
+  }
+
+}
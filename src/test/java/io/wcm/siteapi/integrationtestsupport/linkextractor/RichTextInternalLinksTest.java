@@ -3,6 +3,8 @@ package io.wcm.siteapi.integrationtestsupport.linkextractor;
 import static io.wcm.siteapi.integrationtestsupport.linkextractor.LinkExtractorTestUtils.assertLinks;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.List;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -26,4 +28,12 @@ class RichTextInternalLinksTest {
         "http://localhost:4502/content/siteapi-test/en/page-1.site.api/content.json");
   }
 
+  @Test
+  void testGetLinks_Jsoup() {
+    underTest = new RichTextInternalLinks(RichTextInternalLinks.HtmlParser.JSOUP,
+        List.of("siteapi-test/core/components/content/text"));
+    assertLinks(underTest, "linkextractor/content.json",
+        "http://localhost:4502/content/siteapi-test/en/page-1.site.api/content.json");
+  }
+
 }
@@ -0,0 +1,69 @@
+package io.wcm.siteapi.integrationtestsupport.linkextractor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+class StreamingLinkScannerTest {
+
+  private final StreamingLinkScanner contentLinks = new StreamingLinkScanner(new ContentInternalLinks());
+  private final StreamingLinkScanner indexLinks = new StreamingLinkScanner(new IndexLinks());
+
+  @Test
+  void testNestedObjects() {
+    String json = "{\"url\":\"/root\",\"child\":{\"url\":\"/child\",\"type\":\"internal\","
+        + "\"items\":[{\"url\":\"/item\",\"type\":\"internal\"}]},\"type\":\"internal\"}";
+    assertEquals(List.of("/item", "/child", "/root"), getLinks(contentLinks, json));
+  }
+
+  @Test
+  void testIgnoreNonMatching() {
+    String json = "{\"list\":[\"url\",\"internal\"],\"type\":\"internal\","
+        + "\"a\":{\"url\":\"/external\",\"type\":\"external\"},"
+        + "\"b\":{\"url\":5,\"type\":\"internal\"},"
+        + "\"c\":{\"url\":null,\"type\":\"internal\"},"
+        + "\"d\":{\"url\":\"/valid\",\"type\":\"internal\"}}";
+    assertEquals(List.of("/valid"), getLinks(contentLinks, json));
+  }
+
+  @Test
+  void testDepth() {
+    String json = "[{\"suffix\":\"content\",\"url\":\"/content\"},{\"nested\":{\"url\":\"/nested\"}}]";
+    assertEquals(List.of("/content"), getLinks(indexLinks, json));
+  }
+
+  @Test
+  void testInvalidJson() {
+    assertThrows(IllegalArgumentException.class, () -> getLinks(contentLinks, "{\"url\":"));
+  }
+
+  @Test
+  void testInvalidJson_Bytes() {
+    byte[] json = "{\"url\":".getBytes(StandardCharsets.UTF_8);
+    assertThrows(IllegalArgumentException.class, () -> contentLinks.scan(json, link -> { /* ignore */ }));
+  }
+
+  @Test
+  void testNonAsciiBytes() {
+    String json = "{\"url\":\"/k\u00fcche\",\"type\":\"internal\"}";
+    assertEquals(List.of("/k\u00fcche"), getLinks(contentLinks, json));
+  }
+
+  private static List<String> getLinks(StreamingLinkScanner scanner, String json) {
+    List<String> links = scanner.getLinks(json).collect(Collectors.toList());
+
+    // scanning UTF-8 bytes returns the same links
+    List<String> bytesLinks = new ArrayList<>();
+    scanner.scan(json.getBytes(StandardCharsets.UTF_8), bytesLinks::add);
+    assertEquals(links, bytesLinks);
+
+    return links;
+  }
+
+}
@@ -0,0 +1,175 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2023 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.siteapi.integrationtestsupport.syntheticsite;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import io.wcm.siteapi.integrationtestsupport.IntegrationTestContext;
+import io.wcm.siteapi.integrationtestsupport.IntegrationTestContextBuilder;
+import io.wcm.siteapi.integrationtestsupport.crawler.Crawler;
+import io.wcm.siteapi.integrationtestsupport.httpclient.HttpResponse;
+import io.wcm.siteapi.integrationtestsupport.linkextractor.ContentInternalLinks;
+import io.wcm.siteapi.integrationtestsupport.linkextractor.IndexLinks;
+import io.wcm.siteapi.integrationtestsupport.linkextractor.LinkExtractor;
+import io.wcm.siteapi.integrationtestsupport.linkextractor.RichTextInternalLinks;
+
+class SyntheticSiteApiServerTest {
+
+  private SyntheticSiteApiServer underTest;
+
+  @AfterEach
+  void tearDown() {
+    if (underTest != null) {
+      underTest.close();
+    }
+  }
+
+  @Test
+  void testCrawl() {
+    underTest = new SyntheticSiteApiServer()
+        .pages(200)
+        .fanOut(4)
+        .richTextLinks(3)
+        .start();
+    Crawler crawler = buildCrawler(buildContext(4));
+    crawler.start(underTest.getIndexUrl());
+
+    assertEquals(200, underTest.getPageCount());
+    assertEquals(203, underTest.getExpectedUrls());
+    assertEquals(underTest.getExpectedUrls(), crawler.numberOfVisits(), "number of visits");
+    assertEquals(0, crawler.numberOfFailedVisits(), "number of failed visits");
+    assertEquals(underTest.getExpectedUrls(), underTest.getRequests());
+  }
+
+  @Test
+  void testCrawl_MaxDepth() {
+    underTest = new SyntheticSiteApiServer()
+        .pages(1000)
+        .fanOut(3)
+        .maxDepth(2)
+        .start();
+    Crawler crawler = buildCrawler(buildContext(1));
+    crawler.start(underTest.getIndexUrl());
+
+    assertEquals(13, underTest.getPageCount());
+    assertEquals(underTest.getExpectedUrls(), crawler.numberOfVisits(), "number of visits");
+  }
+
+  @Test
+  void testCrawl_InjectedErrors() {
+    underTest = new SyntheticSiteApiServer()
+        .pages(10)
+        .errorRate(1)
+        .start();
+    Crawler crawler = buildCrawler(buildContext(1));
+    crawler.start(underTest.getIndexUrl());
+
+    assertEquals(1, crawler.numberOfVisits(), "number of visits");
+    assertEquals(1, crawler.numberOfFailedVisits(), "number of failed visits");
+    assertEquals(1, underTest.getInjectedErrors());
+  }
+
+  @Test
+  void testPayloadSizeAndCompression() {
+    underTest = new SyntheticSiteApiServer()
+        .payloadSize(50_000)
+        .start();
+    IntegrationTestContext context = new IntegrationTestContextBuilder()
+        .publishUrl(underTest.getPublishUrl())
+        .apiVersion("v1")
+        .httpCompression(true)
+        .build();
+    String body = context.getHttpClient().getBody(context.buildSiteApiUrl("/content/synthetic", "content"));
+
+    assertTrue(body.length() >= 50_000, "payload size: " + body.length());
+    assertTrue(context.getHttpClient().getStatistics().getBytesReceived() < body.length() / 10, "compressed");
+  }
+
+  @Test
+  void testLatency() {
+    underTest = new SyntheticSiteApiServer()
+        .latency(Duration.ofMillis(100))
+        .start();
+    IntegrationTestContext context = buildContext(1);
+    long start = System.nanoTime();
+    context.getHttpClient().getBody(underTest.getIndexUrl());
+    assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() >= 100);
+  }
+
+  @Test
+  void testRequestLog() {
+    underTest = new SyntheticSiteApiServer()
+        .requestLog(true)
+        .start();
+    IntegrationTestContext context = buildContext(1);
+    context.getHttpClient().getBody(context.buildSiteApiUrl("/content/synthetic", "content"));
+    context.getHttpClient().getBody(underTest.getIndexUrl());
+
+    assertEquals(List.of("/content/synthetic.site.v1.api/content.json", "/content/synthetic.site.v1.api/index.json"),
+        underTest.getRequestLog());
+  }
+
+  @Test
+  void testNotFound() {
+    underTest = new SyntheticSiteApiServer()
+        .pages(10)
+        .start();
+    IntegrationTestContext context = buildContext(1);
+    HttpResponse<String> response = context.getHttpClient().get(context.buildSiteApiUrl("/content/synthetic/page-99", "content"));
+    assertEquals(404, response.statusCode());
+  }
+
+  @Test
+  void testInvalidConfiguration() {
+    assertThrows(IllegalArgumentException.class, () -> new SyntheticSiteApiServer().pages(0).start());
+    assertThrows(IllegalArgumentException.class, () -> new SyntheticSiteApiServer().errorRate(1.5).start());
+  }
+
+  @Test
+  void testNotStarted() {
+    assertThrows(IllegalStateException.class, () -> new SyntheticSiteApiServer().getIndexUrl());
+  }
+
+  private IntegrationTestContext buildContext(int crawlerConcurrency) {
+    return new IntegrationTestContextBuilder()
+        .publishUrl(underTest.getPublishUrl())
+        .apiVersion("v1")
+        .httpConnectTimeout(Duration.ofMillis(2000))
+        .httpRequestTimeout(Duration.ofMillis(2000))
+        .crawlerConcurrency(crawlerConcurrency)
+        .build();
+  }
+
+  private static Crawler buildCrawler(IntegrationTestContext context) {
+    return new Crawler(context, List.<LinkExtractor>of(
+        new IndexLinks(),
+        new ContentInternalLinks(),
+        new RichTextInternalLinks(SyntheticSite.RESOURCE_TYPE_TEXT)));
+  }
+
+}
@@ -0,0 +1,100 @@
+/*
+ * #%L
+ * wcm.io
+ * %%
+ * Copyright (C) 2023 wcm.io
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.wcm.siteapi.integrationtestsupport.syntheticsite;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class SyntheticSiteTest {
+
+  private SyntheticSite underTest;
+
+  @BeforeEach
+  void setUp() {
+    underTest = new SyntheticSite(new SyntheticSiteApiServer().pages(20).fanOut(3), "http://localhost:4502");
+  }
+
+  @Test
+  void testCalculatePageCount() {
+    assertEquals(20, SyntheticSite.calculatePageCount(20, 3, 10));
+    assertEquals(13, SyntheticSite.calculatePageCount(20, 3, 2));
+    assertEquals(1, SyntheticSite.calculatePageCount(20, 3, 0));
+    assertEquals(5, SyntheticSite.calculatePageCount(100, 1, 4));
+    assertEquals(1_000_000, SyntheticSite.calculatePageCount(1_000_000, 1000, 10));
+  }
+
+  @Test
+  void testPagePaths() {
+    assertEquals("/content/synthetic", underTest.getPagePath(0));
+    assertEquals("/content/synthetic/page-1", underTest.getPagePath(1));
+    assertEquals("/content/synthetic/page-3", underTest.getPagePath(3));
+    assertEquals("/content/synthetic/page-1/page-1", underTest.getPagePath(4));
+    assertEquals("/content/synthetic/page-2/page-3", underTest.getPagePath(9));
+    for (int page = 0; page < underTest.getPageCount(); page++) {
+      assertEquals(page, underTest.getPage(underTest.getPagePath(page)));
+    }
+  }
+
+  @Test
+  void testGetPage_Invalid() {
+    assertEquals(-1, underTest.getPage("/content/other"));
+    assertEquals(-1, underTest.getPage("/content/synthetic2"));
+    assertEquals(-1, underTest.getPage("/content/synthetic/page-4"));
+    assertEquals(-1, underTest.getPage("/content/synthetic/page-0"));
+    assertEquals(-1, underTest.getPage("/content/synthetic/other"));
+    assertEquals(-1, underTest.getPage("/content/synthetic/page-3/page-3/page-3"));
+  }
+
+  @Test
+  void testGetChildren() {
+    assertEquals(List.of(1, 2, 3), underTest.getChildren(0));
+    assertEquals(List.of(19), underTest.getChildren(6));
+    assertEquals(List.of(), underTest.getChildren(7));
+  }
+
+  @Test
+  void testParseRequest() {
+    SyntheticSite.Request request = underTest.parseRequest("/content/synthetic/page-2.site.v1.api/content.json");
+    assertNotNull(request);
+    assertEquals(2, request.getPage());
+    assertEquals("content", request.getSuffix());
+    assertNull(underTest.parseRequest("/content/synthetic/page-2.site.v2.api/content.json"));
+    assertNull(underTest.parseRequest("/content/synthetic/page-2.site.v1.api/content.txt"));
+    assertNull(underTest.parseRequest("/content/synthetic/page-9.site.v1.api/content.json"));
+  }
+
+  @Test
+  void testGetJson_UnknownSuffix() {
+    assertNull(underTest.getJson(underTest.parseRequest("/content/synthetic.site.v1.api/unknown.json")));
+  }
+
+  @Test
+  void testGetUrl() {
+    assertEquals("http://localhost:4502/content/synthetic/page-1.site.v1.api/navigation.json",
+        underTest.getUrl(1, "navigation"));
+  }
+
+}